@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.h2.MetadataToH2;
+import com.jaxio.celerio.configuration.database.support.MetadataExtractor;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator;
+import org.h2.tools.RunScript;
+import org.springframework.context.ApplicationContext;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * In-memory H2 schemas of a given number of tables.
+ * <p>
+ * The tables come from the {@link SyntheticSchemaGenerator} with a fixed seed: simple and composite primary keys, a
+ * unique name, columns of common types, enums, foreign keys to the previous tables and a join table every ten tables,
+ * so that every benchmark run sees the same schema.
+ */
+public final class BenchmarkSchema {
+
+    private BenchmarkSchema() {
+    }
+
+    /**
+     * Creates the schema in a new in-memory database. The database lives until the returned connection is closed.
+     */
+    public static Connection createDatabase(int tables) throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:", "sa", "");
+        RunScript.execute(connection, new StringReader(getCreateScript(tables)));
+        return connection;
+    }
+
+    public static Metadata extractMetadata(ApplicationContext context, int tables) throws ClassNotFoundException, SQLException {
+        Connection connection = createDatabase(tables);
+        try {
+            return context.getBean(MetadataExtractor.class).extract(connection);
+        } finally {
+            connection.close();
+        }
+    }
+
+    public static String getCreateScript(int tables) {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setTables(tables);
+        generator.setManyToManyTables(tables / 10);
+        // the hierarchies need their configuration, the benchmarks only use the metadata
+        generator.setInheritanceHierarchies(0);
+        return new MetadataToH2(generator.generate().getMetadata()).getCreateScript();
+    }
+}
\ No newline at end of file
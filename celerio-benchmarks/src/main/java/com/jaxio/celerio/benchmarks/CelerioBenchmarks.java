@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.configuration.Celerio;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.model.Project;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * Engine set up shared by the benchmarks.
+ */
+public final class CelerioBenchmarks {
+    public static final String ROOT_PACKAGE = "com.example.benchmark";
+
+    private CelerioBenchmarks() {
+    }
+
+    public static ClassPathXmlApplicationContext newContext() {
+        return new ClassPathXmlApplicationContext("classpath:applicationContext-celerio.xml");
+    }
+
+    /**
+     * Prepares the config for a new project built from the given metadata with the default configuration.
+     */
+    public static void configure(Config config, Metadata metadata, DiscardOutputResult outputResult) {
+        config.setMetadata(metadata);
+        config.setOutputResult(outputResult);
+        config.setBaseDir(".");
+        newProject(config);
+    }
+
+    /**
+     * Resets what ProjectFactory.init changes, so that the project can be built again.
+     */
+    public static void newProject(Config config) {
+        Celerio celerio = new Celerio();
+        celerio.getConfiguration().setRootPackage(ROOT_PACKAGE);
+        config.setCelerio(celerio);
+        config.setProject(new Project());
+    }
+}
\ No newline at end of file
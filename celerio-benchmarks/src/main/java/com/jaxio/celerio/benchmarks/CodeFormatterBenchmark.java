@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.configuration.convention.XmlFormatter;
+import com.jaxio.celerio.output.EclipseCodeFormatter;
+import com.jaxio.celerio.output.XmlCodeFormatter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.newContext;
+
+/**
+ * Formats an unformatted java class and an unformatted xml file, both sized by their number of fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CodeFormatterBenchmark {
+    @Param({"10", "100", "1000"})
+    private int fields;
+
+    private ClassPathXmlApplicationContext context;
+    private EclipseCodeFormatter eclipseCodeFormatter;
+    private XmlCodeFormatter xmlCodeFormatter;
+    private String java;
+    private String xml;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = newContext();
+        eclipseCodeFormatter = context.getBean(EclipseCodeFormatter.class);
+        xmlCodeFormatter = context.getBean(XmlCodeFormatter.class);
+        // xml formatting is disabled by default
+        XmlFormatter xmlFormatter = new XmlFormatter();
+        xmlFormatter.setEnableXmlFormatter(true);
+        xmlCodeFormatter.setXmlFormatterConfig(xmlFormatter);
+        java = newJavaSource();
+        xml = newXmlSource();
+    }
+
+    private String newJavaSource() {
+        StringBuilder source = new StringBuilder("package " + CelerioBenchmarks.ROOT_PACKAGE + ";\n");
+        source.append("import java.util.Date;\n");
+        source.append("public class Benchmark implements java.io.Serializable {\n");
+        for (int i = 0; i < fields; i++) {
+            source.append("private Date field").append(i).append(";\n");
+            source.append("/** Field ").append(i).append(" */\n");
+            source.append("public Date getField").append(i).append("() { return field").append(i).append("; }\n");
+            source.append("public void setField").append(i).append("(Date field").append(i).append(") {this.field").append(i).append(" = field")
+                    .append(i).append(";}\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private String newXmlSource() {
+        StringBuilder source = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        source.append("<entity-mappings version=\"2.0\"><entity class=\"Benchmark\"><attributes>");
+        for (int i = 0; i < fields; i++) {
+            source.append("<basic name=\"field").append(i).append("\"><column name=\"FIELD_").append(i).append("\" nullable=\"false\"/>");
+            source.append("<!-- field ").append(i).append(" --></basic>");
+        }
+        return source.append("</attributes></entity></entity-mappings>").toString();
+    }
+
+    @Benchmark
+    public String formatJava() {
+        return eclipseCodeFormatter.format(java);
+    }
+
+    @Benchmark
+    public String formatXml() {
+        return xmlCodeFormatter.format(xml);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
\ No newline at end of file
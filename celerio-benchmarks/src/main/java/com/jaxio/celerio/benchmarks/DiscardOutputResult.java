@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.output.OutputResult;
+import com.jaxio.celerio.output.SourceFile;
+import com.jaxio.celerio.template.pack.Template;
+import com.jaxio.celerio.template.pack.TemplatePack;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Output result that only counts what it is given, so that benchmarks measure the engine and not the disk.
+ */
+public class DiscardOutputResult implements OutputResult {
+    private final SourceFile source = new DiscardSourceFile();
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    @Override
+    public void open() {
+    }
+
+    @Override
+    public void addContent(InputStream contentStream, String targetFilename, TemplatePack pack, Template template) throws IOException {
+        addContent(IOUtils.toByteArray(contentStream), targetFilename, pack, template);
+    }
+
+    @Override
+    public void addContent(byte[] contentBytes, String targetFilename, TemplatePack pack, Template template) {
+        files.incrementAndGet();
+        bytes.addAndGet(contentBytes.length);
+    }
+
+    @Override
+    public void addCollisionContent(byte[] contentBytes, String targetFilename, TemplatePack pack, Template template) {
+        addContent(contentBytes, targetFilename, pack, template);
+    }
+
+    @Override
+    public boolean hasCollision(String pathToFile) {
+        return false;
+    }
+
+    @Override
+    public String getCollisionName(String targetFilename) {
+        return targetFilename;
+    }
+
+    @Override
+    public SourceFile getUserSource() {
+        return source;
+    }
+
+    @Override
+    public SourceFile getGeneratedSource() {
+        return source;
+    }
+
+    @Override
+    public boolean sameDirectory() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public long getFiles() {
+        return files.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * An always empty folder.
+     */
+    private static class DiscardSourceFile implements SourceFile {
+        @Override
+        public String getDirectory() {
+            return "discard";
+        }
+
+        @Override
+        public String getFullPath(String pathToFile) {
+            return getDirectory() + "/" + pathToFile;
+        }
+
+        @Override
+        public boolean fileExists(String pathToFile) {
+            return false;
+        }
+
+        @Override
+        public byte[] getContent(String pathToFile) {
+            return null;
+        }
+
+        @Override
+        public boolean isSameContent(String pathToExistingContent, byte[] contentToCompare) {
+            return false;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.template.ImportsHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Requires types the way the templates do, each type several times, some of them from java.lang or from the current
+ * package, then renders the import statements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportsHolderBenchmark {
+    private static final String CURRENT_PACKAGE = CelerioBenchmarks.ROOT_PACKAGE + ".domain";
+    private static final int REQUIRES_PER_TYPE = 5;
+
+    @Param({"10", "100", "1000"})
+    private int types;
+
+    private List<String> requiredTypes = newArrayList();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < REQUIRES_PER_TYPE; i++) {
+            for (int type = 0; type < types; type++) {
+                switch (type % 4) {
+                case 0:
+                    requiredTypes.add("java.lang.String");
+                    break;
+                case 1:
+                    requiredTypes.add(CURRENT_PACKAGE + ".Type" + type);
+                    break;
+                case 2:
+                    requiredTypes.add("org.example.package" + type % 10 + ".Type" + type);
+                    break;
+                default:
+                    requiredTypes.add("com.example.package" + type % 10 + ".Type" + type);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public String requireAndRender() {
+        ImportsHolder importsHolder = new ImportsHolder(CURRENT_PACKAGE);
+        for (String requiredType : requiredTypes) {
+            importsHolder.add(requiredType);
+        }
+        return importsHolder.toJavaImportString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.google.common.base.Predicates;
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.factory.ProjectFactory;
+import com.jaxio.celerio.model.AttributeOrder;
+import com.jaxio.celerio.model.Entity;
+import com.jaxio.celerio.model.Relation;
+import com.jaxio.celerio.model.support.EntityAttributes;
+import com.jaxio.celerio.model.support.EntityRelations;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.jaxio.celerio.benchmarks.BenchmarkSchema.extractMetadata;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.configure;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.newContext;
+import static com.jaxio.celerio.model.support.EntityListGetters.ATTRIBUTES;
+import static com.jaxio.celerio.model.support.EntityListGetters.RELATIONS;
+
+/**
+ * Builds the sorted attribute and relation lists of every entity the way the templates read them during produce, on
+ * fresh list holders so that nothing is cached. Run it with <code>-prof gc</code> to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ListHolderBenchmark {
+    @Param({"10", "100", "1000"})
+    private int tables;
+
+    private ClassPathXmlApplicationContext context;
+    private Config config;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = newContext();
+        config = context.getBean(Config.class);
+        configure(config, extractMetadata(context, tables), new DiscardOutputResult());
+        context.getBean(ProjectFactory.class).init();
+    }
+
+    @Benchmark
+    public void sortedLists(Blackhole blackhole) {
+        for (Entity entity : config.getProject().getCurrentEntities()) {
+            for (AttributeOrder attributeOrder : AttributeOrder.values()) {
+                EntityAttributes attributes = new EntityAttributes(entity, ATTRIBUTES, attributeOrder);
+                blackhole.consume(attributes.getList());
+                blackhole.consume(attributes.getFlatUp().getList());
+                blackhole.consume(attributes.except("id").getList());
+            }
+            EntityRelations relations = new EntityRelations(entity, RELATIONS, Predicates.<Relation>alwaysTrue());
+            blackhole.consume(relations.getList());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
\ No newline at end of file
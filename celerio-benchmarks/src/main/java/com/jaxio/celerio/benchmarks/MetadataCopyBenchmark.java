@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.thoughtworks.xstream.XStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.jaxio.celerio.benchmarks.BenchmarkSchema.extractMetadata;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.newContext;
+
+/**
+ * Copies the metadata the way Config.setMetadata keeps the original metadata for the templates, compared with the
+ * XStream round trip it used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetadataCopyBenchmark {
+    @Param({"100", "1000", "5000"})
+    private int tables;
+
+    private Metadata metadata;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ClassPathXmlApplicationContext context = newContext();
+        try {
+            metadata = extractMetadata(context, tables);
+        } finally {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Metadata copy() {
+        return new Metadata(metadata);
+    }
+
+    @Benchmark
+    public Metadata xstreamCopy() {
+        XStream xstream = new XStream();
+        return (Metadata) xstream.fromXML(xstream.toXML(metadata));
+    }
+}
\ No newline at end of file
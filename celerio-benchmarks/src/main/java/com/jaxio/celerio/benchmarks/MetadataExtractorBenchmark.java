@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.support.MetadataExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+import static com.jaxio.celerio.benchmarks.BenchmarkSchema.createDatabase;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.newContext;
+
+/**
+ * Extracts the metadata of an in-memory H2 database, table by table or in bulk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetadataExtractorBenchmark {
+    @Param({"10", "100", "1000"})
+    private int tables;
+
+    @Param({"false", "true"})
+    private boolean bulkExtraction;
+
+    private ClassPathXmlApplicationContext context;
+    private MetadataExtractor extractor;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = newContext();
+        extractor = context.getBean(MetadataExtractor.class);
+        extractor.setBulkExtraction(bulkExtraction);
+        connection = createDatabase(tables);
+    }
+
+    @Benchmark
+    public Metadata extract() throws Exception {
+        return extractor.extract(connection);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        context.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.factory.ProjectFactory;
+import com.jaxio.celerio.model.Project;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.jaxio.celerio.benchmarks.BenchmarkSchema.extractMetadata;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.configure;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.newContext;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.newProject;
+
+/**
+ * Builds the project model from already extracted metadata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProjectFactoryBenchmark {
+    @Param({"10", "100", "1000"})
+    private int tables;
+
+    private ClassPathXmlApplicationContext context;
+    private Config config;
+    private ProjectFactory projectFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = newContext();
+        config = context.getBean(Config.class);
+        projectFactory = context.getBean(ProjectFactory.class);
+        configure(config, extractMetadata(context, tables), new DiscardOutputResult());
+    }
+
+    @Setup(Level.Invocation)
+    public void resetProject() {
+        newProject(config);
+    }
+
+    @Benchmark
+    public Project init() {
+        projectFactory.init();
+        return config.getProject();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.benchmarks;
+
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.factory.ProjectFactory;
+import com.jaxio.celerio.template.TemplateEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.jaxio.celerio.benchmarks.BenchmarkSchema.extractMetadata;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.configure;
+import static com.jaxio.celerio.benchmarks.CelerioBenchmarks.newContext;
+
+/**
+ * Evaluates the templates of the "benchmark" pack (see src/main/resources/celerio/benchmark) on a model already built,
+ * the generated files being discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TemplateEngineBenchmark {
+    @Param({"10", "100", "1000"})
+    private int tables;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private ClassPathXmlApplicationContext context;
+    private Config config;
+    private TemplateEngine templateEngine;
+    private DiscardOutputResult outputResult;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = newContext();
+        config = context.getBean(Config.class);
+        templateEngine = context.getBean(TemplateEngine.class);
+        outputResult = new DiscardOutputResult();
+        configure(config, extractMetadata(context, tables), outputResult);
+        config.setGenerationThreads(threads);
+        context.getBean(ProjectFactory.class).init();
+    }
+
+    @Benchmark
+    public long produce() throws Exception {
+        templateEngine.produce(config.getProject(), false);
+        return outputResult.getBytes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+$output.java($entity.model)##
+package ${entity.model.packageName};
+
+$output.enableDynaImports()
+
+public class ${output.currentClass} implements java.io.Serializable {
+    static final private long serialVersionUID = 1L;
+
+#foreach($attribute in $entity.attributes.list)
+$output.require($attribute)##
+    private ${attribute.type} ${attribute.var}; // ${attribute.columnName}
+#end
+#foreach($relation in $entity.relations.list)
+    // ${relation.kind} relation to ${relation.toEntity.name}
+#end
+
+#foreach($attribute in $entity.attributes.list)
+    public ${attribute.type} ${attribute.getter}() {
+        return ${attribute.var};
+    }
+
+    public void ${attribute.setter}(${attribute.type} ${attribute.var}) {
+        this.${attribute.var} = ${attribute.var};
+    }
+
+#end
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("${entity.model.type}[");
+#foreach($attribute in $entity.attributes.list)
+        result.append("${attribute.var}=").append(${attribute.var}).append(",");
+#end
+        return result.append("]").toString();
+    }
+}
@@ -0,0 +1,9 @@
+$output.java($entity.primaryKey)##
+package ${entity.primaryKey.packageName};
+
+public class ${output.currentClass} implements java.io.Serializable {
+    static final private long serialVersionUID = 1L;
+#foreach($attribute in $entity.primaryKey.attributes)
+    private ${attribute.type} ${attribute.var};
+#end
+}
@@ -21,7 +21,6 @@ import com.jaxio.celerio.configuration.database.Metadata;
 import com.jaxio.celerio.convention.WellKnownFolder;
 import com.jaxio.celerio.model.Project;
 import com.jaxio.celerio.output.OutputResult;
-import com.thoughtworks.xstream.XStream;
 import lombok.Data;
 import org.springframework.stereotype.Service;
 
@@ -35,6 +34,19 @@ public class Config {
     private Metadata originalMetadata = new Metadata();
     private String baseDir = "";
     private boolean springfuseMode;
+    /**
+     * Number of workers evaluating the entity, attribute, enum and composite pk templates. 1 means sequential generation.
+     */
+    private int generationThreads = 1;
+    /**
+     * Number of workers setting up the keys, business keys and SPIs of independent groups of entities while building the project.
+     * 1 means sequential building.
+     */
+    private int modelThreads = 1;
+    /**
+     * When true, the templates whose inputs did not change since the previous generation are not evaluated again.
+     */
+    private boolean incrementalGeneration;
 
     public void reset() {
         outputResult = null;
@@ -44,6 +56,9 @@ public class Config {
         originalMetadata = new Metadata();
         baseDir = "";
         springfuseMode = false;
+        generationThreads = 1;
+        modelThreads = 1;
+        incrementalGeneration = false;
     }
 
     public void setMetadata(Metadata metadata) {
@@ -53,12 +68,8 @@ public class Config {
         this.metadata = metadata;
         this.metadata.setDatabaseInfo(metadata.getDatabaseInfo());
         this.metadata.setJdbcConnectivity(metadata.getJdbcConnectivity());
-        this.originalMetadata = deepCopy(metadata);
-    }
-
-    private Metadata deepCopy(Metadata metadata) {
-        XStream XSTREAM = new XStream();
-        return (Metadata) XSTREAM.fromXML(XSTREAM.toXML(metadata));
+        // kept unchanged for the templates, whereas the metadata is completed while building the project
+        this.originalMetadata = new Metadata(metadata);
     }
 
     public void setSpringfuseMode(boolean springfuseMode) {
@@ -38,6 +38,10 @@ public class ForbiddenWhenBuildingAspect {
         }
     }
 
+    public void buildingStarted() {
+        isBuilding = true;
+    }
+
     public void buildingDone() {
         isBuilding = false;
     }
@@ -68,6 +68,20 @@ public class Util {
         }
     }
 
+    /**
+     * @return a copy of the given list, or null when the list is null.
+     */
+    public static <T> List<T> copy(List<T> l) {
+        return l == null ? null : newArrayList(l);
+    }
+
+    /**
+     * @return a copy of the given set, or null when the set is null.
+     */
+    public static <T> Set<T> copy(Set<T> s) {
+        return s == null ? null : newHashSet(s);
+    }
+
     public static <T> Map<T, T> nonNull(Map<T, T> l) {
         if (l != null) {
             return l;
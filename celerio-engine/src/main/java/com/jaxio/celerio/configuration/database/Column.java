@@ -17,16 +17,19 @@
 package com.jaxio.celerio.configuration.database;
 
 import com.jaxio.celerio.configuration.MetaAttribute;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.Set;
 
 import static com.google.common.collect.Sets.newHashSet;
+import static com.jaxio.celerio.configuration.Util.copy;
 import static com.jaxio.celerio.configuration.Util.nonNull;
 
 /*
  * Configuration of a column, the data reflect the jdbc metadata
  */
+@NoArgsConstructor
 public class Column {
     @Setter
     protected String columnDef;
@@ -49,6 +52,27 @@ public class Column {
     protected Set<String> enumValues = newHashSet();
     protected Set<MetaAttribute> metaAttributes = newHashSet();
 
+    public Column(Column other) {
+        columnDef = other.columnDef;
+        decimalDigits = other.decimalDigits;
+        name = other.name;
+        autoIncrement = other.autoIncrement;
+        nullable = other.nullable;
+        ordinalPosition = other.ordinalPosition;
+        remarks = other.remarks;
+        size = other.size;
+        type = other.type;
+        enumValues = copy(other.enumValues);
+        if (other.metaAttributes != null) {
+            metaAttributes = newHashSet();
+            for (MetaAttribute metaAttribute : other.metaAttributes) {
+                metaAttributes.add(new MetaAttribute(metaAttribute.getName(), metaAttribute.getValue()));
+            }
+        } else {
+            metaAttributes = null;
+        }
+    }
+
     /*
      * Default value
      */
@@ -16,11 +16,13 @@
 
 package com.jaxio.celerio.configuration.database;
 
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 /**
  * Information about the database where celerio extracted the metadata
  */
+@NoArgsConstructor
 public class DatabaseInfo {
     @Setter
     private int databaseMajorVersion;
@@ -41,6 +43,18 @@ public class DatabaseInfo {
     @Setter
     private String extraInfo = "";
 
+    public DatabaseInfo(DatabaseInfo other) {
+        databaseMajorVersion = other.databaseMajorVersion;
+        databaseMinorVersion = other.databaseMinorVersion;
+        databaseProductName = other.databaseProductName;
+        databaseProductVersion = other.databaseProductVersion;
+        driverMajorVersion = other.driverMajorVersion;
+        driverMinorVersion = other.driverMinorVersion;
+        driverName = other.driverName;
+        driverVersion = other.driverVersion;
+        extraInfo = other.extraInfo;
+    }
+
     public int getDatabaseMajorVersion() {
         return databaseMajorVersion;
     }
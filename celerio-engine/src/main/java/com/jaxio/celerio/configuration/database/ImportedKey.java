@@ -17,11 +17,13 @@
 package com.jaxio.celerio.configuration.database;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 /*
  * Description of the primary key columns that are referenced by a table's foreign key columns (the primary keys imported by a table).
  */
+@NoArgsConstructor
 public class ImportedKey {
     @Setter
     protected String fkColumnName;
@@ -39,7 +41,14 @@ public class ImportedKey {
     @Getter
     protected String pkTableCatalog;
 
-
+    public ImportedKey(ImportedKey other) {
+        fkColumnName = other.fkColumnName;
+        fkName = other.fkName;
+        pkColumnName = other.pkColumnName;
+        pkTableName = other.pkTableName;
+        pkTableSchema = other.pkTableSchema;
+        pkTableCatalog = other.pkTableCatalog;
+    }
 
     /*
      * Foreign key column name
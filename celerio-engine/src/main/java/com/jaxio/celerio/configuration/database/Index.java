@@ -18,11 +18,13 @@ package com.jaxio.celerio.configuration.database;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 /*
  * Description of the given table's indices and statistics
  */
+@NoArgsConstructor
 public class Index {
     @Setter
     protected String columnName;
@@ -31,6 +33,12 @@ public class Index {
     @Setter
     protected boolean nonUnique;
 
+    public Index(Index other) {
+        columnName = other.columnName;
+        indexName = other.indexName;
+        nonUnique = other.nonUnique;
+    }
+
     /*
      * Column name
      */
@@ -22,6 +22,7 @@ import lombok.Setter;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.jaxio.celerio.configuration.Util.copy;
 import static com.jaxio.celerio.configuration.Util.nonNull;
 import static org.springframework.util.StringUtils.hasLength;
 
@@ -68,6 +69,26 @@ public class JdbcConnectivity {
         add(tableType);
     }
 
+    public JdbcConnectivity(JdbcConnectivity other) {
+        driver = other.driver;
+        driverGroupId = other.driverGroupId;
+        driverArtifactId = other.driverArtifactId;
+        driverArtifactIdVersion = other.driverArtifactIdVersion;
+        hibernateDialect = other.hibernateDialect;
+        sqlDelimiter = other.sqlDelimiter;
+        password = other.password;
+        url = other.url;
+        user = other.user;
+        schemaName = other.schemaName;
+        tableNamePatterns = copy(other.tableNamePatterns);
+        oracleRetrieveRemarks = other.oracleRetrieveRemarks;
+        oracleRetrieveSynonyms = other.oracleRetrieveSynonyms;
+        reverseIndexes = other.reverseIndexes;
+        reverseOnlyUniqueIndexes = other.reverseOnlyUniqueIndexes;
+        catalog = other.catalog;
+        tableTypes = copy(other.tableTypes);
+    }
+
     /*
      * Jdbc driver name<br>
      * Example: org.h2.Driver
@@ -16,6 +16,7 @@
 
 package com.jaxio.celerio.configuration.database;
 
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.apache.commons.lang.StringUtils;
 
@@ -29,6 +30,7 @@ import static com.google.common.collect.Maps.newHashMap;
 import static com.jaxio.celerio.configuration.Util.nonNull;
 import static com.jaxio.celerio.configuration.database.Table.keyForMap;
 
+@NoArgsConstructor
 public class Metadata {
     @Setter
     private JdbcConnectivity jdbcConnectivity = new JdbcConnectivity();
@@ -40,6 +42,17 @@ public class Metadata {
     private Map<String, Table> tablesByName = newHashMap();
     private Map<String, Table> tablesBySchemaAndName = newHashMap();
 
+    /*
+     * Deep copy of the given metadata
+     */
+    public Metadata(Metadata other) {
+        jdbcConnectivity = other.jdbcConnectivity == null ? null : new JdbcConnectivity(other.jdbcConnectivity);
+        databaseInfo = other.databaseInfo == null ? null : new DatabaseInfo(other.databaseInfo);
+        for (Table table : other.tables) {
+            add(new Table(table));
+        }
+    }
+
     public void setTables(List<Table> tables) {
         this.tables = nonNull(tables);
         tablesByName = newHashMap();
@@ -17,6 +17,7 @@
 package com.jaxio.celerio.configuration.database;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
@@ -36,6 +37,7 @@ import static org.springframework.util.StringUtils.hasLength;
  * Describes all the metadata for a given table
  */
 @Slf4j
+@NoArgsConstructor
 public class Table {
 
     // columns
@@ -68,6 +70,37 @@ public class Table {
     @Setter
     protected String catalog;
 
+    /*
+     * Deep copy of the given table, the maps by name point to the copied columns, indexes and imported keys
+     */
+    public Table(Table other) {
+        name = other.name;
+        remarks = other.remarks;
+        type = other.type;
+        schemaName = other.schemaName;
+        catalog = other.catalog;
+
+        for (Column column : other.columns) {
+            Column copy = new Column(column);
+            columns.add(copy);
+            putColumnByName(copy);
+        }
+        for (Index index : other.indexes) {
+            Index copy = new Index(index);
+            indexes.add(copy);
+            // nameless indexes are not held, and already reported
+            if (hasLength(copy.getIndexName())) {
+                putIndexInIndexHoldersByName(copy);
+            }
+        }
+        for (ImportedKey importedKey : other.importedKeys) {
+            ImportedKey copy = new ImportedKey(importedKey);
+            importedKeys.add(copy);
+            putImportedKeyInForeignKeyByName(copy);
+        }
+        primaryKeys.addAll(other.primaryKeys);
+    }
+
     public Map<String, Column> getColumnsByName() {
         return columnsByName;
     }
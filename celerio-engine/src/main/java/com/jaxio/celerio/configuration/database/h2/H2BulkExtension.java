@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.configuration.database.h2;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.support.BulkExtension;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+
+/**
+ * Same queries as the H2 driver, without the table name restriction.
+ */
+@Service
+public class H2BulkExtension implements BulkExtension {
+
+    private static final String H2_DATABASE = "H2";
+
+    @Override
+    public boolean applyable(Metadata metadata) {
+        return H2_DATABASE.equalsIgnoreCase(metadata.getDatabaseInfo().getDatabaseProductName());
+    }
+
+    @Override
+    public String getSchemaName(Connection connection, JdbcConnectivity configuration) {
+        return configuration.getSchemaName() == null ? "%" : configuration.getSchemaName();
+    }
+
+    @Override
+    public String getPrimaryKeysQuery() {
+        return "SELECT TABLE_SCHEMA TABLE_SCHEM, TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.INDEXES " //
+                + "WHERE TABLE_SCHEMA LIKE ? AND PRIMARY_KEY = TRUE " //
+                + "ORDER BY TABLE_SCHEM, TABLE_NAME, COLUMN_NAME";
+    }
+
+    @Override
+    public String getImportedKeysQuery() {
+        return "SELECT PKTABLE_CATALOG PKTABLE_CAT, PKTABLE_SCHEMA PKTABLE_SCHEM, PKTABLE_NAME, PKCOLUMN_NAME, " //
+                + "FKTABLE_SCHEMA FKTABLE_SCHEM, FKTABLE_NAME, FKCOLUMN_NAME, FK_NAME FROM INFORMATION_SCHEMA.CROSS_REFERENCES " //
+                + "WHERE FKTABLE_SCHEMA LIKE ? " //
+                + "ORDER BY FKTABLE_SCHEM, FKTABLE_NAME, PKTABLE_CAT, PKTABLE_SCHEM, PKTABLE_NAME, FK_NAME, ORDINAL_POSITION";
+    }
+
+    @Override
+    public String getIndexesQuery(boolean onlyUniques) {
+        return "SELECT TABLE_SCHEMA TABLE_SCHEM, TABLE_NAME, NON_UNIQUE, INDEX_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.INDEXES " //
+                + "WHERE TABLE_SCHEMA LIKE ? " + (onlyUniques ? "AND NON_UNIQUE = FALSE " : "") //
+                + "ORDER BY TABLE_SCHEM, TABLE_NAME, NON_UNIQUE, INDEX_TYPE, INDEX_NAME, ORDINAL_POSITION";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database.h2;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.support.TableChangeExtension;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+
+/**
+ * H2 keeps the DDL of each table in its catalog: the create statement reflects the columns, their comments and check constraints,
+ * the keys and indexes are appended from their own DDL.
+ */
+@Service
+public class H2TableChangeExtension implements TableChangeExtension {
+
+    private static final String H2_DATABASE = "H2";
+
+    @Override
+    public boolean applyable(Metadata metadata) {
+        return H2_DATABASE.equalsIgnoreCase(metadata.getDatabaseInfo().getDatabaseProductName());
+    }
+
+    @Override
+    public String getSchemaName(Connection connection, JdbcConnectivity configuration) {
+        return configuration.getSchemaName() == null ? "%" : configuration.getSchemaName();
+    }
+
+    @Override
+    public String getChangeMarksQuery() {
+        return "SELECT T.TABLE_SCHEMA TABLE_SCHEM, T.TABLE_NAME, CONCAT(T.SQL, ';', T.REMARKS, ';', " //
+                + "(SELECT GROUP_CONCAT(C.SQL ORDER BY C.SQL SEPARATOR ';') FROM INFORMATION_SCHEMA.CONSTRAINTS C " //
+                + "WHERE C.TABLE_SCHEMA = T.TABLE_SCHEMA AND C.TABLE_NAME = T.TABLE_NAME), ';', " //
+                + "(SELECT GROUP_CONCAT(DISTINCT I.SQL ORDER BY I.SQL SEPARATOR ';') FROM INFORMATION_SCHEMA.INDEXES I " //
+                + "WHERE I.TABLE_SCHEMA = T.TABLE_SCHEMA AND I.TABLE_NAME = T.TABLE_NAME)) CHANGE_MARK " //
+                + "FROM INFORMATION_SCHEMA.TABLES T WHERE T.TABLE_SCHEMA LIKE ?";
+    }
+}
\ No newline at end of file
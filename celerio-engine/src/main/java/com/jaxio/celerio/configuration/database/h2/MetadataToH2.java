@@ -62,7 +62,7 @@ public class MetadataToH2 {
     private void createTable(Table table) {
         line("CREATE TABLE ", table.getName(), " (");
         for (Column c : table.getColumns()) {
-            line("  ", c.getH2(), ",");
+            line("  ", c.getH2(), getEnumCheck(c), ",");
         }
         removeLastChar(); // line feed
         removeLastChar(); // comma
@@ -72,6 +72,20 @@ public class MetadataToH2 {
         line("");
     }
 
+    /**
+     * Keeps the enum values, read back by the H2Extension from the column check constraint.
+     */
+    private String getEnumCheck(Column c) {
+        if (!c.hasEnum() || !c.getType().isString()) {
+            return "";
+        }
+        List<String> values = new ArrayList<String>();
+        for (String value : c.getEnumValues()) {
+            values.add("'" + value.replace("'", "''") + "'");
+        }
+        return " CHECK (" + c.getName() + " IN(" + toCsvString(values) + "))";
+    }
+
     // -- INDEXES ---------------------------
 
     private void createIndexes(Table t) {
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.configuration.database.mysql;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.support.BulkExtension;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * MySQL databases are reported as catalogs, the queries read the information_schema of the current (or configured) catalog.
+ */
+@Service
+public class MysqlBulkExtension implements BulkExtension {
+    private static final String MYSQL_DATABASE = "mysql";
+
+    @Override
+    public boolean applyable(Metadata metadata) {
+        return MYSQL_DATABASE.equalsIgnoreCase(metadata.getDatabaseInfo().getDatabaseProductName());
+    }
+
+    @Override
+    public String getSchemaName(Connection connection, JdbcConnectivity configuration) throws SQLException {
+        return configuration.getCatalog() == null ? connection.getCatalog() : configuration.getCatalog();
+    }
+
+    @Override
+    public String getPrimaryKeysQuery() {
+        return "SELECT NULL AS TABLE_SCHEM, TABLE_NAME, COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE " //
+                + "WHERE TABLE_SCHEMA = ? AND CONSTRAINT_NAME = 'PRIMARY' " //
+                + "ORDER BY TABLE_NAME, COLUMN_NAME";
+    }
+
+    @Override
+    public String getImportedKeysQuery() {
+        return "SELECT REFERENCED_TABLE_SCHEMA AS PKTABLE_CAT, NULL AS PKTABLE_SCHEM, REFERENCED_TABLE_NAME AS PKTABLE_NAME, " //
+                + "REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME, NULL AS FKTABLE_SCHEM, TABLE_NAME AS FKTABLE_NAME, COLUMN_NAME AS FKCOLUMN_NAME, " //
+                + "CONSTRAINT_NAME AS FK_NAME FROM information_schema.KEY_COLUMN_USAGE " //
+                + "WHERE TABLE_SCHEMA = ? AND REFERENCED_TABLE_NAME IS NOT NULL " //
+                + "ORDER BY TABLE_NAME, REFERENCED_TABLE_SCHEMA, REFERENCED_TABLE_NAME, ORDINAL_POSITION";
+    }
+
+    @Override
+    public String getIndexesQuery(boolean onlyUniques) {
+        return "SELECT NULL AS TABLE_SCHEM, TABLE_NAME, NON_UNIQUE, INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS " //
+                + "WHERE TABLE_SCHEMA = ? " + (onlyUniques ? "AND NON_UNIQUE = 0 " : "") //
+                + "ORDER BY TABLE_NAME, NON_UNIQUE, INDEX_NAME, SEQ_IN_INDEX";
+    }
+}
\ No newline at end of file
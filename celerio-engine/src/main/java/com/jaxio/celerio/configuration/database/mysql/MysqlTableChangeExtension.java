@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database.mysql;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.support.TableChangeExtension;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * UPDATE_TIME changes with the data and CREATE_TIME is not maintained by every storage engine on ALTER TABLE, so the mark also
+ * checksums the columns, indexes and key usages of each table.
+ */
+@Service
+public class MysqlTableChangeExtension implements TableChangeExtension {
+    private static final String MYSQL_DATABASE = "mysql";
+
+    @Override
+    public boolean applyable(Metadata metadata) {
+        return MYSQL_DATABASE.equalsIgnoreCase(metadata.getDatabaseInfo().getDatabaseProductName());
+    }
+
+    @Override
+    public String getSchemaName(Connection connection, JdbcConnectivity configuration) throws SQLException {
+        return configuration.getCatalog() == null ? connection.getCatalog() : configuration.getCatalog();
+    }
+
+    @Override
+    public String getChangeMarksQuery() {
+        return "SELECT NULL AS TABLE_SCHEM, t.TABLE_NAME, CONCAT_WS(';', t.CREATE_TIME, t.TABLE_COMMENT, " //
+                + "(SELECT CONCAT_WS(':', COUNT(*), SUM(CRC32(CONCAT_WS(':', c.COLUMN_NAME, c.ORDINAL_POSITION, c.COLUMN_TYPE, c.IS_NULLABLE, " //
+                + "c.COLUMN_DEFAULT, c.EXTRA, c.COLUMN_COMMENT)))) FROM information_schema.COLUMNS c " //
+                + "WHERE c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME), " //
+                + "(SELECT CONCAT_WS(':', COUNT(*), SUM(CRC32(CONCAT_WS(':', s.INDEX_NAME, s.SEQ_IN_INDEX, s.COLUMN_NAME, s.NON_UNIQUE)))) " //
+                + "FROM information_schema.STATISTICS s WHERE s.TABLE_SCHEMA = t.TABLE_SCHEMA AND s.TABLE_NAME = t.TABLE_NAME), " //
+                + "(SELECT CONCAT_WS(':', COUNT(*), SUM(CRC32(CONCAT_WS(':', k.CONSTRAINT_NAME, k.COLUMN_NAME, k.REFERENCED_TABLE_SCHEMA, " //
+                + "k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME)))) FROM information_schema.KEY_COLUMN_USAGE k " //
+                + "WHERE k.TABLE_SCHEMA = t.TABLE_SCHEMA AND k.TABLE_NAME = t.TABLE_NAME)) AS CHANGE_MARK " //
+                + "FROM information_schema.TABLES t WHERE t.TABLE_SCHEMA = ?";
+    }
+}
\ No newline at end of file
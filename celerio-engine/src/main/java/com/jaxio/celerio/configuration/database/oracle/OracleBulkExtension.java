@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.configuration.database.oracle;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.support.BulkExtension;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Reads the ALL_* dictionary views of the schema, the table statistic row returned by the driver along with the indexes is not part of the result.
+ */
+@Service
+public class OracleBulkExtension implements BulkExtension {
+    private static final String ORACLE_DATABASE = "oracle";
+
+    @Override
+    public boolean applyable(Metadata metadata) {
+        return ORACLE_DATABASE.equalsIgnoreCase(metadata.getDatabaseInfo().getDatabaseProductName());
+    }
+
+    @Override
+    public String getSchemaName(Connection connection, JdbcConnectivity configuration) throws SQLException {
+        return configuration.getSchemaName() == null ? connection.getMetaData().getUserName() : configuration.getSchemaName();
+    }
+
+    @Override
+    public String getPrimaryKeysQuery() {
+        return "SELECT c.owner AS TABLE_SCHEM, c.table_name AS TABLE_NAME, cc.column_name AS COLUMN_NAME " //
+                + "FROM all_constraints c, all_cons_columns cc " //
+                + "WHERE c.owner = ? AND c.constraint_type = 'P' " //
+                + "AND cc.owner = c.owner AND cc.constraint_name = c.constraint_name AND cc.table_name = c.table_name " //
+                + "ORDER BY c.table_name, cc.column_name";
+    }
+
+    @Override
+    public String getImportedKeysQuery() {
+        return "SELECT NULL AS PKTABLE_CAT, p.owner AS PKTABLE_SCHEM, p.table_name AS PKTABLE_NAME, pc.column_name AS PKCOLUMN_NAME, " //
+                + "f.owner AS FKTABLE_SCHEM, f.table_name AS FKTABLE_NAME, fc.column_name AS FKCOLUMN_NAME, f.constraint_name AS FK_NAME " //
+                + "FROM all_constraints f, all_cons_columns fc, all_constraints p, all_cons_columns pc " //
+                + "WHERE f.owner = ? AND f.constraint_type = 'R' " //
+                + "AND fc.owner = f.owner AND fc.constraint_name = f.constraint_name " //
+                + "AND p.owner = f.r_owner AND p.constraint_name = f.r_constraint_name " //
+                + "AND pc.owner = p.owner AND pc.constraint_name = p.constraint_name AND pc.position = fc.position " //
+                + "ORDER BY f.table_name, p.owner, p.table_name, fc.position";
+    }
+
+    @Override
+    public String getIndexesQuery(boolean onlyUniques) {
+        return "SELECT i.table_owner AS TABLE_SCHEM, i.table_name AS TABLE_NAME, DECODE(i.uniqueness, 'UNIQUE', 0, 1) AS NON_UNIQUE, " //
+                + "i.index_name AS INDEX_NAME, ic.column_name AS COLUMN_NAME " //
+                + "FROM all_indexes i, all_ind_columns ic " //
+                + "WHERE i.table_owner = ? " + (onlyUniques ? "AND i.uniqueness = 'UNIQUE' " : "") //
+                + "AND ic.index_owner = i.owner AND ic.index_name = i.index_name " //
+                + "ORDER BY i.table_name, NON_UNIQUE, i.index_type, i.index_name, ic.column_position";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database.oracle;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.support.TableChangeExtension;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Any DDL on a table, including its constraints and comments, updates its LAST_DDL_TIME. Indexes are objects of their own,
+ * their count and latest LAST_DDL_TIME are part of the mark.
+ */
+@Service
+public class OracleTableChangeExtension implements TableChangeExtension {
+    private static final String ORACLE_DATABASE = "oracle";
+
+    @Override
+    public boolean applyable(Metadata metadata) {
+        return ORACLE_DATABASE.equalsIgnoreCase(metadata.getDatabaseInfo().getDatabaseProductName());
+    }
+
+    @Override
+    public String getSchemaName(Connection connection, JdbcConnectivity configuration) throws SQLException {
+        return configuration.getSchemaName() == null ? connection.getMetaData().getUserName() : configuration.getSchemaName();
+    }
+
+    @Override
+    public String getChangeMarksQuery() {
+        return "SELECT o.owner AS TABLE_SCHEM, o.object_name AS TABLE_NAME, " //
+                + "TO_CHAR(o.last_ddl_time, 'YYYYMMDDHH24MISS') || ';' || " //
+                + "(SELECT COUNT(*) || ':' || TO_CHAR(MAX(io.last_ddl_time), 'YYYYMMDDHH24MISS') FROM all_indexes i, all_objects io " //
+                + "WHERE i.table_owner = o.owner AND i.table_name = o.object_name " //
+                + "AND io.owner = i.owner AND io.object_name = i.index_name AND io.object_type = 'INDEX') AS CHANGE_MARK " //
+                + "FROM all_objects o WHERE o.owner = ? AND o.object_type IN ('TABLE', 'VIEW')";
+    }
+}
\ No newline at end of file
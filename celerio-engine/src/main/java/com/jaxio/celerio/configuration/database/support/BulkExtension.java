@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.configuration.database.support;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Dialect specific queries used by the bulk extraction to load the primary keys, imported keys and indexes of all the tables of a schema with
+ * one query each, instead of one {@link java.sql.DatabaseMetaData} call per table.
+ * <p>
+ * Each query takes the value returned by {@link #getSchemaName(Connection, JdbcConnectivity)} as its only parameter and must return the column labels
+ * read from the corresponding {@link java.sql.DatabaseMetaData} result set, sorted by table and then in the order used by the driver.
+ */
+public interface BulkExtension {
+    boolean applyable(Metadata metadata);
+
+    String getSchemaName(Connection connection, JdbcConnectivity configuration) throws SQLException;
+
+    /**
+     * Labels: TABLE_SCHEM, TABLE_NAME, COLUMN_NAME
+     */
+    String getPrimaryKeysQuery();
+
+    /**
+     * Labels: PKTABLE_CAT, PKTABLE_SCHEM, PKTABLE_NAME, PKCOLUMN_NAME, FKTABLE_SCHEM, FKTABLE_NAME, FKCOLUMN_NAME, FK_NAME
+     */
+    String getImportedKeysQuery();
+
+    /**
+     * Labels: TABLE_SCHEM, TABLE_NAME, NON_UNIQUE, INDEX_NAME, COLUMN_NAME
+     */
+    String getIndexesQuery(boolean onlyUniques);
+}
\ No newline at end of file
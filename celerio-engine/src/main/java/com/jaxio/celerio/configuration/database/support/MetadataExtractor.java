@@ -18,15 +18,25 @@ package com.jaxio.celerio.configuration.database.support;
 
 import com.google.common.base.Joiner;
 import com.jaxio.celerio.configuration.database.*;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.jaxio.celerio.util.EncodingUtil.fixIso;
+import static java.lang.Math.min;
+import static org.springframework.util.StringUtils.hasLength;
 
 @Service
 @Slf4j
@@ -36,26 +46,47 @@ public class MetadataExtractor {
     boolean useLabel;
     @Autowired
     private List<Extension> extensions;
+    @Autowired
+    private List<BulkExtension> bulkExtensions;
+    @Autowired
+    private List<TableChangeExtension> tableChangeExtensions;
+    /**
+     * Number of read-only connections used to extract the columns, primary keys, imported keys and indexes of the tables.
+     * Used only when the metadata is extracted using a {@link JdbcConnectivity} having an url, 1 means sequential extraction.
+     */
+    @Setter
+    private int extractionThreads = 1;
+    /**
+     * When true, the columns, primary keys, imported keys and indexes of all the tables are extracted with one query per kind of metadata
+     * instead of one query per table.
+     */
+    @Setter
+    private boolean bulkExtraction;
 
     public Metadata extract(JdbcConnectivity configuration) throws ClassNotFoundException, SQLException {
-        Class<?> jdbcDriverClass = Class.forName(configuration.getDriver());
-
-        isOracle = isOracle(jdbcDriverClass);
-        isDB2 = isDB2(jdbcDriverClass);
-        useLabel = !isDB2; // on z/os column label is not supported!
+        Connection connection = connect(configuration);
 
-        // patch the configuration in order to work with oracle/db2 when schema is null
-        if ((isOracle || isDB2) && configuration.getSchemaName() == null) {
-            configuration.setSchemaName(configuration.getUser().toUpperCase());
-            if (log.isInfoEnabled()) {
-                log.info("    Schema is null, we force it to :\"" + configuration.getSchemaName() + "\"");
+        try {
+            return extract(configuration, connection);
+        } finally {
+            if (connection != null) {
+                connection.close();
             }
         }
+    }
 
-        Connection connection = getDatabaseConnection(configuration);
+    /**
+     * Extracts the metadata, reversing again only the tables whose change mark differs from the one saved in the given changes by the previous extraction.
+     * The other tables are copied from the previous metadata, the tables that no longer exist are dropped.
+     * <p>
+     * All the tables are reversed when there is no previous metadata, when the extraction settings changed or when no {@link TableChangeExtension}
+     * applies to the database. The given changes are then updated with the marks read by this extraction.
+     */
+    public Metadata extract(JdbcConnectivity configuration, Metadata previous, TableChanges changes) throws ClassNotFoundException, SQLException {
+        Connection connection = connect(configuration);
 
         try {
-            return extract(configuration, connection);
+            return extract(configuration, connection, previous, changes);
         } finally {
             if (connection != null) {
                 connection.close();
@@ -72,19 +103,285 @@ public class MetadataExtractor {
         Metadata metadata = new Metadata();
         metadata.setDatabaseInfo(extractDatabaseInfo(databaseMetadata));
         loadTables(jdbcConnectivity, databaseMetadata, metadata);
+        loadTablesContent(jdbcConnectivity, connection, metadata);
+        return metadata;
+    }
+
+    public Metadata extract(JdbcConnectivity jdbcConnectivity, Connection connection, Metadata previous, TableChanges changes) throws SQLException {
+        DatabaseMetaData databaseMetadata = connection.getMetaData();
+        Metadata current = new Metadata();
+        current.setDatabaseInfo(extractDatabaseInfo(databaseMetadata));
+        loadTables(jdbcConnectivity, databaseMetadata, current);
+
+        Map<String, String> changeMarks = loadChangeMarks(jdbcConnectivity, connection, current);
+        String settings = getExtractionSettings(jdbcConnectivity);
+        if (changeMarks == null || previous == null || !changes.isFrom(settings)) {
+            if (changeMarks == null) {
+                log.info("No change marks for " + current.getDatabaseInfo().getDatabaseProductName() + ", extracting all the tables");
+            } else {
+                log.info("No previous extraction with the same settings, extracting all the tables");
+            }
+            loadTablesContent(jdbcConnectivity, connection, current);
+            changes.reset(settings, changeMarks == null ? Collections.<String, String>emptyMap() : changeMarks);
+            return current;
+        }
 
-        for (Table table : metadata.getTables()) {
-            loadColumns(databaseMetadata, table);
-            loadPrimaryKeys(databaseMetadata, table);
-            loadImportedKeys(databaseMetadata, table, metadata);
-            loadIndexes(jdbcConnectivity, databaseMetadata, table);
+        Metadata metadata = new Metadata();
+        metadata.setDatabaseInfo(current.getDatabaseInfo());
+        Metadata changed = new Metadata();
+        changed.setDatabaseInfo(current.getDatabaseInfo());
+        for (Table table : current.getTables()) {
+            Table previousTable = previous.getTableBySchemaAndName(table.getSchemaName(), table.getName());
+            if (previousTable != null && changes.isUnchanged(table.asKeyForMap(), changeMarks.get(table.asKeyForMap()))
+                    && referencesExistingTables(previousTable, current)) {
+                metadata.add(copyContent(previousTable, table));
+            } else {
+                metadata.add(table);
+                changed.add(table);
+            }
         }
+        log.info(changed.getTables().size() + " of " + metadata.getTables().size() + " tables changed since the previous extraction, "
+                + countDropped(previous, current) + " tables dropped");
 
+        loadTablesContent(jdbcConnectivity, connection, changed.getTables(), metadata);
         metadata.setJdbcConnectivity(jdbcConnectivity);
-        loadEnums(connection, metadata);
+        // the copied tables already have their enums
+        changed.setJdbcConnectivity(jdbcConnectivity);
+        loadEnums(connection, changed);
+        changes.reset(settings, changeMarks);
         return metadata;
     }
 
+    private Connection connect(JdbcConnectivity configuration) throws ClassNotFoundException, SQLException {
+        Class<?> jdbcDriverClass = Class.forName(configuration.getDriver());
+
+        isOracle = isOracle(jdbcDriverClass);
+        isDB2 = isDB2(jdbcDriverClass);
+        useLabel = !isDB2; // on z/os column label is not supported!
+
+        // patch the configuration in order to work with oracle/db2 when schema is null
+        if ((isOracle || isDB2) && configuration.getSchemaName() == null) {
+            configuration.setSchemaName(configuration.getUser().toUpperCase());
+            if (log.isInfoEnabled()) {
+                log.info("    Schema is null, we force it to :\"" + configuration.getSchemaName() + "\"");
+            }
+        }
+
+        return getDatabaseConnection(configuration);
+    }
+
+    private void loadTablesContent(JdbcConnectivity jdbcConnectivity, Connection connection, Metadata metadata) throws SQLException {
+        if (bulkExtraction) {
+            loadTablesContentInBulk(jdbcConnectivity, connection, metadata);
+        } else {
+            loadTablesContent(jdbcConnectivity, connection, metadata.getTables(), metadata);
+        }
+
+        metadata.setJdbcConnectivity(jdbcConnectivity);
+        loadEnums(connection, metadata);
+    }
+
+    private void loadTablesContent(JdbcConnectivity jdbcConnectivity, Connection connection, List<Table> tables, Metadata metadata) throws SQLException {
+        if (extractionThreads > 1 && tables.size() > 1 && hasLength(jdbcConnectivity.getUrl())) {
+            loadTablesContentInParallel(jdbcConnectivity, tables, metadata);
+        } else {
+            DatabaseMetaData databaseMetadata = connection.getMetaData();
+            for (Table table : tables) {
+                loadTableContent(jdbcConnectivity, databaseMetadata, table, metadata);
+            }
+        }
+    }
+
+    /**
+     * Reads the change mark of each table and hashes it, tables without mark are left out.
+     *
+     * @return the hashed marks by table key, or null when no {@link TableChangeExtension} applies to the database
+     */
+    private Map<String, String> loadChangeMarks(JdbcConnectivity configuration, Connection connection, Metadata metadata) throws SQLException {
+        TableChangeExtension tableChangeExtension = getTableChangeExtension(metadata);
+        if (tableChangeExtension == null) {
+            return null;
+        }
+
+        log.info("Extracting change marks of all tables");
+        Map<String, String> changeMarks = newHashMap();
+        PreparedStatement statement = prepareBulkQuery(connection, tableChangeExtension.getChangeMarksQuery(),
+                tableChangeExtension.getSchemaName(connection, configuration));
+        try {
+            ResultSet resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+                Table table = metadata.getTableBySchemaAndName(fixIso(resultSet.getString("TABLE_SCHEM")), fixIso(resultSet.getString("TABLE_NAME")));
+                String changeMark = resultSet.getString("CHANGE_MARK");
+                if (table != null && changeMark != null) {
+                    changeMarks.put(table.asKeyForMap(), TableChanges.hash(changeMark));
+                }
+            }
+
+            resultSet.close();
+        } finally {
+            statement.close();
+        }
+        return changeMarks;
+    }
+
+    private TableChangeExtension getTableChangeExtension(Metadata metadata) {
+        for (TableChangeExtension tableChangeExtension : tableChangeExtensions) {
+            if (tableChangeExtension.applyable(metadata)) {
+                return tableChangeExtension;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The settings that select the tables and what is extracted from them, marks read with other settings cannot be trusted.
+     */
+    private String getExtractionSettings(JdbcConnectivity configuration) {
+        List<String> tableNamePatterns = newArrayList();
+        if (configuration.getTableNamePatterns() != null) {
+            tableNamePatterns.addAll(configuration.getTableNamePatterns());
+        }
+        Collections.sort(tableNamePatterns);
+        return Joiner.on('|').useForNull("").join(configuration.getCatalog(), configuration.getSchemaName(), Joiner.on(',').join(tableNamePatterns),
+                Joiner.on(',').join(configuration.getTableTypes()), configuration.shouldReverseIndexes(), configuration.shouldReverseOnlyUniqueIndexes(),
+                configuration.isOracleRetrieveRemarks(), configuration.isOracleRetrieveSynonyms());
+    }
+
+    /**
+     * An imported key to a table that is no longer reversed would have been ignored by a complete extraction.
+     */
+    private boolean referencesExistingTables(Table table, Metadata metadata) {
+        for (ImportedKey importedKey : table.getImportedKeys()) {
+            if (metadata.getTableBySchemaAndName(importedKey.getPkTableSchema(), importedKey.getPkTableName()) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Table copyContent(Table previousTable, Table table) {
+        Table copy = new Table(previousTable);
+        copy.setCatalog(table.getCatalog());
+        copy.setType(table.getType());
+        copy.setRemarks(table.getRemarks());
+        return copy;
+    }
+
+    private int countDropped(Metadata previous, Metadata current) {
+        int dropped = 0;
+        for (Table table : previous.getTables()) {
+            if (current.getTableBySchemaAndName(table.getSchemaName(), table.getName()) == null) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private void loadTableContent(JdbcConnectivity configuration, DatabaseMetaData databaseMetadata, Table table, Metadata metadata) throws SQLException {
+        loadColumns(databaseMetadata, table);
+        loadPrimaryKeys(databaseMetadata, table);
+        loadImportedKeys(databaseMetadata, table, metadata);
+        loadIndexes(configuration, databaseMetadata, table);
+    }
+
+    /**
+     * Each worker uses its own connection and picks the next table to extract until all tables are done.
+     * As the tables are already created, the resulting metadata is the same as with a sequential extraction.
+     */
+    private void loadTablesContentInParallel(final JdbcConnectivity configuration, final List<Table> tables, final Metadata metadata) throws SQLException {
+        final AtomicInteger nextTable = new AtomicInteger();
+        int nbWorkers = min(extractionThreads, tables.size());
+
+        log.info("Extracting tables content with " + nbWorkers + " connections");
+        ExecutorService executor = Executors.newFixedThreadPool(nbWorkers);
+        try {
+            List<Future<Void>> workers = newArrayList();
+            for (int i = 0; i < nbWorkers; i++) {
+                workers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Connection connection = getDatabaseConnection(configuration);
+                        try {
+                            DatabaseMetaData databaseMetadata = connection.getMetaData();
+                            for (int index = nextTable.getAndIncrement(); index < tables.size(); index = nextTable.getAndIncrement()) {
+                                loadTableContent(configuration, databaseMetadata, tables.get(index), metadata);
+                            }
+                            return null;
+                        } catch (Exception e) {
+                            // stop the other workers
+                            nextTable.set(tables.size());
+                            throw e;
+                        } finally {
+                            connection.close();
+                        }
+                    }
+                }));
+            }
+
+            for (Future<Void> worker : workers) {
+                waitFor(worker);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The columns are loaded using a '%' table name pattern, primary keys, imported keys and indexes require a {@link BulkExtension} for the database,
+     * otherwise they are still loaded table by table. Each row is dispatched to its table, rows of tables that are not reversed are ignored.
+     */
+    private void loadTablesContentInBulk(JdbcConnectivity configuration, Connection connection, Metadata metadata) throws SQLException {
+        DatabaseMetaData databaseMetaData = connection.getMetaData();
+        loadAllColumns(configuration, databaseMetaData, metadata);
+
+        BulkExtension bulkExtension = getBulkExtension(metadata);
+        if (bulkExtension == null) {
+            log.info("No bulk queries for " + metadata.getDatabaseInfo().getDatabaseProductName() + ", extracting keys and indexes table by table");
+            for (Table table : metadata.getTables()) {
+                loadPrimaryKeys(databaseMetaData, table);
+                loadImportedKeys(databaseMetaData, table, metadata);
+                loadIndexes(configuration, databaseMetaData, table);
+            }
+            return;
+        }
+
+        String schemaName = bulkExtension.getSchemaName(connection, configuration);
+        loadAllPrimaryKeys(connection, bulkExtension.getPrimaryKeysQuery(), schemaName, metadata);
+        loadAllImportedKeys(connection, bulkExtension.getImportedKeysQuery(), schemaName, metadata);
+        if (configuration.shouldReverseIndexes()) {
+            loadAllIndexes(connection, bulkExtension.getIndexesQuery(configuration.shouldReverseOnlyUniqueIndexes()), schemaName, metadata);
+        } else {
+            log.warn("Skipping reverse for indexes");
+        }
+    }
+
+    private BulkExtension getBulkExtension(Metadata metadata) {
+        for (BulkExtension bulkExtension : bulkExtensions) {
+            if (bulkExtension.applyable(metadata)) {
+                return bulkExtension;
+            }
+        }
+        return null;
+    }
+
+    private void waitFor(Future<Void> worker) throws SQLException {
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while extracting the tables content", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SQLException("Could not extract the tables content", e.getCause());
+        }
+    }
+
     private Connection getDatabaseConnection(JdbcConnectivity configuration) throws ClassNotFoundException, SQLException {
 
         if (log.isInfoEnabled()) {
@@ -143,45 +440,62 @@ public class MetadataExtractor {
         ResultSetWrapper rsw = new ResultSetColumns(resultSet, useLabel);
 
         while (resultSet.next()) {
-            Column c = new Column();
-
-            // fill it
-            c.setName(getString(rsw, "COLUMN_NAME"));
-            c.setType(JdbcType.fromJdbcType(rsw.getInt("DATA_TYPE")));
-            c.setSize(rsw.getInt("COLUMN_SIZE"));
-            c.setDecimalDigits(rsw.getInt("DECIMAL_DIGITS"));
-            c.setNullable(isNullable(rsw.getInt("NULLABLE")));
-            String remarks = getString(rsw, "REMARKS");
-            if (notEmpty(remarks)) {
-                c.setRemarks(remarks);
-            }
-            String columnDef = getString(rsw, "COLUMN_DEF");
-            if (notEmpty(columnDef)) {
-                c.setColumnDef(columnDef);
-            }
-            c.setOrdinalPosition(rsw.getInt("ORDINAL_POSITION"));
-
-            try {
-                // not all driver may support it, it was added post jdk 1.4.2
-                String autoIncrement = getString(rsw, "IS_AUTOINCREMENT");
-                if ("YES".equalsIgnoreCase(autoIncrement)) {
-                    c.setAutoIncrement(Boolean.TRUE);
-                } else if ("NO".equalsIgnoreCase(autoIncrement)) {
-                    c.setAutoIncrement(Boolean.FALSE);
-                } else {
-                    c.setAutoIncrement(null);
-                }
-            } catch (SQLException sqle) {
-                c.setAutoIncrement(null);
-            }
+            table.addColumn(readColumn(rsw));
+        }
 
-            // add it
-            table.addColumn(c);
+        resultSet.close();
+    }
+
+    private void loadAllColumns(JdbcConnectivity configuration, DatabaseMetaData databaseMetaData, Metadata metadata) throws SQLException {
+        log.info("Extracting columns of all tables");
+        ResultSet resultSet = databaseMetaData.getColumns(configuration.getCatalog(), configuration.getSchemaName(), "%", "%");
+        ResultSetWrapper rsw = new ResultSetColumns(resultSet, useLabel);
+
+        while (resultSet.next()) {
+            Table table = metadata.getTableBySchemaAndName(getString(rsw, "TABLE_SCHEM"), getString(rsw, "TABLE_NAME"));
+            if (table != null) {
+                table.addColumn(readColumn(rsw));
+            }
         }
 
         resultSet.close();
     }
 
+    private Column readColumn(ResultSetWrapper rsw) throws SQLException {
+        Column c = new Column();
+
+        // fill it
+        c.setName(getString(rsw, "COLUMN_NAME"));
+        c.setType(JdbcType.fromJdbcType(rsw.getInt("DATA_TYPE")));
+        c.setSize(rsw.getInt("COLUMN_SIZE"));
+        c.setDecimalDigits(rsw.getInt("DECIMAL_DIGITS"));
+        c.setNullable(isNullable(rsw.getInt("NULLABLE")));
+        String remarks = getString(rsw, "REMARKS");
+        if (notEmpty(remarks)) {
+            c.setRemarks(remarks);
+        }
+        String columnDef = getString(rsw, "COLUMN_DEF");
+        if (notEmpty(columnDef)) {
+            c.setColumnDef(columnDef);
+        }
+        c.setOrdinalPosition(rsw.getInt("ORDINAL_POSITION"));
+
+        try {
+            // not all driver may support it, it was added post jdk 1.4.2
+            String autoIncrement = getString(rsw, "IS_AUTOINCREMENT");
+            if ("YES".equalsIgnoreCase(autoIncrement)) {
+                c.setAutoIncrement(Boolean.TRUE);
+            } else if ("NO".equalsIgnoreCase(autoIncrement)) {
+                c.setAutoIncrement(Boolean.FALSE);
+            } else {
+                c.setAutoIncrement(null);
+            }
+        } catch (SQLException sqle) {
+            c.setAutoIncrement(null);
+        }
+        return c;
+    }
+
     private void loadImportedKeys(DatabaseMetaData databaseMetaData, Table table, Metadata metaData) throws SQLException {
         log.info("Extracting imported keys for table: " + table.getName());
 
@@ -189,34 +503,61 @@ public class MetadataExtractor {
         ResultSetWrapper rsw = new ResultSetImportedKeys(resultSet, useLabel);
 
         while (resultSet.next()) {
-            ImportedKey importedKey = new ImportedKey();
-
-            // fill it
-            importedKey.setPkTableCatalog(getString(rsw, "PKTABLE_CAT"));
-            importedKey.setPkTableSchema(getString(rsw, "PKTABLE_SCHEM"));
-            importedKey.setPkTableName(getString(rsw, "PKTABLE_NAME"));
-            importedKey.setPkColumnName(getString(rsw, "PKCOLUMN_NAME"));
-
-            importedKey.setFkName(getString(rsw, "FK_NAME"));
-            importedKey.setFkColumnName(getString(rsw, "FKCOLUMN_NAME"));
-
-            // With DB2 we observed some duplicate in FK due to presence of table alias. Here is an example:
-            // <importedKey fkColumnName="ADMRDEPT" fkName="ROD" pkColumnName="DEPTNO" pkTableName="DEPARTMENT"/>
-            // <importedKey fkColumnName="ADMRDEPT" fkName="ROD" pkColumnName="DEPTNO" pkTableName="DEPT"/>
-            // DEPT is in fact a table alias!
-            // to circumvent the issue, we make sure the imported key points to a table reversed.
-
-            if (metaData.getTableBySchemaAndName(importedKey.getPkTableSchema(), importedKey.getPkTableName()) != null) {
-                // add it
-                table.addImportedKey(importedKey);
-            } else {
-                log.warn("Ignoring imported key whose 'pkTableName' cannot be found: " + importedKey);
-            }
+            addImportedKey(table, readImportedKey(rsw), metaData);
         }
 
         resultSet.close();
     }
 
+    private void loadAllImportedKeys(Connection connection, String query, String schemaName, Metadata metadata) throws SQLException {
+        log.info("Extracting imported keys of all tables");
+        PreparedStatement statement = prepareBulkQuery(connection, query, schemaName);
+        try {
+            ResultSet resultSet = statement.executeQuery();
+            ResultSetWrapper rsw = new ResultSetImportedKeys(resultSet, true);
+
+            while (resultSet.next()) {
+                Table table = metadata.getTableBySchemaAndName(getString(rsw, "FKTABLE_SCHEM"), getString(rsw, "FKTABLE_NAME"));
+                if (table != null) {
+                    addImportedKey(table, readImportedKey(rsw), metadata);
+                }
+            }
+
+            resultSet.close();
+        } finally {
+            statement.close();
+        }
+    }
+
+    private ImportedKey readImportedKey(ResultSetWrapper rsw) throws SQLException {
+        ImportedKey importedKey = new ImportedKey();
+
+        // fill it
+        importedKey.setPkTableCatalog(getString(rsw, "PKTABLE_CAT"));
+        importedKey.setPkTableSchema(getString(rsw, "PKTABLE_SCHEM"));
+        importedKey.setPkTableName(getString(rsw, "PKTABLE_NAME"));
+        importedKey.setPkColumnName(getString(rsw, "PKCOLUMN_NAME"));
+
+        importedKey.setFkName(getString(rsw, "FK_NAME"));
+        importedKey.setFkColumnName(getString(rsw, "FKCOLUMN_NAME"));
+        return importedKey;
+    }
+
+    private void addImportedKey(Table table, ImportedKey importedKey, Metadata metaData) {
+        // With DB2 we observed some duplicate in FK due to presence of table alias. Here is an example:
+        // <importedKey fkColumnName="ADMRDEPT" fkName="ROD" pkColumnName="DEPTNO" pkTableName="DEPARTMENT"/>
+        // <importedKey fkColumnName="ADMRDEPT" fkName="ROD" pkColumnName="DEPTNO" pkTableName="DEPT"/>
+        // DEPT is in fact a table alias!
+        // to circumvent the issue, we make sure the imported key points to a table reversed.
+
+        if (metaData.getTableBySchemaAndName(importedKey.getPkTableSchema(), importedKey.getPkTableName()) != null) {
+            // add it
+            table.addImportedKey(importedKey);
+        } else {
+            log.warn("Ignoring imported key whose 'pkTableName' cannot be found: " + importedKey);
+        }
+    }
+
     private void loadIndexes(JdbcConnectivity configuration, DatabaseMetaData databaseMetaData, Table table) throws SQLException {
         if (!configuration.shouldReverseIndexes()) {
             log.warn("Skipping reverse for indexes of table " + table.getName());
@@ -243,12 +584,7 @@ public class MetadataExtractor {
         ResultSetWrapper rsw = new ResultSetIndexInfo(resultSet, useLabel);
 
         while (resultSet.next()) {
-            Index index = new Index();
-            index.setIndexName(getString(rsw, "INDEX_NAME"));
-            index.setColumnName(getString(rsw, "COLUMN_NAME"));
-            index.setNonUnique(rsw.getBoolean("NON_UNIQUE"));
-
-            table.addIndex(index);
+            table.addIndex(readIndex(rsw));
         }
 
         resultSet.close();
@@ -264,6 +600,34 @@ public class MetadataExtractor {
         }
     }
 
+    private void loadAllIndexes(Connection connection, String query, String schemaName, Metadata metadata) throws SQLException {
+        log.info("Extracting indexes of all tables");
+        PreparedStatement statement = prepareBulkQuery(connection, query, schemaName);
+        try {
+            ResultSet resultSet = statement.executeQuery();
+            ResultSetWrapper rsw = new ResultSetIndexInfo(resultSet, true);
+
+            while (resultSet.next()) {
+                Table table = metadata.getTableBySchemaAndName(getString(rsw, "TABLE_SCHEM"), getString(rsw, "TABLE_NAME"));
+                if (table != null) {
+                    table.addIndex(readIndex(rsw));
+                }
+            }
+
+            resultSet.close();
+        } finally {
+            statement.close();
+        }
+    }
+
+    private Index readIndex(ResultSetWrapper rsw) throws SQLException {
+        Index index = new Index();
+        index.setIndexName(getString(rsw, "INDEX_NAME"));
+        index.setColumnName(getString(rsw, "COLUMN_NAME"));
+        index.setNonUnique(rsw.getBoolean("NON_UNIQUE"));
+        return index;
+    }
+
     private void loadPrimaryKeys(DatabaseMetaData databaseMetaData, Table table) throws SQLException {
         log.info("Extracting primary key for table: " + table.getName());
 
@@ -277,6 +641,32 @@ public class MetadataExtractor {
         resultSet.close();
     }
 
+    private void loadAllPrimaryKeys(Connection connection, String query, String schemaName, Metadata metadata) throws SQLException {
+        log.info("Extracting primary keys of all tables");
+        PreparedStatement statement = prepareBulkQuery(connection, query, schemaName);
+        try {
+            ResultSet resultSet = statement.executeQuery();
+            ResultSetWrapper rsw = new ResultSetPrimaryKeys(resultSet, true);
+
+            while (resultSet.next()) {
+                Table table = metadata.getTableBySchemaAndName(getString(rsw, "TABLE_SCHEM"), getString(rsw, "TABLE_NAME"));
+                if (table != null) {
+                    table.addPrimaryKey(getString(rsw, "COLUMN_NAME"));
+                }
+            }
+
+            resultSet.close();
+        } finally {
+            statement.close();
+        }
+    }
+
+    private PreparedStatement prepareBulkQuery(Connection connection, String query, String schemaName) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(query);
+        statement.setString(1, schemaName);
+        return statement;
+    }
+
     private DatabaseInfo extractDatabaseInfo(DatabaseMetaData databaseMetaData) {
         DatabaseInfo database = new DatabaseInfo();
 
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database.support;
+
+import com.jaxio.celerio.configuration.Celerio;
+import com.jaxio.celerio.configuration.database.*;
+import com.jaxio.celerio.configuration.database.h2.MetadataToH2;
+import com.jaxio.celerio.configuration.entity.EntityConfig;
+import com.jaxio.celerio.configuration.entity.Inheritance;
+import com.jaxio.celerio.configuration.support.CelerioLoader;
+import com.jaxio.celerio.configuration.support.MetadataLoader;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import javax.persistence.InheritanceType;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+
+/**
+ * Generates large schemas to exercise Celerio at scale, without a database at hand.
+ * <p>
+ * The schema is made of tables with a simple or composite primary key, a unique name, columns of common types, optional
+ * enum columns and foreign keys to the previously generated tables. The higher the fan-in skew, the more the foreign
+ * keys point to the first tables. Many-to-many join tables and joined inheritance hierarchies are added on top of them,
+ * the hierarchies being declared in the returned {@link Celerio} configuration.
+ * <p>
+ * The same options and seed always produce the same schema. From the command line, options are given as
+ * <code>name=value</code>, for example:
+ * <code>tables=10000 seed=42 metadata=target/metadata.xml celerio=target/celerio-maven-plugin.xml h2=target/schema.sql</code>
+ */
+@Getter
+@Setter
+public class SyntheticSchemaGenerator {
+    private static final JdbcType[] COLUMN_TYPES = {JdbcType.VARCHAR, JdbcType.INTEGER, JdbcType.BIGINT, JdbcType.DECIMAL, JdbcType.DATE,
+            JdbcType.TIMESTAMP, JdbcType.BOOLEAN};
+
+    private long seed;
+    private int tables = 100;
+    private int columns = 8;
+    private double compositeKeyRatio = 0.1;
+    private int maxForeignKeys = 3;
+    private double fanInSkew = 2;
+    private int manyToManyTables = 10;
+    private int inheritanceHierarchies = 2;
+    private int subclasses = 3;
+    private double enumRatio = 0.2;
+    private int enumValues = 4;
+
+    public SyntheticSchema generate() {
+        Random random = new Random(seed);
+        SyntheticSchema schema = new SyntheticSchema();
+        List<Table> simpleKeyTables = newArrayList();
+        List<Table> generated = newArrayList();
+
+        for (int i = 0; i < tables; i++) {
+            Table table = newTable(String.format("TABLE_%05d", i));
+            addColumn(table, "ID", JdbcType.BIGINT, 0, 0, false);
+            table.addPrimaryKey("ID");
+            if (random.nextDouble() < compositeKeyRatio) {
+                addColumn(table, "CODE", JdbcType.VARCHAR, 32, 0, false);
+                table.addPrimaryKey("CODE");
+            } else {
+                simpleKeyTables.add(table);
+            }
+            addAttributes(random, table, columns);
+
+            if (random.nextDouble() < enumRatio) {
+                // one name per table, as enums sharing a column name clash
+                Column status = addColumn(table, "STATUS_" + i, JdbcType.VARCHAR, 32, 0, true);
+                for (int v = 1; v <= enumValues; v++) {
+                    status.addEnumValue("STATUS_" + v);
+                }
+            }
+
+            if (i > 0) {
+                int foreignKeys = random.nextInt(maxForeignKeys + 1);
+                for (int k = 1; k <= foreignKeys; k++) {
+                    Table target = generated.get((int) (i * Math.pow(random.nextDouble(), fanInSkew)));
+                    addForeignKey(table, "FK_" + i + "_" + k, "REF_" + k + "_", target, true);
+                }
+            }
+            schema.metadata.add(table);
+            generated.add(table);
+        }
+
+        for (int m = 0; m < manyToManyTables && simpleKeyTables.size() > 1; m++) {
+            Table left = simpleKeyTables.get(random.nextInt(simpleKeyTables.size()));
+            Table right = left;
+            while (right == left) {
+                right = simpleKeyTables.get(random.nextInt(simpleKeyTables.size()));
+            }
+            Table table = newTable(String.format("JOIN_%05d", m));
+            addForeignKey(table, "FK_JOIN_" + m + "_LEFT", "LEFT_", left, false);
+            addForeignKey(table, "FK_JOIN_" + m + "_RIGHT", "RIGHT_", right, false);
+            table.addPrimaryKey("LEFT_ID");
+            table.addPrimaryKey("RIGHT_ID");
+            schema.metadata.add(table);
+        }
+
+        for (int h = 0; h < inheritanceHierarchies; h++) {
+            List<EntityConfig> hierarchy = newArrayList();
+            hierarchy.add(addHierarchyTable(random, schema, String.format("ROOT_%05d", h), "Root" + h, null));
+            for (int s = 1; s <= subclasses; s++) {
+                EntityConfig parent = hierarchy.get(random.nextInt(hierarchy.size()));
+                hierarchy.add(addHierarchyTable(random, schema, String.format("ROOT_%05d_%02d", h, s), "Root" + h + "Sub" + s, parent));
+            }
+        }
+        return schema;
+    }
+
+    private EntityConfig addHierarchyTable(Random random, SyntheticSchema schema, String tableName, String entityName, EntityConfig parent) {
+        Table table = newTable(tableName);
+        // the joined strategy expects the children to share the name of the root primary key
+        addColumn(table, "ID", JdbcType.BIGINT, 0, 0, false);
+        table.addPrimaryKey("ID");
+        addAttributes(random, table, Math.max(1, columns / 2));
+        schema.metadata.add(table);
+
+        Inheritance inheritance = new Inheritance();
+        if (parent == null) {
+            inheritance.setStrategy(InheritanceType.JOINED);
+        } else {
+            inheritance.setParentEntityName(parent.getEntityName());
+        }
+        EntityConfig entityConfig = new EntityConfig();
+        entityConfig.setTableName(tableName);
+        entityConfig.setEntityName(entityName);
+        entityConfig.setInheritance(inheritance);
+        schema.celerio.getEntityConfigs().add(entityConfig);
+        return entityConfig;
+    }
+
+    private void addAttributes(Random random, Table table, int count) {
+        addColumn(table, "NAME", JdbcType.VARCHAR, 100, 0, false);
+        Index index = new Index();
+        index.setIndexName("UK_" + table.getName());
+        index.setColumnName("NAME");
+        index.setNonUnique(false);
+        table.addIndex(index);
+
+        for (int c = 1; c < count; c++) {
+            JdbcType type = COLUMN_TYPES[random.nextInt(COLUMN_TYPES.length)];
+            if (type == JdbcType.VARCHAR) {
+                addColumn(table, "ATTRIBUTE_" + c, type, 255, 0, true);
+            } else if (type == JdbcType.DECIMAL) {
+                addColumn(table, "ATTRIBUTE_" + c, type, 10, 2, true);
+            } else {
+                addColumn(table, "ATTRIBUTE_" + c, type, 0, 0, true);
+            }
+        }
+    }
+
+    private void addForeignKey(Table table, String fkName, String columnPrefix, Table target, boolean nullable) {
+        for (String pkColumnName : target.getPrimaryKeys()) {
+            Column pkColumn = target.getColumnByName(pkColumnName);
+            String fkColumnName = columnPrefix + pkColumnName;
+            addColumn(table, fkColumnName, pkColumn.getType(), pkColumn.getSize(), pkColumn.getDecimalDigits(), nullable);
+
+            ImportedKey importedKey = new ImportedKey();
+            importedKey.setFkName(fkName);
+            importedKey.setFkColumnName(fkColumnName);
+            importedKey.setPkTableName(target.getName());
+            importedKey.setPkColumnName(pkColumnName);
+            table.addImportedKey(importedKey);
+        }
+    }
+
+    private Table newTable(String name) {
+        Table table = new Table();
+        table.setName(name);
+        table.setType(TableType.TABLE);
+        return table;
+    }
+
+    private Column addColumn(Table table, String name, JdbcType type, int size, int decimalDigits, boolean nullable) {
+        Column column = new Column();
+        column.setName(name);
+        column.setType(type);
+        column.setSize(size);
+        column.setDecimalDigits(decimalDigits);
+        column.setNullable(nullable);
+        column.setOrdinalPosition(table.getColumns().size() + 1);
+        table.addColumn(column);
+        return column;
+    }
+
+    /**
+     * The generated metadata, and the configuration of the entities it cannot express.
+     */
+    @Getter
+    public static class SyntheticSchema {
+        private final Metadata metadata = new Metadata();
+        private final Celerio celerio = new Celerio();
+
+        SyntheticSchema() {
+            metadata.getDatabaseInfo().setDatabaseProductName("H2");
+            metadata.getJdbcConnectivity().setDriver("org.h2.Driver");
+            metadata.getJdbcConnectivity().setHibernateDialect("org.hibernate.dialect.H2Dialect");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        String metadataFile = null;
+        String celerioFile = null;
+        String h2File = null;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expecting name=value, got " + arg);
+            }
+            String name = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            if ("metadata".equals(name)) {
+                metadataFile = value;
+            } else if ("celerio".equals(name)) {
+                celerioFile = value;
+            } else if ("h2".equals(name)) {
+                h2File = value;
+            } else if ("seed".equals(name)) {
+                generator.setSeed(Long.parseLong(value));
+            } else if ("tables".equals(name)) {
+                generator.setTables(Integer.parseInt(value));
+            } else if ("columns".equals(name)) {
+                generator.setColumns(Integer.parseInt(value));
+            } else if ("compositeKeyRatio".equals(name)) {
+                generator.setCompositeKeyRatio(Double.parseDouble(value));
+            } else if ("maxForeignKeys".equals(name)) {
+                generator.setMaxForeignKeys(Integer.parseInt(value));
+            } else if ("fanInSkew".equals(name)) {
+                generator.setFanInSkew(Double.parseDouble(value));
+            } else if ("manyToManyTables".equals(name)) {
+                generator.setManyToManyTables(Integer.parseInt(value));
+            } else if ("inheritanceHierarchies".equals(name)) {
+                generator.setInheritanceHierarchies(Integer.parseInt(value));
+            } else if ("subclasses".equals(name)) {
+                generator.setSubclasses(Integer.parseInt(value));
+            } else if ("enumRatio".equals(name)) {
+                generator.setEnumRatio(Double.parseDouble(value));
+            } else if ("enumValues".equals(name)) {
+                generator.setEnumValues(Integer.parseInt(value));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        if (metadataFile == null && celerioFile == null && h2File == null) {
+            throw new IllegalArgumentException("Nothing to write, please set at least one of metadata=, celerio= or h2=");
+        }
+
+        SyntheticSchema schema = generator.generate();
+        if (h2File != null) {
+            writeStringToFile(new File(h2File), new MetadataToH2(schema.getMetadata()).getCreateScript(), "UTF-8");
+        }
+        if (metadataFile != null || celerioFile != null) {
+            ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("classpath:applicationContext-celerio.xml");
+            try {
+                if (metadataFile != null) {
+                    context.getBean(MetadataLoader.class).write(schema.getMetadata(), metadataFile);
+                }
+                if (celerioFile != null) {
+                    context.getBean(CelerioLoader.class).write(schema.getCelerio(), celerioFile);
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database.support;
+
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
+import com.jaxio.celerio.configuration.database.Metadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Dialect specific query used by the incremental extraction to find the tables that changed since the previous extraction.
+ * <p>
+ * The query takes the value returned by {@link #getSchemaName(Connection, JdbcConnectivity)} as its only parameter and must return one row per table
+ * of the schema, with a change mark that differs as soon as the columns, keys, indexes, comments or enum constraints of the table may have changed.
+ * A table whose mark is null is always extracted again.
+ */
+public interface TableChangeExtension {
+    boolean applyable(Metadata metadata);
+
+    String getSchemaName(Connection connection, JdbcConnectivity configuration) throws SQLException;
+
+    /**
+     * Labels: TABLE_SCHEM, TABLE_NAME, CHANGE_MARK
+     */
+    String getChangeMarksQuery();
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database.support;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.apache.commons.io.FileUtils.readLines;
+import static org.apache.commons.io.FileUtils.writeLines;
+
+/**
+ * Change marks of the tables read by the last incremental extraction, along with a hash of the extraction settings they were read with.
+ * They are saved in a text file next to the metadata.xml they were extracted to, one hashed mark per table.
+ *
+ * @see MetadataExtractor#extract(com.jaxio.celerio.configuration.database.JdbcConnectivity, com.jaxio.celerio.configuration.database.Metadata, TableChanges)
+ */
+@Slf4j
+public class TableChanges {
+    private static final String HEADER = "# celerio table changes v1";
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private String settings;
+    private Map<String, String> marks = newHashMap();
+
+    public static File getFile(File metadataFile) {
+        return new File(metadataFile.getPath() + ".changes");
+    }
+
+    /**
+     * @return the saved changes, or empty changes forcing a complete extraction when the file is missing or cannot be read
+     */
+    public static TableChanges load(File file) {
+        TableChanges changes = new TableChanges();
+        if (!file.isFile()) {
+            return changes;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            List<String> lines = readLines(file, UTF_8.name());
+            if (lines.size() < 2 || !HEADER.equals(lines.get(0))) {
+                log.warn("Ignoring " + file.getAbsolutePath() + ", it was not written by this version");
+                return changes;
+            }
+            changes.settings = lines.get(1);
+            for (String line : lines.subList(2, lines.size())) {
+                int separator = line.indexOf(' ');
+                if (separator > 0) {
+                    changes.marks.put(line.substring(separator + 1), line.substring(0, separator));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read " + file.getAbsolutePath() + ", all the tables will be extracted: " + e.getMessage());
+            return new TableChanges();
+        }
+        return changes;
+    }
+
+    public void save(File file) throws IOException {
+        List<String> lines = newArrayList(HEADER, settings == null ? "" : settings);
+        for (Map.Entry<String, String> mark : new TreeMap<String, String>(marks).entrySet()) {
+            lines.add(mark.getValue() + " " + mark.getKey());
+        }
+        writeLines(file, UTF_8.name(), lines);
+    }
+
+    boolean isFrom(String settings) {
+        return this.settings != null && this.settings.equals(hash(settings));
+    }
+
+    boolean isUnchanged(String tableKey, String mark) {
+        return mark != null && mark.equals(marks.get(tableKey));
+    }
+
+    void reset(String settings, Map<String, String> marks) {
+        this.settings = hash(settings);
+        this.marks = newHashMap(marks);
+    }
+
+    static String hash(String value) {
+        return HASH.hashString(value, UTF_8).toString();
+    }
+}
\ No newline at end of file
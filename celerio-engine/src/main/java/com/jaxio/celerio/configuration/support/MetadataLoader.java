@@ -16,13 +16,25 @@
 
 package com.jaxio.celerio.configuration.support;
 
+import com.google.common.hash.HashCode;
 import com.jaxio.celerio.configuration.database.Metadata;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.oxm.XmlMappingException;
 import org.springframework.oxm.jibx.JibxMarshaller;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.apache.commons.io.FileUtils.readFileToByteArray;
+import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
+
 @Service
+@Slf4j
 public class MetadataLoader extends AbstractJibxLoader<Metadata> {
 
     @Autowired
@@ -32,4 +44,74 @@ public class MetadataLoader extends AbstractJibxLoader<Metadata> {
     public JibxMarshaller getMarshaller() {
         return marshaller;
     }
+
+    /**
+     * The binary snapshot kept next to the given metadata.xml.
+     */
+    public File getSnapshotFile(File xmlFile) {
+        return new File(xmlFile.getPath() + ".snapshot");
+    }
+
+    /**
+     * Loads the given metadata.xml from its snapshot when the snapshot was taken from the same xml content, parses the xml otherwise.
+     * <p>
+     * The maven plugins only use snapshots when asked to: a snapshot is a binary file created next to the metadata.xml, which usually
+     * is under source control, and projects should not find it in their working copy unless they chose to.
+     *
+     * @param updateSnapshot whether a missing or stale snapshot is written again after parsing the xml
+     */
+    public Metadata loadWithSnapshot(File xmlFile, boolean updateSnapshot) throws XmlMappingException, IOException {
+        byte[] xml = readFileToByteArray(xmlFile);
+        HashCode xmlHash = MetadataSnapshot.XML_HASH.hashBytes(xml);
+        File snapshotFile = getSnapshotFile(xmlFile);
+
+        if (snapshotFile.isFile()) {
+            try {
+                Metadata metadata = MetadataSnapshot.read(snapshotFile, xmlHash);
+                if (metadata != null) {
+                    log.info("Loaded metadata from the snapshot " + snapshotFile.getName());
+                    return metadata;
+                }
+                log.info("The snapshot " + snapshotFile.getName() + " was not taken from the current " + xmlFile.getName());
+            } catch (IOException e) {
+                log.warn("Could not read " + snapshotFile.getAbsolutePath() + ", parsing " + xmlFile.getName() + " instead: " + e.getMessage());
+            }
+        }
+
+        Metadata metadata = load(new ByteArrayInputStream(xml));
+        if (updateSnapshot) {
+            writeSnapshot(metadata, xmlHash, snapshotFile);
+        }
+        return metadata;
+    }
+
+    /**
+     * Writes the given metadata as xml, along with its binary snapshot.
+     */
+    public void writeWithSnapshot(Metadata metadata, File xmlFile) throws XmlMappingException, IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        write(metadata, stream);
+        byte[] xml = stream.toByteArray();
+        writeByteArrayToFile(xmlFile, xml);
+        // the snapshot must give what parsing the xml gives, which is not always the metadata passed, for example for empty enum values
+        writeSnapshot(load(new ByteArrayInputStream(xml)), MetadataSnapshot.XML_HASH.hashBytes(xml), getSnapshotFile(xmlFile));
+    }
+
+    /**
+     * Writes the snapshot of the given metadata, and keeps it only if it gives the same xml back: a value missed by the snapshot would
+     * otherwise be silently dropped.
+     */
+    private void writeSnapshot(Metadata metadata, HashCode xmlHash, File snapshotFile) {
+        try {
+            MetadataSnapshot.write(metadata, xmlHash, snapshotFile);
+            Metadata fromSnapshot = MetadataSnapshot.read(snapshotFile, xmlHash);
+            if (fromSnapshot == null || !toXml(fromSnapshot).equals(toXml(metadata))) {
+                log.warn("The snapshot does not give the same metadata back, " + snapshotFile.getName() + " is not kept");
+                snapshotFile.delete();
+            }
+        } catch (IOException e) {
+            log.warn("Could not write " + snapshotFile.getAbsolutePath() + ": " + e.getMessage());
+            snapshotFile.delete();
+        }
+    }
 }
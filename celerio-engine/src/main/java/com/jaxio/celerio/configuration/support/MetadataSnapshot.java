@@ -0,0 +1,493 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.support;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.jaxio.celerio.configuration.MetaAttribute;
+import com.jaxio.celerio.configuration.database.*;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+
+/**
+ * Compact binary form of a {@link Metadata}, tagged with the hash of the metadata.xml it was taken from.
+ * <p>
+ * Every value bound by JiBX is read through the same getter and given back through the same setter, null included, so that reading a
+ * snapshot gives the same metadata as parsing the xml. Each string is written once, then referenced by its index.
+ */
+class MetadataSnapshot {
+    static final HashFunction XML_HASH = Hashing.murmur3_128();
+    private static final int MAGIC = 0x43454c4d;
+    // to increase whenever the layout written below changes
+    private static final int LAYOUT_VERSION = 1;
+    private static final Class<?>[] SNAPSHOT_TYPES = {Metadata.class, JdbcConnectivity.class, DatabaseInfo.class, Table.class, Column.class,
+            Index.class, ImportedKey.class, MetaAttribute.class, TableType.class, JdbcType.class};
+    private static final int FORMAT_VERSION = formatVersion();
+    private static final int NULL = -1;
+
+    /**
+     * The layout version combined with the fields of the metadata classes, so that a snapshot is never read by an engine whose metadata
+     * classes have other fields, even when the layout version was not increased.
+     */
+    private static int formatVersion() {
+        Hasher hasher = Hashing.murmur3_32().newHasher().putInt(LAYOUT_VERSION);
+        for (Class<?> type : SNAPSHOT_TYPES) {
+            List<String> fields = newArrayList();
+            for (Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    fields.add(field.getName() + " " + field.getGenericType());
+                }
+            }
+            Collections.sort(fields);
+            hasher.putString(type.getName(), Charsets.UTF_8);
+            for (String field : fields) {
+                hasher.putString(field, Charsets.UTF_8);
+            }
+            if (type.isEnum()) {
+                for (Object constant : type.getEnumConstants()) {
+                    hasher.putString(((Enum<?>) constant).name(), Charsets.UTF_8);
+                }
+            }
+        }
+        return hasher.hash().asInt();
+    }
+
+    static void write(Metadata metadata, HashCode xmlHash, File snapshotFile) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.write(xmlHash.asBytes());
+            new Writer(out).writeMetadata(metadata);
+            // so that a truncated snapshot is not taken for a complete one
+            out.writeInt(MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return the metadata, or null when the snapshot was not taken from the xml having the given hash.
+     */
+    static Metadata read(File snapshotFile, HashCode xmlHash) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            byte[] snapshotXmlHash = new byte[XML_HASH.bits() / 8];
+            in.readFully(snapshotXmlHash);
+            if (!HashCode.fromBytes(snapshotXmlHash).equals(xmlHash)) {
+                return null;
+            }
+            Metadata metadata = new Reader(in).readMetadata();
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Corrupted snapshot " + snapshotFile.getAbsolutePath());
+            }
+            return metadata;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> stringIndexes = newHashMap();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeMetadata(Metadata metadata) throws IOException {
+            writeJdbcConnectivity(metadata.getJdbcConnectivity());
+            writeDatabaseInfo(metadata.getDatabaseInfo());
+            writeSize(metadata.getTables());
+            if (metadata.getTables() != null) {
+                for (Table table : metadata.getTables()) {
+                    writeTable(table);
+                }
+            }
+        }
+
+        private void writeJdbcConnectivity(JdbcConnectivity jdbcConnectivity) throws IOException {
+            out.writeBoolean(jdbcConnectivity != null);
+            if (jdbcConnectivity == null) {
+                return;
+            }
+            writeString(jdbcConnectivity.getDriver());
+            writeString(jdbcConnectivity.getDriverGroupId());
+            writeString(jdbcConnectivity.getDriverArtifactId());
+            writeString(jdbcConnectivity.getDriverArtifactIdVersion());
+            writeString(jdbcConnectivity.getHibernateDialect());
+            writeString(jdbcConnectivity.getSqlDelimiter());
+            writeString(jdbcConnectivity.getUrl());
+            writeString(jdbcConnectivity.getUser());
+            writeString(jdbcConnectivity.getPassword());
+            writeString(jdbcConnectivity.getSchemaName());
+            writeStrings(jdbcConnectivity.getTableNamePatterns());
+            writeSize(jdbcConnectivity.getTableTypes());
+            if (jdbcConnectivity.getTableTypes() != null) {
+                for (TableType tableType : jdbcConnectivity.getTableTypes()) {
+                    writeEnum(tableType);
+                }
+            }
+            out.writeBoolean(jdbcConnectivity.isOracleRetrieveRemarks());
+            out.writeBoolean(jdbcConnectivity.isOracleRetrieveSynonyms());
+            writeBoolean(jdbcConnectivity.getReverseIndexes());
+            writeBoolean(jdbcConnectivity.getReverseOnlyUniqueIndexes());
+            writeString(jdbcConnectivity.getCatalog());
+        }
+
+        private void writeDatabaseInfo(DatabaseInfo databaseInfo) throws IOException {
+            out.writeBoolean(databaseInfo != null);
+            if (databaseInfo == null) {
+                return;
+            }
+            out.writeInt(databaseInfo.getDatabaseMajorVersion());
+            out.writeInt(databaseInfo.getDatabaseMinorVersion());
+            writeString(databaseInfo.getDatabaseProductName());
+            writeString(databaseInfo.getDatabaseProductVersion());
+            out.writeInt(databaseInfo.getDriverMajorVersion());
+            out.writeInt(databaseInfo.getDriverMinorVersion());
+            writeString(databaseInfo.getDriverName());
+            writeString(databaseInfo.getDriverVersion());
+            writeString(databaseInfo.getExtraInfo());
+        }
+
+        private void writeTable(Table table) throws IOException {
+            writeString(table.getName());
+            writeEnum(table.getType());
+            writeString(table.getRemarks());
+            writeString(table.getSchemaName());
+            writeString(table.getCatalog());
+
+            writeSize(table.getColumns());
+            if (table.getColumns() != null) {
+                for (Column column : table.getColumns()) {
+                    writeColumn(column);
+                }
+            }
+
+            writeSize(table.getIndexes());
+            if (table.getIndexes() != null) {
+                for (Index index : table.getIndexes()) {
+                    writeString(index.getColumnName());
+                    writeString(index.getIndexName());
+                    out.writeBoolean(index.isNonUnique());
+                }
+            }
+
+            writeSize(table.getImportedKeys());
+            if (table.getImportedKeys() != null) {
+                for (ImportedKey importedKey : table.getImportedKeys()) {
+                    writeString(importedKey.getFkColumnName());
+                    writeString(importedKey.getFkName());
+                    writeString(importedKey.getPkColumnName());
+                    writeString(importedKey.getPkTableName());
+                    writeString(importedKey.getPkTableSchema());
+                    writeString(importedKey.getPkTableCatalog());
+                }
+            }
+
+            writeStrings(table.getPrimaryKeys());
+        }
+
+        private void writeColumn(Column column) throws IOException {
+            writeString(column.getName());
+            writeString(column.getColumnDef());
+            out.writeInt(column.getDecimalDigits());
+            writeBoolean(column.getAutoIncrement());
+            out.writeBoolean(column.isNullable());
+            out.writeInt(column.getOrdinalPosition());
+            writeString(column.getRemarks());
+            out.writeInt(column.getSize());
+            writeEnum(column.getType());
+            writeStrings(column.getEnumValues());
+            writeSize(column.getMetaAttributes());
+            if (column.getMetaAttributes() != null) {
+                for (MetaAttribute metaAttribute : column.getMetaAttributes()) {
+                    writeString(metaAttribute.getName());
+                    writeString(metaAttribute.getValue());
+                }
+            }
+        }
+
+        private void writeSize(Collection<?> collection) throws IOException {
+            out.writeInt(collection == null ? NULL : collection.size());
+        }
+
+        private void writeStrings(Collection<String> strings) throws IOException {
+            writeSize(strings);
+            if (strings != null) {
+                for (String string : strings) {
+                    writeString(string);
+                }
+            }
+        }
+
+        private void writeBoolean(Boolean value) throws IOException {
+            out.writeByte(value == null ? NULL : value ? 1 : 0);
+        }
+
+        private void writeEnum(Enum<?> value) throws IOException {
+            writeString(value == null ? null : value.name());
+        }
+
+        private void writeString(String string) throws IOException {
+            if (string == null) {
+                out.writeInt(NULL);
+                return;
+            }
+            Integer index = stringIndexes.get(string);
+            if (index != null) {
+                out.writeInt(index);
+                return;
+            }
+            // a string seen for the first time gets the next index and is followed by its content
+            index = stringIndexes.size();
+            stringIndexes.put(string, index);
+            out.writeInt(index);
+            byte[] bytes = string.getBytes(Charsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static class Reader {
+        private final DataInputStream in;
+        private final List<String> strings = newArrayList();
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        Metadata readMetadata() throws IOException {
+            Metadata metadata = new Metadata();
+            metadata.setJdbcConnectivity(readJdbcConnectivity());
+            metadata.setDatabaseInfo(readDatabaseInfo());
+            List<Table> tables = null;
+            int nbTables = in.readInt();
+            if (nbTables != NULL) {
+                tables = newArrayList();
+                for (int i = 0; i < nbTables; i++) {
+                    tables.add(readTable());
+                }
+            }
+            metadata.setTables(tables);
+            return metadata;
+        }
+
+        private JdbcConnectivity readJdbcConnectivity() throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            JdbcConnectivity jdbcConnectivity = new JdbcConnectivity();
+            jdbcConnectivity.setDriver(readString());
+            jdbcConnectivity.setDriverGroupId(readString());
+            jdbcConnectivity.setDriverArtifactId(readString());
+            jdbcConnectivity.setDriverArtifactIdVersion(readString());
+            jdbcConnectivity.setHibernateDialect(readString());
+            jdbcConnectivity.setSqlDelimiter(readString());
+            jdbcConnectivity.setUrl(readString());
+            jdbcConnectivity.setUser(readString());
+            jdbcConnectivity.setPassword(readString());
+            jdbcConnectivity.setSchemaName(readString());
+            jdbcConnectivity.setTableNamePatterns(readStringList());
+            List<TableType> tableTypes = null;
+            int nbTableTypes = in.readInt();
+            if (nbTableTypes != NULL) {
+                tableTypes = newArrayList();
+                for (int i = 0; i < nbTableTypes; i++) {
+                    tableTypes.add(readEnum(TableType.class));
+                }
+            }
+            jdbcConnectivity.setTableTypes(tableTypes);
+            jdbcConnectivity.setOracleRetrieveRemarks(in.readBoolean());
+            jdbcConnectivity.setOracleRetrieveSynonyms(in.readBoolean());
+            jdbcConnectivity.setReverseIndexes(readBoolean());
+            jdbcConnectivity.setReverseOnlyUniqueIndexes(readBoolean());
+            jdbcConnectivity.setCatalog(readString());
+            return jdbcConnectivity;
+        }
+
+        private DatabaseInfo readDatabaseInfo() throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            DatabaseInfo databaseInfo = new DatabaseInfo();
+            databaseInfo.setDatabaseMajorVersion(in.readInt());
+            databaseInfo.setDatabaseMinorVersion(in.readInt());
+            databaseInfo.setDatabaseProductName(readString());
+            databaseInfo.setDatabaseProductVersion(readString());
+            databaseInfo.setDriverMajorVersion(in.readInt());
+            databaseInfo.setDriverMinorVersion(in.readInt());
+            databaseInfo.setDriverName(readString());
+            databaseInfo.setDriverVersion(readString());
+            databaseInfo.setExtraInfo(readString());
+            return databaseInfo;
+        }
+
+        private Table readTable() throws IOException {
+            Table table = new Table();
+            // set before the keys, which are indexed under the table name
+            table.setName(readString());
+            table.setType(readEnum(TableType.class));
+            table.setRemarks(readString());
+            table.setSchemaName(readString());
+            table.setCatalog(readString());
+
+            List<Column> columns = null;
+            int nbColumns = in.readInt();
+            if (nbColumns != NULL) {
+                columns = newArrayList();
+                for (int i = 0; i < nbColumns; i++) {
+                    columns.add(readColumn());
+                }
+            }
+            table.setColumns(columns);
+
+            List<Index> indexes = null;
+            int nbIndexes = in.readInt();
+            if (nbIndexes != NULL) {
+                indexes = newArrayList();
+                for (int i = 0; i < nbIndexes; i++) {
+                    Index index = new Index();
+                    index.setColumnName(readString());
+                    index.setIndexName(readString());
+                    index.setNonUnique(in.readBoolean());
+                    indexes.add(index);
+                }
+            }
+            table.setIndexes(indexes);
+
+            List<ImportedKey> importedKeys = null;
+            int nbImportedKeys = in.readInt();
+            if (nbImportedKeys != NULL) {
+                importedKeys = newArrayList();
+                for (int i = 0; i < nbImportedKeys; i++) {
+                    ImportedKey importedKey = new ImportedKey();
+                    importedKey.setFkColumnName(readString());
+                    importedKey.setFkName(readString());
+                    importedKey.setPkColumnName(readString());
+                    importedKey.setPkTableName(readString());
+                    importedKey.setPkTableSchema(readString());
+                    importedKey.setPkTableCatalog(readString());
+                    importedKeys.add(importedKey);
+                }
+            }
+            table.setImportedKeys(importedKeys);
+
+            table.setPrimaryKeys(readStringList());
+            return table;
+        }
+
+        private Column readColumn() throws IOException {
+            Column column = new Column();
+            column.setName(readString());
+            column.setColumnDef(readString());
+            column.setDecimalDigits(in.readInt());
+            column.setAutoIncrement(readBoolean());
+            column.setNullable(in.readBoolean());
+            column.setOrdinalPosition(in.readInt());
+            column.setRemarks(readString());
+            column.setSize(in.readInt());
+            column.setType(readEnum(JdbcType.class));
+
+            Set<String> enumValues = null;
+            int nbEnumValues = in.readInt();
+            if (nbEnumValues != NULL) {
+                enumValues = newHashSet();
+                for (int i = 0; i < nbEnumValues; i++) {
+                    enumValues.add(readString());
+                }
+            }
+            column.setEnumValues(enumValues);
+
+            Set<MetaAttribute> metaAttributes = null;
+            int nbMetaAttributes = in.readInt();
+            if (nbMetaAttributes != NULL) {
+                metaAttributes = newHashSet();
+                for (int i = 0; i < nbMetaAttributes; i++) {
+                    MetaAttribute metaAttribute = new MetaAttribute();
+                    metaAttribute.setName(readString());
+                    metaAttribute.setValue(readString());
+                    metaAttributes.add(metaAttribute);
+                }
+            }
+            column.setMetaAttributes(metaAttributes);
+            return column;
+        }
+
+        private List<String> readStringList() throws IOException {
+            int size = in.readInt();
+            if (size == NULL) {
+                return null;
+            }
+            List<String> list = newArrayList();
+            for (int i = 0; i < size; i++) {
+                list.add(readString());
+            }
+            return list;
+        }
+
+        private Boolean readBoolean() throws IOException {
+            byte value = in.readByte();
+            return value == NULL ? null : value == 1;
+        }
+
+        private <E extends Enum<E>> E readEnum(Class<E> enumType) throws IOException {
+            String name = readString();
+            try {
+                return name == null ? null : Enum.valueOf(enumType, name);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown " + enumType.getSimpleName() + " " + name);
+            }
+        }
+
+        private String readString() throws IOException {
+            int index = in.readInt();
+            if (index == NULL) {
+                return null;
+            }
+            if (index < strings.size()) {
+                return strings.get(index);
+            }
+            if (index > strings.size()) {
+                throw new IOException("Corrupted snapshot, unknown string " + index);
+            }
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            String string = new String(bytes, Charsets.UTF_8);
+            strings.add(string);
+            return string;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.factory;
+
+import com.jaxio.celerio.model.Entity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.lang.Math.min;
+
+/**
+ * Applies the per entity steps of the project building, possibly on several workers.
+ * <p>
+ * The entities are split in groups that share neither a hierarchy nor a table. Each group is processed by a single worker in the order of the
+ * given entities, so as long as a step only changes the entities of its group, the model is the same as with a sequential building.
+ * Steps changing several hierarchies, such as the relations, must not be applied with it. The services they share, such as the
+ * {@link RelationCollisionUtil} used when the primary and foreign keys free their attribute vars, must be thread safe.
+ */
+@Slf4j
+class EntityWorkers {
+
+    interface EntityStep {
+        void apply(Entity entity);
+    }
+
+    private final List<List<Entity>> groups;
+    private final int nbWorkers;
+    private ExecutorService executor;
+
+    EntityWorkers(List<Entity> entities, int threads) {
+        if (threads <= 1) {
+            groups = newArrayList();
+            groups.add(entities);
+            nbWorkers = 1;
+            return;
+        }
+
+        groups = split(entities);
+        nbWorkers = min(threads, groups.size());
+        if (nbWorkers > 1) {
+            log.info("Building " + groups.size() + " independent groups of entities with " + nbWorkers + " workers");
+            executor = Executors.newFixedThreadPool(nbWorkers, new ThreadFactory() {
+                private AtomicInteger counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "celerio-model-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * Applies the step to all the entities and returns once it is done for all of them.
+     */
+    void forEach(final EntityStep step) {
+        if (executor == null) {
+            for (List<Entity> group : groups) {
+                for (Entity entity : group) {
+                    step.apply(entity);
+                }
+            }
+            return;
+        }
+
+        final AtomicInteger nextGroup = new AtomicInteger();
+        List<Future<Void>> workers = newArrayList();
+        for (int i = 0; i < nbWorkers; i++) {
+            workers.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    try {
+                        for (int index = nextGroup.getAndIncrement(); index < groups.size(); index = nextGroup.getAndIncrement()) {
+                            for (Entity entity : groups.get(index)) {
+                                step.apply(entity);
+                            }
+                        }
+                        return null;
+                    } catch (RuntimeException e) {
+                        // stop the other workers
+                        nextGroup.set(groups.size());
+                        throw e;
+                    }
+                }
+            }));
+        }
+
+        for (Future<Void> worker : workers) {
+            waitFor(worker);
+        }
+    }
+
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void waitFor(Future<Void> worker) {
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the entities", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Could not build the entities", e.getCause());
+        }
+    }
+
+    /**
+     * Union-find on the entity positions: entities having the same root entity or involving the same table get the same representative.
+     */
+    private static List<List<Entity>> split(List<Entity> entities) {
+        int[] representatives = new int[entities.size()];
+        Map<String, Integer> firstEntityByKey = newHashMap();
+        for (int i = 0; i < entities.size(); i++) {
+            representatives[i] = i;
+            for (String key : getSharedKeys(entities.get(i))) {
+                Integer first = firstEntityByKey.get(key);
+                if (first == null) {
+                    firstEntityByKey.put(key, i);
+                } else {
+                    representatives[find(representatives, i)] = find(representatives, first);
+                }
+            }
+        }
+
+        Map<Integer, List<Entity>> groups = new LinkedHashMap<Integer, List<Entity>>();
+        for (int i = 0; i < entities.size(); i++) {
+            int representative = find(representatives, i);
+            List<Entity> group = groups.get(representative);
+            if (group == null) {
+                group = newArrayList();
+                groups.put(representative, group);
+            }
+            group.add(entities.get(i));
+        }
+        return newArrayList(groups.values());
+    }
+
+    private static int find(int[] representatives, int index) {
+        while (representatives[index] != index) {
+            representatives[index] = representatives[representatives[index]];
+            index = representatives[index];
+        }
+        return index;
+    }
+
+    private static List<String> getSharedKeys(Entity entity) {
+        List<String> keys = newArrayList();
+        keys.add("entity:" + entity.getRoot().getName());
+        if (entity.getTableName() != null) {
+            keys.add("table:" + entity.getTableName().toUpperCase());
+        }
+        for (String tableName : entity.getTableNamesInvolvedInEntity()) {
+            keys.add("table:" + tableName.toUpperCase());
+        }
+        return keys;
+    }
+}
\ No newline at end of file
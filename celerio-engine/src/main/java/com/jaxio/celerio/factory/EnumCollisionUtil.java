@@ -32,6 +32,13 @@ public class EnumCollisionUtil {
 
     private Set<String> enumNames = newHashSet();
 
+    /**
+     * Forgets the names given while building a previous project.
+     */
+    public void reset() {
+        enumNames.clear();
+    }
+
     private void addName(String enumName) {
         enumNames.add(clashKey(enumName));
     }
@@ -28,6 +28,7 @@ import com.jaxio.celerio.configuration.entity.EnumType;
 import com.jaxio.celerio.configuration.entity.EnumValue;
 import com.jaxio.celerio.convention.GeneratedPackage;
 import com.jaxio.celerio.convention.WellKnownFolder;
+import com.jaxio.celerio.factory.EntityWorkers.EntityStep;
 import com.jaxio.celerio.factory.conventions.AccountConvention;
 import com.jaxio.celerio.model.Attribute;
 import com.jaxio.celerio.model.Entity;
@@ -56,6 +57,7 @@ import com.jaxio.celerio.spi.RelationSpi;
 import com.jaxio.celerio.template.pack.PackLoader;
 import com.jaxio.celerio.template.pack.TemplatePack;
 import com.jaxio.celerio.util.FallBackUtil;
+import com.jaxio.celerio.util.GenerationMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.math.NumberUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -106,6 +108,15 @@ public class ProjectFactory {
     @Autowired
     private ForbiddenWhenBuildingAspect forbiddenWhenBuildingAspect;
 
+    @Autowired
+    private EnumCollisionUtil enumCollisionUtil;
+
+    @Autowired
+    private RelationCollisionUtil relationCollisionUtil;
+
+    @Autowired
+    private GenerationMetrics generationMetrics;
+
     @Autowired
     private BuildInfo buildInfo;
 
@@ -151,6 +162,11 @@ public class ProjectFactory {
         Project project = config.getProject();
         Celerio celerio = config.getCelerio();
 
+        // the same context may build several projects, see CelerioDaemon
+        forbiddenWhenBuildingAspect.buildingStarted();
+        enumCollisionUtil.reset();
+        relationCollisionUtil.reset();
+
         if (config.isSpringfuseMode()) {
             handleSpringfuseSpecificities();
         }
@@ -160,37 +176,57 @@ public class ProjectFactory {
 
         celerio.setEntityConfigs(entityConfigFactory.filterEntityConfigs(celerio.getEntityConfigs()));
 
+        generationMetrics.startPhase("configuration");
         log.info("Checking configuration consistency...");
         entityConfigFactory.assertEntityConfigListIsConsistent(celerio.getEntityConfigs());
 
         log.info("Processing enums...");
+        generationMetrics.startPhase("enums");
         buildSharedEnums(celerio);
 
         log.info("Processing entities...");
+        generationMetrics.startPhase("entities");
         buildEntities(project, celerio.getEntityConfigs());
 
         log.info("Processing inheritance...");
+        generationMetrics.startPhase("inheritance");
         inheritanceFactory.wireEntityHierarchies();
 
-        log.info("Processing uniques/pk/fk...");
-        setupEntities();
+        EntityWorkers workers = new EntityWorkers(project.getCurrentEntities(), config.getModelThreads());
+        try {
+            log.info("Processing uniques/pk/fk...");
+            generationMetrics.startPhase("keys");
+            setupEntities(workers);
 
-        forbiddenWhenBuildingAspect.buildingDone();
+            forbiddenWhenBuildingAspect.buildingDone();
 
-        log.info("Processing relations...");
-        setupRelations();
+            log.info("Processing relations...");
+            generationMetrics.startPhase("relations");
+            setupRelations();
 
-        log.info("Processing business keys...");
-        setupBusinessKeys();
+            log.info("Processing business keys...");
+            generationMetrics.startPhase("businessKeys");
+            setupBusinessKeys(workers);
 
-        log.info("Processing global validation...");
-        globalValidation();
+            log.info("Processing global validation...");
+            generationMetrics.startPhase("validation");
+            globalValidation();
 
-        log.info("Applying conventions...");
-        conventions(project, config.getCelerio().getConfiguration());
+            log.info("Applying conventions...");
+            generationMetrics.startPhase("conventions");
+            conventions(project, config.getCelerio().getConfiguration());
+
+            log.info("Loading Celerio SPIs...");
+            generationMetrics.startPhase("spis");
+            loadAndApplySpis(workers);
+        } finally {
+            workers.shutdown();
+        }
 
-        log.info("Loading Celerio SPIs...");
-        loadAndApplySpis();
+        // the model is read only from now on
+        generationMetrics.startPhase("freeze");
+        project.freeze();
+        generationMetrics.endPhase();
     }
 
     /**
@@ -281,35 +317,56 @@ public class ProjectFactory {
         }
     }
 
-    private void setupEntities() {
-        for (Entity entity : config.getProject().getCurrentEntities()) {
-            entityFactory.setupAttributes(entity);
-        }
+    /**
+     * Each step is done for all the entities before the next one starts.
+     */
+    private void setupEntities(EntityWorkers workers) {
+        workers.forEach(new EntityStep() {
+            @Override
+            public void apply(Entity entity) {
+                entityFactory.setupAttributes(entity);
+            }
+        });
 
-        for (Entity entity : config.getProject().getCurrentEntities()) {
-            uniqueFactory.setupUniques(entity);
-        }
+        workers.forEach(new EntityStep() {
+            @Override
+            public void apply(Entity entity) {
+                uniqueFactory.setupUniques(entity);
+            }
+        });
 
-        for (Entity entity : config.getProject().getCurrentEntities()) {
-            primaryKeyFactory.setupPrimaryKey(entity);
-        }
+        workers.forEach(new EntityStep() {
+            @Override
+            public void apply(Entity entity) {
+                primaryKeyFactory.setupPrimaryKey(entity);
+            }
+        });
 
         // Attention: FK hints must be processed after PK
-        for (Entity entity : config.getProject().getCurrentEntities()) {
-            foreignKeyHintsFactory.setupForeignKeyHints(entity);
-        }
+        workers.forEach(new EntityStep() {
+            @Override
+            public void apply(Entity entity) {
+                foreignKeyHintsFactory.setupForeignKeyHints(entity);
+            }
+        });
     }
 
+    /**
+     * Always sequential: relations are added on both sides and their names are made unique across the project.
+     */
     private void setupRelations() {
         for (Entity entity : config.getProject().getCurrentEntities()) {
             relationFactory.setupRelations(entity);
         }
     }
 
-    private void setupBusinessKeys() {
-        for (Entity entity : config.getProject().getCurrentEntities()) {
-            businessKeyFactory.setupBusinessKey(entity);
-        }
+    private void setupBusinessKeys(EntityWorkers workers) {
+        workers.forEach(new EntityStep() {
+            @Override
+            public void apply(Entity entity) {
+                businessKeyFactory.setupBusinessKey(entity);
+            }
+        });
     }
 
     private void globalValidation() {
@@ -404,7 +461,12 @@ public class ProjectFactory {
         }
     }
 
-    private void loadAndApplySpis() {
+    private void loadAndApplySpis(EntityWorkers workers) {
+        projectSpis.clear();
+        entitySpis.clear();
+        attributeSpis.clear();
+        relationSpis.clear();
+
         // 1- project SPI
         loadProjectSpis(defaultProjectSpis.iterator());
         loadProjectSpis(ServiceLoader.load(ProjectSpi.class).iterator());
@@ -422,22 +484,25 @@ public class ProjectFactory {
         loadRelationSpis(ServiceLoader.load(RelationSpi.class).iterator());
 
         // 5- real binding on project, entities, attributes, relations.
-        bindAllSpis();
+        bindAllSpis(workers);
 
         // 6- now bind all namers found in various pack config
         // Note: namers found in main config are loaded/binded by the entityFactory.
         for (TemplatePack templatePack : packLoader.getTemplatePacks()) {
 
-            List<EntityContextProperty> entityContextPropertyList = templatePack.getTemplatePackInfo().getEntityContextPropertyList();
+            final List<EntityContextProperty> entityContextPropertyList = templatePack.getTemplatePackInfo().getEntityContextPropertyList();
             if (entityContextPropertyList == null || entityContextPropertyList.size() == 0) {
                 continue;
             }
 
-            for (Entity entity : config.getProject().getCurrentEntities()) {
-                for (EntityContextProperty ecp : entityContextPropertyList) {
-                    entity.put(ecp.getProperty(), new ClassNamer2(entity, ecp.getRootPackage(), ecp.getSubPackage(), ecp.getPrefix(), ecp.getSuffix()));
+            workers.forEach(new EntityStep() {
+                @Override
+                public void apply(Entity entity) {
+                    for (EntityContextProperty ecp : entityContextPropertyList) {
+                        entity.put(ecp.getProperty(), new ClassNamer2(entity, ecp.getRootPackage(), ecp.getSubPackage(), ecp.getPrefix(), ecp.getSuffix()));
+                    }
                 }
-            }
+            });
         }
     }
 
@@ -473,28 +538,35 @@ public class ProjectFactory {
         }
     }
 
-    private void bindAllSpis() {
+    /**
+     * With several model threads, the SPIs of different entity groups are initialized concurrently: an SPI may read the whole model
+     * but must only change the element it is bound to.
+     */
+    private void bindAllSpis(EntityWorkers workers) {
         for (Class<? extends ProjectSpi> projectSpiClass : projectSpis) {
             bindProjectSpi(config.getProject(), projectSpiClass);
         }
 
-        for (Entity entity : config.getProject().getCurrentEntities()) {
-            for (Class<? extends EntitySpi> entitySpiClass : entitySpis) {
-                bindEntitySpi(entity, entitySpiClass);
-            }
+        workers.forEach(new EntityStep() {
+            @Override
+            public void apply(Entity entity) {
+                for (Class<? extends EntitySpi> entitySpiClass : entitySpis) {
+                    bindEntitySpi(entity, entitySpiClass);
+                }
 
-            for (Attribute attribute : entity.getCurrentAttributes()) {
-                for (Class<? extends AttributeSpi> attributeSpiClass : attributeSpis) {
-                    bindAttributeSpi(attribute, attributeSpiClass);
+                for (Attribute attribute : entity.getCurrentAttributes()) {
+                    for (Class<? extends AttributeSpi> attributeSpiClass : attributeSpis) {
+                        bindAttributeSpi(attribute, attributeSpiClass);
+                    }
                 }
-            }
 
-            for (Relation relation : entity.getRelations().getList()) {
-                for (Class<? extends RelationSpi> relationSpiClass : relationSpis) {
-                    bindRelationSpi(relation, relationSpiClass);
+                for (Relation relation : entity.getRelations().getList()) {
+                    for (Class<? extends RelationSpi> relationSpiClass : relationSpis) {
+                        bindRelationSpi(relation, relationSpiClass);
+                    }
                 }
             }
-        }
+        });
     }
 
     private void bindProjectSpi(Project project, Class<? extends ProjectSpi> spiClass) {
@@ -25,16 +25,25 @@ import com.jaxio.celerio.support.Namer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static com.google.common.collect.Sets.newHashSet;
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 
 @Service
 @Slf4j
 public class RelationCollisionUtil {
 
-    private Set<String> fullVars = newHashSet();
+    // vars are added and freed by the workers building the entities in parallel, see EntityWorkers
+    private Set<String> fullVars = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Forgets the vars given while building a previous project.
+     */
+    public void reset() {
+        fullVars.clear();
+    }
 
     public void addVar(String entityType, String attributeVar) {
         fullVars.add(clashKey(entityType, attributeVar));
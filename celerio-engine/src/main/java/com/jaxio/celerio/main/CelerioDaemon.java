@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.main;
+
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.model.Project;
+import com.jaxio.celerio.template.TemplateEngine;
+import com.jaxio.celerio.template.pack.ClasspathPackRegistry;
+import com.jaxio.celerio.template.pack.PackLoader;
+import com.jaxio.celerio.util.GenerationMetrics;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.jaxio.celerio.configuration.Util.LOCAL_CELERIO_PACK;
+
+/**
+ * Keeps the Spring context, the template packs and the project model warm and generates again whenever an input changes.
+ * <p>
+ * The configuration files, the local pack descriptors and the templates indexed by the local packs are polled; the pack
+ * folders are listed again only when one of their folders has been modified. A change in the configuration, the metadata
+ * or a pack descriptor loads the configuration again, scans the classpath packs again and builds a new project. A change
+ * limited to the templates of a local pack reuses the project already built. The generation is incremental, so only the
+ * templates whose inputs changed are evaluated again.
+ */
+@Service
+@Slf4j
+public class CelerioDaemon {
+    @Autowired
+    private CelerioProducer celerioProducer;
+    @Autowired
+    private TemplateEngine templateEngine;
+    @Autowired
+    private PackLoader packLoader;
+    @Autowired
+    private Config config;
+    @Autowired
+    private GenerationMetrics generationMetrics;
+
+    /**
+     * Milliseconds between two checks of the watched files.
+     */
+    @Getter
+    @Setter
+    private long pollingInterval = 500;
+    private volatile boolean running;
+
+    /**
+     * Where the configuration comes from.
+     */
+    public interface ConfigurationSource {
+        /**
+         * @return the files the configuration is loaded from, a change in one of them loads the configuration again.
+         */
+        List<File> getConfigurationFiles();
+
+        /**
+         * Loads the metadata, the celerio configuration and the output into the given config.
+         */
+        void load(Config config) throws Exception;
+    }
+
+    /**
+     * Generates with the configuration already loaded, then generates again on each change until {@link #stop()} is called.
+     * The generation is always incremental, whatever {@link Config#isIncrementalGeneration()} was set to.
+     */
+    public void watch(ConfigurationSource source) throws Exception {
+        running = true;
+        config.setIncrementalGeneration(true);
+        Snapshot snapshot = new Snapshot(source);
+        celerioProducer.produce();
+        log.info("Watching " + source.getConfigurationFiles() + " and the local packs " + packLoader.getLocalPackRoots());
+
+        while (running) {
+            Thread.sleep(pollingInterval);
+            Snapshot current = new Snapshot(source);
+            if (current.equals(snapshot)) {
+                continue;
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                if (!current.configurationStamps.equals(snapshot.configurationStamps)) {
+                    log.info("Configuration changed, building the project again");
+                    config.setProject(new Project());
+                    ClasspathPackRegistry.invalidate();
+                    source.load(config);
+                    config.setIncrementalGeneration(true);
+                    // the new configuration may declare other packs
+                    current = new Snapshot(source);
+                    celerioProducer.produce();
+                } else {
+                    log.info("Templates changed, reusing the project");
+                    generationMetrics.reset();
+                    templateEngine.produce(config.getProject(), false);
+                    generationMetrics.report();
+                }
+                log.info("Generated again in " + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                log.error("Generation failed, waiting for the next change", e);
+            }
+            snapshot = current;
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Last modification time and size of the watched files.
+     */
+    private class Snapshot {
+        private final Map<String, String> configurationStamps = newHashMap();
+        private final Map<String, String> templateStamps = newHashMap();
+
+        Snapshot(ConfigurationSource source) {
+            for (File file : source.getConfigurationFiles()) {
+                stamp(configurationStamps, file);
+            }
+            for (File packRoot : packLoader.getLocalPackRoots()) {
+                // templates are in the "celerio" folder, the pack descriptor in the "META-INF" folder
+                stamp(configurationStamps, packRoot.isDirectory() ? new File(packRoot, LOCAL_CELERIO_PACK) : packRoot);
+            }
+            templateStamps.putAll(packLoader.getLocalTemplateStamps());
+        }
+
+        private void stamp(Map<String, String> stamps, File file) {
+            stamps.put(file.getAbsolutePath(), file.exists() ? file.lastModified() + "/" + file.length() : "missing");
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Snapshot && configurationStamps.equals(((Snapshot) other).configurationStamps)
+                    && templateStamps.equals(((Snapshot) other).templateStamps);
+        }
+
+        @Override
+        public int hashCode() {
+            return configurationStamps.hashCode() * 31 + templateStamps.hashCode();
+        }
+    }
+}
\ No newline at end of file
@@ -23,6 +23,7 @@ import com.jaxio.celerio.configuration.database.Metadata;
 import com.jaxio.celerio.factory.ProjectFactory;
 import com.jaxio.celerio.template.TemplateEngine;
 import com.jaxio.celerio.template.pack.PackLoader;
+import com.jaxio.celerio.util.GenerationMetrics;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,6 +45,8 @@ public class CelerioProducer {
     private TemplateEngine templateEngine;
     @Autowired
     private PackLoader packLoader;
+    @Autowired
+    private GenerationMetrics generationMetrics;
     @Value("${pom.version:unknown}")
     private String version;
     @Value("${release.info:unknown}")
@@ -62,10 +65,17 @@ public class CelerioProducer {
 
     public void produce(boolean bootstrapOnly) throws Exception {
         Assert.notNull(config.getOutputResult(), "Output result is not defined");
+        generationMetrics.reset();
         config.getOutputResult().open();
-        projectFactory.init();
-        templateEngine.produce(config.getProject(), bootstrapOnly);
-        welcome();
+        try {
+            projectFactory.init();
+            templateEngine.produce(config.getProject(), bootstrapOnly);
+            generationMetrics.report();
+            welcome();
+        } catch (Exception e) {
+            templateEngine.closeAfterFailure();
+            throw e;
+        }
         config.getOutputResult().close();
     }
 
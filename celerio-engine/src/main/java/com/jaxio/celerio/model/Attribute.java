@@ -171,8 +171,10 @@ public class Attribute extends AbstractNamer implements Named, Map<String, Objec
 
     public Labels getLabels() {
         if (labels == null) {
-            labels = new Labels(getColumnConfig().getLabels());
-            labels.setFallBack(fallBack(getColumnConfig().getLabel(), toReadableLabel(getColumnConfig().getFieldName())));
+            // assigned once complete, templates may ask for it from several threads
+            Labels result = new Labels(getColumnConfig().getLabels());
+            result.setFallBack(fallBack(getColumnConfig().getLabel(), toReadableLabel(getColumnConfig().getFieldName())));
+            labels = result;
         }
         return labels;
     }
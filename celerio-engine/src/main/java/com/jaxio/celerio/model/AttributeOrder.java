@@ -16,11 +16,33 @@
 
 package com.jaxio.celerio.model;
 
-public enum AttributeOrder {
-    DISPLAY("displayOrderAsString"),
-    FORM_FIELD("formFieldOrderAsString"),
-    SEARCH_FIELD("searchFieldOrderAsString"),
-    SEARCH_RESULT("searchResultOrderAsString");
+import com.jaxio.celerio.util.support.SortKey;
+
+public enum AttributeOrder implements SortKey<Attribute> {
+    DISPLAY("displayOrderAsString") {
+        @Override
+        public String getSortKey(Attribute attribute) {
+            return attribute.getDisplayOrderAsString();
+        }
+    },
+    FORM_FIELD("formFieldOrderAsString") {
+        @Override
+        public String getSortKey(Attribute attribute) {
+            return attribute.getFormFieldOrderAsString();
+        }
+    },
+    SEARCH_FIELD("searchFieldOrderAsString") {
+        @Override
+        public String getSortKey(Attribute attribute) {
+            return attribute.getSearchFieldOrderAsString();
+        }
+    },
+    SEARCH_RESULT("searchResultOrderAsString") {
+        @Override
+        public String getSortKey(Attribute attribute) {
+            return attribute.getSearchResultOrderAsString();
+        }
+    };
 
     private String attributeSortProperty;
 
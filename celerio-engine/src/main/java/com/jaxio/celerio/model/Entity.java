@@ -43,6 +43,7 @@ import com.jaxio.celerio.util.Named;
 import com.jaxio.celerio.util.support.CurrentAndFlatListHolder;
 import com.jaxio.celerio.util.support.HierarchicalSupport;
 import com.jaxio.celerio.util.support.ListGetter;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -230,6 +231,13 @@ public class Entity implements Hierarchical<Entity>, Named, Map<String, Object>
     private EntityAttributes labelAttributes = newEntityAttributes(IS_LABEL);
     private EntityAttributes printerAttributes = new EntityAttributes(this, PRINTER_ATTRIBUTES);
     private EntityAttributes stringPrinterAttributes = new EntityAttributes(this, STRING_PRINTER_ATTRIBUTES);
+    // memoized once the project is frozen, unmodifiable as they are shared by every caller and the generation workers
+    @Getter(value = AccessLevel.NONE)
+    private List<Attribute> frozenPrinterAttributes;
+    @Getter(value = AccessLevel.NONE)
+    private List<Attribute> frozenStringPrinterAttributes;
+    @Getter(value = AccessLevel.NONE)
+    private List<Attribute> frozenIndexedPrinterAttributes;
     private EntityAttributes indexedPrinterAttributes = new EntityAttributes(this, INDEXED_PRINTER_ATTRIBUTES);
     private EntityAttributes localizableDisplayStringAttributes = new EntityAttributes(this, LOCALIZABLE_TO_DISPLAY_STRING_ATTRIBUTES);
     private EntityAttributes versionAttributes = newEntityAttributes(VERSION);
@@ -482,7 +490,30 @@ public class Entity implements Hierarchical<Entity>, Named, Map<String, Object>
         return getEntityConfig().getCommentAsJavadoc();
     }
 
+    /**
+     * Computes the derived values that templates ask for over and over, before they run on several threads, see
+     * {@link Project#freeze()}.
+     */
+    void freeze() {
+        frozenPrinterAttributes = printerAttributes();
+        frozenStringPrinterAttributes = stringPrinterAttributes();
+        frozenIndexedPrinterAttributes = indexedPrinterAttributes();
+        isAuditLog();
+        isSavedSearch();
+        isEntityAudited();
+        getLabels();
+        for (Attribute attribute : attributes.getList()) {
+            attribute.getLabels();
+            if (attribute.isEnum()) {
+                attribute.getEnumType();
+            }
+        }
+    }
+
     public List<Attribute> printerAttributes() {
+        if (frozenPrinterAttributes != null) {
+            return frozenPrinterAttributes;
+        }
         List<Attribute> result = newArrayList();
 
         // configuration has priority:
@@ -573,6 +604,9 @@ public class Entity implements Hierarchical<Entity>, Named, Map<String, Object>
     }
 
     public List<Attribute> stringPrinterAttributes() {
+        if (frozenStringPrinterAttributes != null) {
+            return frozenStringPrinterAttributes;
+        }
         List<Attribute> result = newArrayList();
         for (Attribute attribute : printerAttributes()) {
             if (attribute.isString()) {
@@ -583,6 +617,9 @@ public class Entity implements Hierarchical<Entity>, Named, Map<String, Object>
     }
 
     public List<Attribute> indexedPrinterAttributes() {
+        if (frozenIndexedPrinterAttributes != null) {
+            return frozenIndexedPrinterAttributes;
+        }
         List<Attribute> result = newArrayList();
         for (Attribute attribute : printerAttributes()) {
             if (attribute.isIndexed()) {
@@ -856,8 +893,10 @@ public class Entity implements Hierarchical<Entity>, Named, Map<String, Object>
 
     public Labels getLabels() {
         if (labels == null) {
-            labels = new Labels(entityConfig.getLabels());
-            labels.setFallBack(fallBack(entityConfig.getLabel(), toReadableLabel(entityConfig.getEntityName())));
+            // assigned once complete, templates may ask for it from several threads
+            Labels result = new Labels(entityConfig.getLabels());
+            result.setFallBack(fallBack(entityConfig.getLabel(), toReadableLabel(entityConfig.getEntityName())));
+            labels = result;
         }
         return labels;
     }
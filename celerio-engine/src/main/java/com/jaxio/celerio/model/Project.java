@@ -25,6 +25,7 @@ import com.jaxio.celerio.convention.ClassType;
 import com.jaxio.celerio.convention.GeneratedPackage;
 import com.jaxio.celerio.model.support.EntityPredicates;
 import com.jaxio.celerio.util.support.SimpleListHolder;
+import com.jaxio.celerio.util.support.SortKey;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +36,7 @@ import org.springframework.util.Assert;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import static com.google.common.collect.Iterables.any;
@@ -43,7 +45,9 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 import static com.jaxio.celerio.model.support.EntityPredicates.*;
+import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
 
 @Slf4j
 @Getter
@@ -64,6 +68,9 @@ public class Project implements Map<String, Object> {
     private SimpleListHolder<Entity> withoutManyToManyJoinEntities = newEntityHolder(NOT_MANY_TO_MANY_JOIN);
     private SimpleListHolder<Entity> search = newEntityHolder(SEARCH);
     private Map<String, Object> spis = newHashMap();
+    // derived views, computed once the model is built, see freeze()
+    @Getter(value = AccessLevel.NONE)
+    private volatile Snapshot snapshot;
 
     public Project() {
     }
@@ -77,7 +84,7 @@ public class Project implements Map<String, Object> {
     }
 
     private SimpleListHolder<Entity> newEntityHolder(Predicate<Entity> predicate) {
-        return new SimpleListHolder<Entity>(currentEntities, predicate, "name");
+        return new SimpleListHolder<Entity>(currentEntities, predicate, SortKey.NAME);
     }
 
     public void reset() {
@@ -86,9 +93,29 @@ public class Project implements Map<String, Object> {
         currentEntitiesBySchemaAndTableName.clear();
         currentEntitiesByName.clear();
         entities = new SimpleListHolder<Entity>(currentEntities);
+        snapshot = null;
+    }
+
+    /**
+     * Computes once the views derived from the entities, which templates would otherwise compute again on each call.
+     * The model must not change afterwards: the snapshot is read concurrently by the generation workers.
+     */
+    public void freeze() {
+        for (Entity entity : currentEntities) {
+            entity.freeze();
+        }
+        for (SimpleListHolder<Entity> holder : asList(entities, rootEntities, entitiesWithFiles, virtuals, views, tables, withoutManyToManyJoinEntities, search)) {
+            holder.getList();
+        }
+        snapshot = new Snapshot(this);
+    }
+
+    public boolean isFrozen() {
+        return snapshot != null;
     }
 
     public void addEntity(Entity entity) {
+        Assert.isTrue(!isFrozen(), "The project is frozen, cannot add the entity " + entity.getName());
         if (log.isDebugEnabled()) {
             log.debug("Adding entity entityName=" + entity.getName() + " tableName=" + entity.getTableName());
         }
@@ -153,38 +180,45 @@ public class Project implements Map<String, Object> {
     }
 
     public boolean isAccountEntityPresent() {
-        return any(currentEntities, ACCOUNT);
+        return snapshot != null ? snapshot.accountEntity != null : any(currentEntities, ACCOUNT);
     }
 
     public Entity getAccountEntity() {
-        return find(currentEntities, ACCOUNT);
+        return snapshot != null ? found(snapshot.accountEntity) : find(currentEntities, ACCOUNT);
     }
 
     public boolean isRoleEntityPresent() {
-        return any(currentEntities, ROLE);
+        return snapshot != null ? snapshot.roleEntity != null : any(currentEntities, ROLE);
     }
 
     public Entity getRoleEntity() {
-        return find(currentEntities, ROLE);
+        return snapshot != null ? found(snapshot.roleEntity) : find(currentEntities, ROLE);
     }
 
     public boolean isAuditLogPresent() {
-        return any(currentEntities, AUDIT_LOG);
+        return snapshot != null ? snapshot.auditLog != null : any(currentEntities, AUDIT_LOG);
     }
 
     public Entity getAuditLog() {
-        return find(currentEntities, AUDIT_LOG);
+        return snapshot != null ? found(snapshot.auditLog) : find(currentEntities, AUDIT_LOG);
     }
 
     public boolean isSavedSearchPresent() {
-        return any(currentEntities, SAVED_SEARCH);
+        return snapshot != null ? snapshot.savedSearch != null : any(currentEntities, SAVED_SEARCH);
     }
 
     public Entity getSavedSearch() {
-        return find(currentEntities, SAVED_SEARCH);
+        return snapshot != null ? found(snapshot.savedSearch) : find(currentEntities, SAVED_SEARCH);
     }
 
     public String getPackagesToScan() {
+        if (snapshot != null) {
+            return snapshot.packagesToScan;
+        }
+        return computePackagesToScan();
+    }
+
+    private String computePackagesToScan() {
         Set<String> packages = newHashSet();
         for (Entity entity : entities.getList()) {
             packages.add(entity.getEntityConfig().getRootPackage());
@@ -205,6 +239,13 @@ public class Project implements Map<String, Object> {
 
     // TODO: we should have a central place for enum types
     public Set<EnumType> getEnumTypes() {
+        if (snapshot != null) {
+            return snapshot.enumTypes;
+        }
+        return computeEnumTypes();
+    }
+
+    private Set<EnumType> computeEnumTypes() {
         Set<EnumType> ret = Sets.newTreeSet();
         for (Entity entity : getEntities().getList()) {
             for (Attribute attribute : entity.getAttributes().getList()) {
@@ -217,6 +258,13 @@ public class Project implements Map<String, Object> {
     }
 
     public boolean isDefaultSchema() {
+        if (snapshot != null) {
+            return snapshot.defaultSchema;
+        }
+        return computeDefaultSchema();
+    }
+
+    private boolean computeDefaultSchema() {
         if (!hasTableNames("ADDRESS", "ACCOUNT", "ROLE", "ACCOUNT_ROLE", "DOCUMENT", "BOOK", "MORE_TYPES_DEMO", "LEGACY")) {
             return false;
         }
@@ -246,7 +294,15 @@ public class Project implements Map<String, Object> {
     }
 
     public boolean getHibernateSearchUsed() {
-        return any(currentEntities, EntityPredicates.IS_INDEXED);
+        return snapshot != null ? snapshot.hibernateSearchUsed : any(currentEntities, EntityPredicates.IS_INDEXED);
+    }
+
+    private static Entity found(Entity entity) {
+        if (entity == null) {
+            // as Iterables.find
+            throw new NoSuchElementException();
+        }
+        return entity;
     }
 
     /**
@@ -339,4 +395,27 @@ public class Project implements Map<String, Object> {
     public Collection<Object> values() {
         return spis.values();
     }
-}
+
+    private static final class Snapshot {
+        private final Set<EnumType> enumTypes;
+        private final Entity accountEntity;
+        private final Entity roleEntity;
+        private final Entity auditLog;
+        private final Entity savedSearch;
+        private final boolean hibernateSearchUsed;
+        private final boolean defaultSchema;
+        private final String packagesToScan;
+
+        Snapshot(Project project) {
+            List<Entity> entities = project.currentEntities;
+            enumTypes = unmodifiableSet(project.computeEnumTypes());
+            accountEntity = find(entities, ACCOUNT, null);
+            roleEntity = find(entities, ROLE, null);
+            auditLog = find(entities, AUDIT_LOG, null);
+            savedSearch = find(entities, SAVED_SEARCH, null);
+            hibernateSearchUsed = any(entities, EntityPredicates.IS_INDEXED);
+            defaultSchema = project.computeDefaultSchema();
+            packagesToScan = project.computePackagesToScan();
+        }
+    }
+}
\ No newline at end of file
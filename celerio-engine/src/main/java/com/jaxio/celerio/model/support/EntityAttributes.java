@@ -38,8 +38,7 @@ public class EntityAttributes extends CurrentAndFlatListHolder<Attribute, Entity
 
     public EntityAttributes(Entity entity, ListGetter<Attribute, Entity> listGetter, AttributeOrder attributeOrder) {
         super(entity, listGetter);
-        // watch out: the target property must be a String.
-        setSortProperty(attributeOrder.attributeSortProperty());
+        setSortKey(attributeOrder);
     }
 
     public EntityAttributes(Entity entity, ListGetter<Attribute, Entity> listGetter, Predicate<Attribute> predicate) {
@@ -48,6 +47,6 @@ public class EntityAttributes extends CurrentAndFlatListHolder<Attribute, Entity
 
     public EntityAttributes(Entity entity, ListGetter<Attribute, Entity> listGetter, Predicate<Attribute> predicate,  AttributeOrder attributeOrder) {
         super(entity, listGetter, predicate);
-        setSortProperty(attributeOrder.attributeSortProperty());
+        setSortKey(attributeOrder);
     }
 }
\ No newline at end of file
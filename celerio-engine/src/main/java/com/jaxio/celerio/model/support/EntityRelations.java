@@ -17,11 +17,11 @@
 package com.jaxio.celerio.model.support;
 
 import com.google.common.base.Predicate;
-import com.jaxio.celerio.model.AttributeOrder;
 import com.jaxio.celerio.model.Entity;
 import com.jaxio.celerio.model.Relation;
 import com.jaxio.celerio.util.support.CurrentAndFlatListHolder;
 import com.jaxio.celerio.util.support.ListGetter;
+import com.jaxio.celerio.util.support.SortKey;
 
 /**
  * Enable you to retrieve {@link Relation} present in the entity's ancestors,
@@ -31,6 +31,12 @@ import com.jaxio.celerio.util.support.ListGetter;
  * It is intended to reduce the definition of {@link Relation} lists in the entity object.
  */
 public class EntityRelations extends CurrentAndFlatListHolder<Relation, Entity> {
+    private static final SortKey<Relation> DISPLAY_ORDER = new SortKey<Relation>() {
+        @Override
+        public String getSortKey(Relation relation) {
+            return relation.getDisplayOrderAsString();
+        }
+    };
 
     public EntityRelations(Entity entity, ListGetter<Relation, Entity> listGetter) {
         super(entity, listGetter);
@@ -38,6 +44,6 @@ public class EntityRelations extends CurrentAndFlatListHolder<Relation, Entity>
 
     public EntityRelations(Entity entity, ListGetter<Relation, Entity> listGetter, Predicate<Relation> predicate) {
         super(entity, listGetter, predicate);
-        setSortProperty(AttributeOrder.DISPLAY.attributeSortProperty());
+        setSortKey(DISPLAY_ORDER);
     }
 }
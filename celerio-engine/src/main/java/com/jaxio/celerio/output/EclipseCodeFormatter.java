@@ -16,6 +16,11 @@
 
 package com.jaxio.celerio.output;
 
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import com.jaxio.celerio.Config;
 import com.jaxio.celerio.configuration.EclipseFormatter;
 import com.jaxio.celerio.configuration.FormatterEnum;
@@ -33,20 +38,43 @@ import org.eclipse.text.edits.TextEdit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.collect.Maps.newHashMap;
+import static org.apache.commons.io.IOUtils.closeQuietly;
 
+/**
+ * Formats the generated java files. As the Eclipse formatters are not thread safe, each formatting borrows a formatter from a pool that grows
+ * up to the number of threads formatting at the same time.
+ * <p>
+ * Between {@link #open(File)} and {@link #close()}, the result of each formatting is remembered by hash in ".celerio/formatted.idx" so that an unchanged
+ * source whose previously formatted file is still intact is not formatted again.
+ */
 @Service
 @Slf4j
 public class EclipseCodeFormatter {
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    private static final int INDEX_VERSION = 1;
+
     private Map<String, String> options;
-    private CodeFormatter codeFormatter;
+    private HashCode optionsHash;
+    private BlockingQueue<CodeFormatter> idleCodeFormatters = new LinkedBlockingQueue<CodeFormatter>();
     private FormatterEnum formatterChoice;
 
+    private File indexFile;
+    private Map<HashCode, HashCode> previousFormattedHashes = newHashMap();
+    private Map<HashCode, HashCode> formattedHashes = new ConcurrentHashMap<HashCode, HashCode>();
+    private ConcurrentHashMap<String, FormattingTime> formattingTimes = new ConcurrentHashMap<String, FormattingTime>();
+
     @Autowired
     public EclipseCodeFormatter(Config config, EclipseProfilesLoader loader) {
         EclipseFormatter eclipseFormatter = config.getCelerio().getConfiguration().getConventions().getEclipseFormatter();
@@ -96,15 +124,165 @@ public class EclipseCodeFormatter {
             options.put(JavaCore.FORMATTER_TAB_SIZE, "4");
         }
 
+        optionsHash = HASH.hashString(new TreeMap<String, String>(options).toString(), Charsets.UTF_8);
+
         // instanciate the default code formatter with the given options
-        codeFormatter = ToolFactory.createCodeFormatter(options);
+        idleCodeFormatters.clear();
+        idleCodeFormatters.offer(ToolFactory.createCodeFormatter(options));
     }
 
+    /**
+     * Formats the passed java source.
+     */
     public String format(String source) {
         if (formatterChoice == FormatterEnum.NONE) {
             return source;
         }
 
+        CodeFormatter codeFormatter = idleCodeFormatters.poll();
+        if (codeFormatter == null) {
+            codeFormatter = ToolFactory.createCodeFormatter(options);
+        }
+        try {
+            return format(codeFormatter, source);
+        } finally {
+            idleCodeFormatters.offer(codeFormatter);
+        }
+    }
+
+    /**
+     * Formats the passed java source, unless the given file contains the result of a previous formatting of the same source with the same settings,
+     * in which case its content is returned. The time spent is accounted to the given pack.
+     */
+    public String format(String source, File lastFormattedFile, String packName) {
+        if (formatterChoice == FormatterEnum.NONE) {
+            return source;
+        }
+
+        long start = System.nanoTime();
+        HashCode sourceHash = HASH.newHasher().putBytes(optionsHash.asBytes()).putString(source, Charsets.UTF_8).hash();
+        HashCode formattedHash = formattedHashes.get(sourceHash);
+        if (formattedHash == null) {
+            formattedHash = previousFormattedHashes.get(sourceHash);
+        }
+
+        String formatted = formattedHash == null ? null : readIfSameHash(lastFormattedFile, formattedHash);
+        boolean skipped = formatted != null;
+        if (!skipped) {
+            formatted = format(source);
+            formattedHash = HASH.hashString(formatted, Charsets.UTF_8);
+        }
+        formattedHashes.put(sourceHash, formattedHash);
+
+        getFormattingTime(packName).add(System.nanoTime() - start, skipped);
+        return formatted;
+    }
+
+    private String readIfSameHash(File file, HashCode expectedHash) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            byte[] content = Files.toByteArray(file);
+            return HASH.hashBytes(content).equals(expectedHash) ? new String(content, Charsets.UTF_8) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private FormattingTime getFormattingTime(String packName) {
+        FormattingTime formattingTime = formattingTimes.get(packName);
+        if (formattingTime == null) {
+            formattingTime = new FormattingTime();
+            FormattingTime previous = formattingTimes.putIfAbsent(packName, formattingTime);
+            if (previous != null) {
+                formattingTime = previous;
+            }
+        }
+        return formattingTime;
+    }
+
+    /**
+     * @return the number of java files of the given pack formatted since {@link #open(File)}.
+     */
+    int getFormattedCount(String packName) {
+        FormattingTime formattingTime = formattingTimes.get(packName);
+        return formattingTime == null ? 0 : formattingTime.formatted.get();
+    }
+
+    /**
+     * @return the number of java files of the given pack left unchanged since {@link #open(File)}, as their previously formatted file was intact.
+     */
+    int getUnchangedCount(String packName) {
+        FormattingTime formattingTime = formattingTimes.get(packName);
+        return formattingTime == null ? 0 : formattingTime.skipped.get();
+    }
+
+    /**
+     * Loads the hashes of the previous formattings done for the given project directory, null to keep them in memory only.
+     */
+    public void open(File projectDir) {
+        formattedHashes.clear();
+        formattingTimes.clear();
+        previousFormattedHashes = newHashMap();
+        indexFile = projectDir == null ? null : new File(projectDir, ".celerio" + File.separatorChar + "formatted.idx");
+        if (indexFile == null || !indexFile.exists()) {
+            return;
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            if (in.readInt() != INDEX_VERSION) {
+                return;
+            }
+            int nbHashes = in.readInt();
+            for (int i = 0; i < nbHashes; i++) {
+                previousFormattedHashes.put(readHash(in), readHash(in));
+            }
+        } catch (IOException e) {
+            log.warn("Could not read " + indexFile.getAbsolutePath() + ", all java files will be formatted: " + e.getMessage());
+            previousFormattedHashes = newHashMap();
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Logs the formatting time of each pack and saves the hashes of the formattings done since {@link #open(File)}.
+     */
+    public void close() throws IOException {
+        for (Map.Entry<String, FormattingTime> entry : new TreeMap<String, FormattingTime>(formattingTimes).entrySet()) {
+            log.info("[" + entry.getKey() + "] java formatting: " + entry.getValue());
+        }
+
+        if (indexFile != null && !formattedHashes.isEmpty()) {
+            indexFile.getParentFile().mkdirs();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+            try {
+                out.writeInt(INDEX_VERSION);
+                out.writeInt(formattedHashes.size());
+                for (Map.Entry<HashCode, HashCode> entry : formattedHashes.entrySet()) {
+                    out.write(entry.getKey().asBytes());
+                    out.write(entry.getValue().asBytes());
+                }
+            } finally {
+                closeQuietly(out);
+            }
+        }
+
+        indexFile = null;
+        previousFormattedHashes = newHashMap();
+        formattedHashes.clear();
+    }
+
+    private HashCode readHash(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[HASH.bits() / 8];
+        in.readFully(bytes);
+        return HashCode.fromBytes(bytes);
+    }
+
+    private String format(CodeFormatter codeFormatter, String source) {
         final TextEdit edit = codeFormatter.format(CodeFormatter.K_COMPILATION_UNIT, // format a compilation unit
                 source, // source to format
                 0, // starting position
@@ -126,4 +304,20 @@ public class EclipseCodeFormatter {
         // display the formatted string on the System out
         return document.get();
     }
+
+    private static class FormattingTime {
+        private AtomicLong nanos = new AtomicLong();
+        private AtomicInteger formatted = new AtomicInteger();
+        private AtomicInteger skipped = new AtomicInteger();
+
+        void add(long elapsedNanos, boolean wasSkipped) {
+            nanos.addAndGet(elapsedNanos);
+            (wasSkipped ? skipped : formatted).incrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+            return formatted + " files formatted, " + skipped + " unchanged, " + TimeUnit.NANOSECONDS.toMillis(nanos.get()) + " ms";
+        }
+    }
 }
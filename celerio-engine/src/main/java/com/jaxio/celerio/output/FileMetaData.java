@@ -16,30 +16,50 @@
 
 package com.jaxio.celerio.output;
 
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import com.jaxio.celerio.template.TemplateEngine;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
 import org.springframework.util.Assert;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 
 public class FileMetaData implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final HashFunction CONTENT_HASH = Hashing.crc32c();
 
     private String pack;
     private String template;
     private long size;
     private String path;
     private long lastMod;
+    /**
+     * CRC32C of the file content, null for files tracked before content hashes were recorded.
+     */
+    private Integer contentHash;
 
     /**
      * @param pack
      * @param template
-     * @param fileRelativePath relative to the project dir. That is the dir containing ".celerio/generated.xml"
+     * @param fileRelativePath relative to the project dir. That is the dir containing ".celerio/generated.idx"
      * @param file
      */
     public FileMetaData(TemplatePack pack, Template template, String fileRelativePath, File file) {
+        this(pack, template, fileRelativePath, file, hash(file));
+    }
+
+    /**
+     * @param content the bytes that were just written to the file, used to compute the content hash without reading the file again.
+     */
+    public FileMetaData(TemplatePack pack, Template template, String fileRelativePath, File file, byte[] content) {
+        this(pack, template, fileRelativePath, file, contentHash(content));
+    }
+
+    private FileMetaData(TemplatePack pack, Template template, String fileRelativePath, File file, Integer contentHash) {
         Assert.notNull(fileRelativePath, "When creating a new FileMetaData, you must pass a relativePath as it is used in equals comparison");
         Assert.isTrue(file.exists(), "When creating a new FileMetaData, you must be sure that the passed file exists.");
         this.pack = pack == null ? "" : pack.getName();
@@ -47,6 +67,55 @@ public class FileMetaData implements Serializable {
         this.size = file.length();
         this.path = fileRelativePath;
         this.lastMod = file.lastModified();
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Used when reading the file tracker index.
+     */
+    FileMetaData(String pack, String template, String fileRelativePath, long size, long lastMod, Integer contentHash) {
+        this.pack = pack;
+        this.template = template;
+        this.path = fileRelativePath;
+        this.size = size;
+        this.lastMod = lastMod;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * @return the hash kept for the given content.
+     */
+    static int contentHash(byte[] content) {
+        return CONTENT_HASH.hashBytes(content).asInt();
+    }
+
+    private static Integer hash(File file) {
+        try {
+            return Files.hash(file, CONTENT_HASH).asInt();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Whether the given file still has the content that was tracked. The content is read only when the size is the same but the last modification
+     * date differs, for example after a checkout or a copy. Files tracked without content hash rely on their last modification date only.
+     */
+    public boolean isUnchanged(File file) {
+        if (!file.exists() || file.length() != size) {
+            return false;
+        }
+        if (file.lastModified() == lastMod) {
+            return true;
+        }
+        return contentHash != null && contentHash.equals(hash(file));
+    }
+
+    /**
+     * @return a copy of this file meta data having the content hash of the given file, used to migrate entries tracked without content hash.
+     */
+    FileMetaData withContentHash(File file) {
+        return new FileMetaData(pack, template, path, size, lastMod, hash(file));
     }
 
     @Override
@@ -71,6 +140,18 @@ public class FileMetaData implements Serializable {
         return lastMod;
     }
 
+    public Integer getContentHash() {
+        return contentHash;
+    }
+
+    String getPack() {
+        return pack;
+    }
+
+    String getTemplate() {
+        return template;
+    }
+
     public String getFileRelativePath() {
         return path;
     }
@@ -89,6 +170,6 @@ public class FileMetaData implements Serializable {
 
     @Override
     final public String toString() {
-        return path + " " + size + " " + lastMod;
+        return path + " " + size + " " + contentHash;
     }
 }
\ No newline at end of file
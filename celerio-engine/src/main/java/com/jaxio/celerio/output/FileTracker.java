@@ -24,10 +24,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.AntPathMatcher;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -48,7 +45,16 @@ public class FileTracker {
 
     private AntPathMatcher antPathMatcher = new AntPathMatcher();
 
+    private static final int INDEX_VERSION = 1;
+
     private String getFilename() {
+        return generatedFileLocation + File.separatorChar + "generated.idx";
+    }
+
+    /**
+     * The XStream file used before the binary index, migrated on first load and deleted on save.
+     */
+    private String getLegacyFilename() {
         return generatedFileLocation + File.separatorChar + "generated.xml";
     }
 
@@ -62,34 +68,105 @@ public class FileTracker {
         }
     }
 
-    @SuppressWarnings("unchecked")
     public HashMap<String, FileMetaData> loadFromProjectDir(File projectDir) throws IOException {
-        File xmlFileMetaDatas = new File(projectDir, getFilename());
+        File indexFileMetaDatas = new File(projectDir, getFilename());
 
-        if (!xmlFileMetaDatas.exists()) {
-            info("File Tracker Metadata not found: " + xmlFileMetaDatas.getAbsolutePath());
+        if (!indexFileMetaDatas.exists()) {
+            File xmlFileMetaDatas = new File(projectDir, getLegacyFilename());
+            if (xmlFileMetaDatas.exists()) {
+                return migrateFromXml(xmlFileMetaDatas, projectDir);
+            }
+            info("File Tracker Metadata not found: " + indexFileMetaDatas.getAbsolutePath());
             return newHashMap();
         }
 
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFileMetaDatas)));
+        try {
+            int version = in.readInt();
+            if (version != INDEX_VERSION) {
+                info("Ignoring File Tracker Metadata of unknown version " + version + ": " + indexFileMetaDatas.getAbsolutePath());
+                return newHashMap();
+            }
+
+            int nbFiles = in.readInt();
+            HashMap<String, FileMetaData> fileMetaDatas = new HashMap<String, FileMetaData>(nbFiles * 2);
+            for (int i = 0; i < nbFiles; i++) {
+                String path = in.readUTF();
+                String pack = in.readUTF();
+                String template = in.readUTF();
+                long size = in.readLong();
+                long lastMod = in.readLong();
+                Integer contentHash = in.readBoolean() ? in.readInt() : null;
+                fileMetaDatas.put(path, new FileMetaData(pack, template, path, size, lastMod, contentHash));
+            }
+            return fileMetaDatas;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Files still having the size and last modification date recorded in the XML file are assumed to be as generated and get their content hash,
+     * the others keep being considered as potentially modified by the user.
+     */
+    @SuppressWarnings("unchecked")
+    private HashMap<String, FileMetaData> migrateFromXml(File xmlFileMetaDatas, File projectDir) throws IOException {
+        info("Migrating File Tracker Metadata: " + xmlFileMetaDatas.getAbsolutePath());
+
         XStream xstream = new XStream();
         FileInputStream in = new FileInputStream(xmlFileMetaDatas);
         HashMap<String, FileMetaData> fileMetaDatas = (HashMap<String, FileMetaData>) xstream.fromXML(in);
         closeQuietly(in);
+
+        for (Entry<String, FileMetaData> entry : fileMetaDatas.entrySet()) {
+            File file = new File(projectDir, entry.getKey());
+            if (entry.getValue().getContentHash() == null && entry.getValue().isUnchanged(file)) {
+                entry.setValue(entry.getValue().withContentHash(file));
+            }
+        }
         return fileMetaDatas;
     }
 
     public void saveToProjectDir(HashMap<String, FileMetaData> fileMetaDatas, File projectDir) throws IOException {
-        File xmlFileMetaDatas = new File(projectDir, getFilename());
-        File parent = xmlFileMetaDatas.getParentFile();
+        File indexFileMetaDatas = new File(projectDir, getFilename());
+        File parent = indexFileMetaDatas.getParentFile();
 
         if (parent != null) {
             parent.mkdirs();
         } // else child was for example "."
 
-        XStream xstream = new XStream();
-        FileOutputStream out = new FileOutputStream(xmlFileMetaDatas);
-        xstream.toXML(fileMetaDatas, out);
-        closeQuietly(out);
+        // write next to the index and rename, so an interrupted save does not leave a truncated index
+        File tmpFileMetaDatas = new File(indexFileMetaDatas.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFileMetaDatas)));
+        try {
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(fileMetaDatas.size());
+            for (FileMetaData fileMetaData : fileMetaDatas.values()) {
+                out.writeUTF(fileMetaData.getFileRelativePath());
+                out.writeUTF(fileMetaData.getPack());
+                out.writeUTF(fileMetaData.getTemplate());
+                out.writeLong(fileMetaData.getSize());
+                out.writeLong(fileMetaData.getLastMod());
+                out.writeBoolean(fileMetaData.getContentHash() != null);
+                if (fileMetaData.getContentHash() != null) {
+                    out.writeInt(fileMetaData.getContentHash());
+                }
+            }
+        } finally {
+            closeQuietly(out);
+        }
+
+        if (indexFileMetaDatas.exists() && !indexFileMetaDatas.delete()) {
+            throw new IOException("Could not replace " + indexFileMetaDatas.getAbsolutePath());
+        }
+        if (!tmpFileMetaDatas.renameTo(indexFileMetaDatas)) {
+            throw new IOException("Could not rename " + tmpFileMetaDatas.getAbsolutePath() + " to " + indexFileMetaDatas.getAbsolutePath());
+        }
+
+        File xmlFileMetaDatas = new File(projectDir, getLegacyFilename());
+        if (xmlFileMetaDatas.exists()) {
+            xmlFileMetaDatas.delete();
+        }
     }
 
     public HashSet<FileMetaData> deleteGeneratedFileIfIdentical(File projectDir, List<String> excludedPatterns) throws IOException {
@@ -99,10 +176,10 @@ public class FileTracker {
         HashSet<FileMetaData> deletedFiles = newHashSet();
         HashSet<FileMetaData> notFoundFiles = newHashSet();
 
-        File xmlFileMetaDatas = new File(projectDir, getFilename());
+        File indexFileMetaDatas = new File(projectDir, getFilename());
 
-        if (!xmlFileMetaDatas.exists()) {
-            info("CANNOT FIND FILE TRACKER METADATA " + xmlFileMetaDatas.getAbsolutePath());
+        if (!indexFileMetaDatas.exists() && !new File(projectDir, getLegacyFilename()).exists()) {
+            info("CANNOT FIND FILE TRACKER METADATA " + indexFileMetaDatas.getAbsolutePath());
             return deletedFiles;
         }
 
@@ -125,18 +202,14 @@ public class FileTracker {
                     continue;
                 }
 
-                FileMetaData recentFmd = new FileMetaData(null, null, entry.getKey(), oldFile);
-                // info("recent: " +recentFmd.toString());
-                // info("old: " + oldFmd.toString());
-
-                if (oldFmd.equals(recentFmd)) {
+                if (oldFmd.isUnchanged(oldFile)) {
                     if (mustExcludeFile(relativePath, excludedPatterns)) {
                         info("skip delete (present in excludedFiles): " + entry.getKey());
                     } else {
                         info("delete: " + entry.getKey());
                         oldFile.delete();
                         ioUtil.pruneEmptyDirs(oldFile);
-                        deletedFiles.add(recentFmd);
+                        deletedFiles.add(oldFmd);
                     }
                 } else {
                     info("skip delete (potential user modifications): " + entry.getKey());
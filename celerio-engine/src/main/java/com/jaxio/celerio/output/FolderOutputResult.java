@@ -16,8 +16,10 @@
 
 package com.jaxio.celerio.output;
 
+import com.google.common.base.Function;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
+import com.jaxio.celerio.util.GenerationMetrics;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
@@ -30,8 +32,15 @@ import static com.jaxio.celerio.output.FileUtil.getPathRelativeToBase;
 import static org.apache.commons.io.FilenameUtils.normalize;
 import static org.apache.commons.io.IOUtils.*;
 
+/**
+ * Writes the generated files to a folder. Files are written in the background, see {@link #setWriteThreads(int)}; they
+ * are all on disk once the output result is closed.
+ */
 @Slf4j
 public class FolderOutputResult implements OutputResult {
+    private static final int DEFAULT_WRITE_THREADS = 2;
+    private static final int PENDING_WRITES = 256;
+
     private FileTracker fileTracker;
     private SourceFile userSource;
     private SourceFile generatedSource;
@@ -39,7 +48,14 @@ public class FolderOutputResult implements OutputResult {
 
     private boolean isOpen = false;
     private boolean fileMetaDataSavedOk;
-
+    private int writeThreads = DEFAULT_WRITE_THREADS;
+    private GenerationMetrics generationMetrics;
+    private boolean compareByTrackedHash;
+    private WriteBehindWriter writer;
+    private Thread shutdownHook;
+
+    // also updated by the writer threads
+    private final Object generatedFilesLock = new Object();
     private HashMap<String, FileMetaData> generatedFiles = newHashMap();
     private SCMStatus scmStatus = new SCMStatus(null);
 
@@ -54,8 +70,31 @@ public class FolderOutputResult implements OutputResult {
         this.sameDirectory = userSource.getDirectory().equals(generatedSource.getDirectory());
     }
 
+    /**
+     * @param writeThreads the number of threads writing the files, 0 to write them as they are added. Takes effect on the next open.
+     */
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads;
+    }
+
+    /**
+     * @param generationMetrics where the time spent writing the files is reported, null not to report it. Takes effect on the next open.
+     */
+    public void setGenerationMetrics(GenerationMetrics generationMetrics) {
+        this.generationMetrics = generationMetrics;
+    }
+
+    /**
+     * @param compareByTrackedHash when true, a file generated previously and not modified since is compared to the new content by its tracked
+     *                             CRC32C instead of being read. Faster when most files are identical, but a change of the same size whose
+     *                             CRC32C is the same is not written. Takes effect on the next open.
+     */
+    public void setCompareByTrackedHash(boolean compareByTrackedHash) {
+        this.compareByTrackedHash = compareByTrackedHash;
+    }
+
     @Override
-    public void open() throws IOException {
+    public synchronized void open() throws IOException {
         if (isOpen) {
             return;
         }
@@ -68,7 +107,8 @@ public class FolderOutputResult implements OutputResult {
         // As a result, during the next generation, Celerio thinks the files have
         // been manually modified... So with this hook, hopefully we record
         // on disk whatever was generated before the interruption.
-        Runtime.getRuntime().addShutdownHook(new Thread() {
+        // The hook is removed on close, as a daemon opens the output result again for each generation.
+        shutdownHook = new Thread() {
             public void run() {
                 if (isFileTrackingEnabled() && !fileMetaDataSavedOk) {
                     try {
@@ -79,29 +119,99 @@ public class FolderOutputResult implements OutputResult {
                     }
                 }
             }
-        });
+        };
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
 
         if (isFileTrackingEnabled()) {
             // it is important to keep existing data to handle cases where user generates
             // several times in a raw before cleaning... indeed, the second time he generates
             // the files is not written to disk, as it is identical...
-            generatedFiles = fileTracker.loadFromProjectDir(new File(userSource.getDirectory()));
+            synchronized (generatedFilesLock) {
+                generatedFiles = fileTracker.loadFromProjectDir(new File(userSource.getDirectory()));
+            }
             scmStatus = fileTracker.getSCMStatus(new File(userSource.getDirectory()));
         }
+        trackContentHashes(userSource);
+        trackContentHashes(generatedSource);
+        writer = new WriteBehindWriter(writeThreads, PENDING_WRITES, generationMetrics);
         isOpen = true;
     }
 
+    /**
+     * Lets the source compare the files generated previously by their tracked hash, instead of reading them, when enabled.
+     */
+    private void trackContentHashes(SourceFile source) {
+        if (!(source instanceof FolderSourceFile)) {
+            return;
+        }
+        if (isFileTrackingEnabled() && compareByTrackedHash) {
+            ((FolderSourceFile) source).setTrackedContentHashes(new Function<File, Integer>() {
+                @Override
+                public Integer apply(File file) {
+                    return getTrackedContentHash(file);
+                }
+            });
+        } else {
+            ((FolderSourceFile) source).setTrackedContentHashes(null);
+        }
+    }
+
+    /**
+     * @return the content hash of the given file when it is tracked and has not been modified since, null otherwise.
+     */
+    private Integer getTrackedContentHash(File file) {
+        String userSourceDirectory = new File(userSource.getDirectory()).getAbsolutePath();
+        if (!file.getAbsolutePath().startsWith(userSourceDirectory)) {
+            return null; // not tracked
+        }
+        FileMetaData fileMetaData;
+        synchronized (generatedFilesLock) {
+            fileMetaData = generatedFiles.get(getPathRelativeToBase(file, userSourceDirectory));
+        }
+        if (fileMetaData == null || fileMetaData.getSize() != file.length() || fileMetaData.getLastMod() != file.lastModified()) {
+            return null;
+        }
+        return fileMetaData.getContentHash();
+    }
+
+    /**
+     * Waits for the files added so far to be written.
+     */
+    public synchronized void flush() throws IOException {
+        if (isOpen) {
+            writer.flush();
+        }
+    }
+
     synchronized public void close() throws IOException {
         if (isOpen) {
             isOpen = false;
-            saveFileMetaData();
+            try {
+                writer.close();
+            } finally {
+                // whatever was written is tracked
+                saveFileMetaData();
+                scmStatus.release();
+                removeShutdownHook();
+            }
+        }
+    }
+
+    private void removeShutdownHook() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException shutdownInProgress) {
+            // closed by the hook itself
         }
+        shutdownHook = null;
     }
 
     private void saveFileMetaData() throws IOException {
         if (isFileTrackingEnabled() && !fileMetaDataSavedOk) {
             // remember what was generated by dumping it in a special file.
-            fileTracker.saveToProjectDir(generatedFiles, new File(userSource.getDirectory()));
+            synchronized (generatedFilesLock) {
+                fileTracker.saveToProjectDir(generatedFiles, new File(userSource.getDirectory()));
+            }
             fileMetaDataSavedOk = true;
         }
     }
@@ -118,27 +228,24 @@ public class FolderOutputResult implements OutputResult {
         addContentWithFullPath(contentBytes, fullPath, pack, template);
     }
 
-    private void addContentWithFullPath(byte[] contentBytes, String fullPath, TemplatePack pack, Template template) throws IOException {
+    private synchronized void addContentWithFullPath(final byte[] contentBytes, String fullPath, final TemplatePack pack, final Template template)
+            throws IOException {
         open();
 
-        File targetFile = new File(fullPath);
-
-        // create folder if needed
-        File parent = targetFile.getParentFile();
-        if (parent != null) {
-            parent.mkdirs();
-        } // else child was for example "."
-
-        FileOutputStream targetFileOutput = new FileOutputStream(targetFile);
-
-        write(contentBytes, targetFileOutput);
-        closeQuietly(targetFileOutput);
-
-        // keep track of generated file so we can easily delete it
-        if (isFileTrackingEnabled()) {
-            String filePathRelativeToUserSrc = getPathRelativeToBase(targetFile, userSource.getDirectory());
-            generatedFiles.put(filePathRelativeToUserSrc, new FileMetaData(pack, template, filePathRelativeToUserSrc, targetFile));
-        }
+        final File targetFile = new File(fullPath);
+        writer.write(targetFile, contentBytes, new Runnable() {
+            @Override
+            public void run() {
+                // keep track of generated file so we can easily delete it
+                if (isFileTrackingEnabled()) {
+                    String filePathRelativeToUserSrc = getPathRelativeToBase(targetFile, userSource.getDirectory());
+                    FileMetaData fileMetaData = new FileMetaData(pack, template, filePathRelativeToUserSrc, targetFile, contentBytes);
+                    synchronized (generatedFilesLock) {
+                        generatedFiles.put(filePathRelativeToUserSrc, fileMetaData);
+                    }
+                }
+            }
+        });
     }
 
 
@@ -163,14 +270,17 @@ public class FolderOutputResult implements OutputResult {
     }
 
     /**
-     * @param pathToFile relative path to the file to check. Relative to the folder containing the ".celerio/generated.xml"
+     * @param pathToFile relative path to the file to check. Relative to the folder containing the ".celerio/generated.idx"
      */
     private boolean manualModificationSinceLastGeneration(String pathToFile) {
         if (!isFileTrackingEnabled()) {
             return true; // no risk
         }
 
-        FileMetaData oldFmd = generatedFiles.get(pathToFile);
+        FileMetaData oldFmd;
+        synchronized (generatedFilesLock) {
+            oldFmd = generatedFiles.get(pathToFile);
+        }
         if (oldFmd == null) {
             boolean res = generatedSource.fileExists(pathToFile); // no risk
             if (res && log.isInfoEnabled()) {
@@ -183,10 +293,8 @@ public class FolderOutputResult implements OutputResult {
             return false;
         }
 
-        FileMetaData recentFmd = new FileMetaData(null, null, pathToFile, new File(generatedSource.getFullPath(pathToFile)));
-
-        // not equals means there is a chance that the user manually edited the file between 2 generations.
-        boolean areNotEqual = !oldFmd.equals(recentFmd);
+        // a different content means the user manually edited the file between 2 generations.
+        boolean areNotEqual = !oldFmd.isUnchanged(new File(generatedSource.getFullPath(pathToFile)));
 
         if (areNotEqual && log.isInfoEnabled()) {
             log.info("MANUAL MODIFICATION detected for: " + pathToFile);
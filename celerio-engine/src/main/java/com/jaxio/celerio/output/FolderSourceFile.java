@@ -16,25 +16,35 @@
 
 package com.jaxio.celerio.output;
 
+import com.google.common.base.Function;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Map;
 
 import static com.google.common.collect.Maps.newConcurrentMap;
 import static org.apache.commons.io.FilenameUtils.normalize;
 import static org.apache.commons.io.IOUtils.closeQuietly;
-import static org.apache.commons.io.IOUtils.contentEquals;
 import static org.apache.commons.lang.StringUtils.isBlank;
 
 @Slf4j
 public class FolderSourceFile implements SourceFile {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final ThreadLocal<ByteBuffer> readBuffer = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(READ_BUFFER_SIZE);
+        }
+    };
+
     private Map<String, Boolean> fileExistCache = newConcurrentMap();
     private String directory;
+    private Function<File, Integer> trackedContentHashes;
 
     public FolderSourceFile(String directory) {
         this.directory = normalize(directory);
@@ -45,6 +55,15 @@ public class FolderSourceFile implements SourceFile {
         createFolder(directory);
     }
 
+    /**
+     * @param trackedContentHashes returns the content hash of a file that was generated and not modified since, null when it is not known.
+     *                             When set, such files are compared by hash instead of being read, so a same size change colliding on the
+     *                             hash is taken as identical. Null, the default, to always compare the bytes.
+     */
+    public void setTrackedContentHashes(Function<File, Integer> trackedContentHashes) {
+        this.trackedContentHashes = trackedContentHashes;
+    }
+
     @Override
     public String getDirectory() {
         return directory;
@@ -76,18 +95,52 @@ public class FolderSourceFile implements SourceFile {
         }
     }
 
+    /**
+     * Compares the sizes first, then the tracked content hash if any, and only then reads the existing file, chunk by chunk.
+     */
     @Override
     public boolean isSameContent(String pathToExistingContent, byte[] contentToCompare) throws IOException {
-        InputStream existingContent = null;
-        boolean sameContent = false;
+        File existingFile = new File(getFullPath(pathToExistingContent));
+        if (!existingFile.isFile()) {
+            log.warn("could not read content: " + pathToExistingContent);
+            return contentToCompare.length == 0;
+        }
+        if (existingFile.length() != contentToCompare.length) {
+            return false;
+        }
+
+        Integer trackedContentHash = trackedContentHashes == null ? null : trackedContentHashes.apply(existingFile);
+        if (trackedContentHash != null) {
+            return trackedContentHash.intValue() == FileMetaData.contentHash(contentToCompare);
+        }
+        return sameBytes(existingFile, contentToCompare);
+    }
+
+    private boolean sameBytes(File existingFile, byte[] contentToCompare) throws IOException {
+        ByteBuffer buffer = readBuffer.get();
+        FileInputStream input = new FileInputStream(existingFile);
         try {
-            existingContent = new ByteArrayInputStream(getContent(pathToExistingContent));
-            sameContent = contentEquals(new ByteArrayInputStream(contentToCompare), existingContent);
+            FileChannel channel = input.getChannel();
+            int offset = 0;
+            int read;
+            buffer.clear();
+            while ((read = channel.read(buffer)) >= 0) {
+                if (offset + read > contentToCompare.length) {
+                    return false; // the file grew meanwhile
+                }
+                byte[] chunk = buffer.array();
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] != contentToCompare[offset + i]) {
+                        return false;
+                    }
+                }
+                offset += read;
+                buffer.clear();
+            }
+            return offset == contentToCompare.length;
         } finally {
-            closeQuietly(existingContent);
+            closeQuietly(input);
         }
-
-        return sameContent;
     }
 
     private void createFolder(String folder) {
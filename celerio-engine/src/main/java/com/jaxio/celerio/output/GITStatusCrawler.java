@@ -16,6 +16,10 @@
 
 package com.jaxio.celerio.output;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
@@ -28,12 +32,28 @@ import org.eclipse.jgit.treewalk.TreeWalk;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class GITStatusCrawler {
 
+    private static final int MAX_GIT_DIRS = 16;
+
+    /**
+     * Status per git directory, reused by the next generations as long as HEAD does not change. A status opens its repository only when
+     * asked about a new path and closes it when released or evicted.
+     */
+    private static final Cache<File, GITHeadStatus> statusByGitDir = CacheBuilder.newBuilder() //
+            .maximumSize(MAX_GIT_DIRS) //
+            .removalListener(new RemovalListener<File, GITHeadStatus>() {
+                @Override
+                public void onRemoval(RemovalNotification<File, GITHeadStatus> notification) {
+                    notification.getValue().release();
+                }
+            }) //
+            .build();
+
     public static boolean isProjectUnderGit(File baseDir) {
         File dirHack = new File(baseDir, ".celerio-please-ignore-git");
         if (dirHack.exists()) {
@@ -46,36 +66,111 @@ public class GITStatusCrawler {
 
     public static SCMStatus doStatus(File baseDir) throws RuntimeException {
         try {
-            Map<String, Boolean> map = new HashMap<String, Boolean>();
-
-            FileRepositoryBuilder builder = new FileRepositoryBuilder();
-            Repository repository = builder.setGitDir(new File(baseDir, ".git")).build();
-            TreeWalk treeWalk = new TreeWalk(repository);
-            treeWalk.addTree(getTree(repository));
-            treeWalk.setRecursive(true);
-            while (treeWalk.next()) {
-                map.put(treeWalk.getPathString(), Boolean.TRUE);
+            File gitDir = new File(baseDir, ".git").getCanonicalFile();
+            ObjectId lastCommitId;
+            RevTree tree = null;
+            GITHeadStatus status = statusByGitDir.getIfPresent(gitDir);
+            Repository repository = openRepository(gitDir);
+            try {
+                lastCommitId = repository.resolve(Constants.HEAD);
+                if (lastCommitId != null && (status == null || !status.lastCommitId.equals(lastCommitId))) {
+                    tree = getTree(repository, lastCommitId);
+                }
+            } finally {
+                repository.close();
+            }
+
+            if (lastCommitId == null) {
+                log.info("PROJECT IS UNDER GIT but has no commit yet");
+                return new SCMStatus(null);
+            }
+            if (tree != null) {
+                status = new GITHeadStatus(gitDir, lastCommitId, tree);
+                // releases the status it replaces
+                statusByGitDir.put(gitDir, status);
             }
 
             log.info("-----------------------------------------------------------------------------------------------");
-            log.info("PROJECT IS UNDER GIT: Files tracked by git ({}) won't be overwritten/deleted by Celerio", map.size());
+            log.info("PROJECT IS UNDER GIT: Files tracked by git (HEAD {}) won't be overwritten/deleted by Celerio", lastCommitId.abbreviate(7).name());
             log.info("-----------------------------------------------------------------------------------------------");
 
-            return new SCMStatus(map);
+            return status;
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
     }
 
-    private static RevTree getTree(Repository repository) throws IOException {
-        ObjectId lastCommitId = repository.resolve(Constants.HEAD);
+    private static Repository openRepository(File gitDir) throws IOException {
+        return new FileRepositoryBuilder().setGitDir(gitDir).build();
+    }
 
+    private static RevTree getTree(Repository repository, ObjectId lastCommitId) throws IOException {
         // a RevWalk allows to walk over commits based on some filtering
         RevWalk revWalk = new RevWalk(repository);
-        RevCommit commit = revWalk.parseCommit(lastCommitId);
+        try {
+            RevCommit commit = revWalk.parseCommit(lastCommitId);
+
+            // and using commit's tree find the path
+            return commit.getTree();
+        } finally {
+            revWalk.close();
+        }
+    }
+
+    /**
+     * Looks up the HEAD tree only for the paths Celerio asks about, instead of walking the whole tree upfront.
+     */
+    private static class GITHeadStatus extends SCMStatus {
+        private final File gitDir;
+        private final ObjectId lastCommitId;
+        private final RevTree tree;
+        private final Map<String, Boolean> trackedByPath = new ConcurrentHashMap<String, Boolean>();
+        private Repository repository;
 
-        // and using commit's tree find the path
-        RevTree tree = commit.getTree();
-        return tree;
+        public GITHeadStatus(File gitDir, ObjectId lastCommitId, RevTree tree) {
+            super(null);
+            this.gitDir = gitDir;
+            this.lastCommitId = lastCommitId;
+            this.tree = tree;
+        }
+
+        @Override
+        public boolean isUnderSCM(String relativePath) {
+            Boolean tracked = trackedByPath.get(relativePath);
+            if (tracked == null) {
+                tracked = isInTree(relativePath);
+                trackedByPath.put(relativePath, tracked);
+            }
+            return tracked;
+        }
+
+        private synchronized boolean isInTree(String relativePath) {
+            try {
+                if (repository == null) {
+                    repository = openRepository(gitDir);
+                }
+                TreeWalk treeWalk = TreeWalk.forPath(repository, relativePath, tree);
+                if (treeWalk == null) {
+                    return false;
+                }
+                // only files are tracked, not folders
+                boolean isFile = !treeWalk.isSubtree();
+                treeWalk.close();
+                return isFile;
+            } catch (IllegalArgumentException iae) {
+                // not a valid git path, for example an absolute path
+                return false;
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+        }
+
+        @Override
+        public synchronized void release() {
+            if (repository != null) {
+                repository.close();
+                repository = null;
+            }
+        }
     }
-}
+}
\ No newline at end of file
@@ -16,6 +16,7 @@
 
 package com.jaxio.celerio.output;
 
+import com.jaxio.celerio.util.GenerationMetrics;
 import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -26,11 +27,16 @@ public class OutputResultFactory {
     @Autowired
     FileTracker fileTracker;
 
+    @Autowired
+    GenerationMetrics generationMetrics;
+
     public OutputResult getOutputResult(String userBaseDirectory, String outputDirectory) {
         if (FilenameUtils.isExtension(outputDirectory, new String[]{"zip", "jar"})) {
             return new ZipOutputResult(outputDirectory);
         } else {
-            return new FolderOutputResult(newUserSource(userBaseDirectory), newGeneratedSource(outputDirectory), fileTracker);
+            FolderOutputResult folderOutputResult = new FolderOutputResult(newUserSource(userBaseDirectory), newGeneratedSource(outputDirectory), fileTracker);
+            folderOutputResult.setGenerationMetrics(generationMetrics);
+            return folderOutputResult;
         }
     }
 
@@ -18,6 +18,9 @@ package com.jaxio.celerio.output;
 
 import java.util.Map;
 
+/**
+ * Tells whether a file is tracked by the SCM. Subclasses may query the SCM lazily, path by path, instead of providing the full map of tracked files.
+ */
 public class SCMStatus {
 
     private Map<String, Boolean> map;
@@ -29,4 +32,10 @@ public class SCMStatus {
     public boolean isUnderSCM(String relativePath) {
         return map != null && map.get(relativePath) == Boolean.TRUE;
     }
-}
+
+    /**
+     * Releases the resources held to query the SCM, at the end of a generation. The status remains usable.
+     */
+    public void release() {
+    }
+}
\ No newline at end of file
@@ -17,14 +17,13 @@
 package com.jaxio.celerio.output;
 
 import lombok.extern.slf4j.Slf4j;
-import org.tmatesoft.svn.core.SVNDepth;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
 import org.tmatesoft.svn.core.wc.*;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class SVNStatusCrawler {
@@ -44,54 +43,46 @@ public class SVNStatusCrawler {
         FSRepositoryFactory.setup();
 
         SVNClientManager clientManager = SVNClientManager.newInstance();
-        SVNStatusClient statusClient = clientManager.getStatusClient();
-        Map<String, Boolean> map = new HashMap<String, Boolean>();
-        ISVNStatusHandler handler = new StatusHandler(baseDir, map);
-
-        try {
-            statusClient.doStatus(baseDir,
-                SVNRevision.WORKING,
-                SVNDepth.INFINITY,
-                false /* remote */,
-                true /* reportAll */,
-                false /* includeIgnored */,
-                false /* collectParentExternals */,
-                handler, null);
-        } catch (SVNException svne) {
-            throw new RuntimeException(svne);
-        }
-
-        int counter = 0;
-        for (Boolean b : map.values()) {
-            if (b == Boolean.TRUE) {
-                counter++;
-            }
-        }
 
         log.info("-----------------------------------------------------------------------------------------------");
-        log.info("PROJECT IS UNDER SVN: Files tracked by svn ({}) won't be overwritten/deleted by Celerio", counter);
+        log.info("PROJECT IS UNDER SVN: Files tracked by svn won't be overwritten/deleted by Celerio");
         log.info("-----------------------------------------------------------------------------------------------");
 
-        return new SCMStatus(map);
+        return new SVNWorkingCopyStatus(baseDir, clientManager.getStatusClient());
     }
 
-    private static class StatusHandler implements ISVNStatusHandler {
-        Map<String, Boolean> map;
-        String baseDirAbsolutePath;
-
-        public StatusHandler(File baseDir, Map<String, Boolean> map) {
-            this.map = map;
-            this.baseDirAbsolutePath = baseDir.getAbsolutePath();
+    /**
+     * Queries the working copy only for the paths Celerio asks about, instead of crawling the whole working copy upfront.
+     */
+    private static class SVNWorkingCopyStatus extends SCMStatus {
+        private final File baseDir;
+        private final SVNStatusClient statusClient;
+        private final Map<String, Boolean> trackedByPath = new ConcurrentHashMap<String, Boolean>();
+
+        public SVNWorkingCopyStatus(File baseDir, SVNStatusClient statusClient) {
+            super(null);
+            this.baseDir = baseDir;
+            this.statusClient = statusClient;
         }
 
-        public void handleStatus(SVNStatus status) throws SVNException {
-            String relativePath = FileUtil.getPathRelativeToBase(status.getFile(), baseDirAbsolutePath);
+        @Override
+        public boolean isUnderSCM(String relativePath) {
+            Boolean tracked = trackedByPath.get(relativePath);
+            if (tracked == null) {
+                tracked = isVersioned(relativePath);
+                trackedByPath.put(relativePath, tracked);
+            }
+            return tracked;
+        }
 
-            if (status.getContentsStatus().getID() == SVNStatusType.STATUS_NONE.getID() ||
-                status.getContentsStatus().getID() == SVNStatusType.STATUS_UNVERSIONED.getID()) {
-                map.put(relativePath, Boolean.FALSE);
-            } else {
-                map.put(relativePath, Boolean.TRUE);
+        private synchronized boolean isVersioned(String relativePath) {
+            try {
+                SVNStatus status = statusClient.doStatus(new File(baseDir, relativePath), false /* remote */);
+                return status != null && status.getContentsStatus().getID() != SVNStatusType.STATUS_NONE.getID()
+                        && status.getContentsStatus().getID() != SVNStatusType.STATUS_UNVERSIONED.getID();
+            } catch (SVNException svne) {
+                // not part of a working copy
+                return false;
             }
         }
     }
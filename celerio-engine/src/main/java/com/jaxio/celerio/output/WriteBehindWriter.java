@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.output;
+
+import com.jaxio.celerio.util.GenerationMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes files on dedicated threads so that the generation does not wait for the disk.
+ * <p>
+ * At most <code>capacity</code> files are pending, {@link #write(File, byte[], Runnable)} blocks beyond. A file is
+ * always written by the same thread, so that several writes of the same file are done in order. The parent folders
+ * created are remembered, instead of checking them again for each file. With no thread, files are written by the caller.
+ * <p>
+ * Failures are logged as they happen, the first one is thrown by {@link #flush()}. The time spent writing, on the threads or by the caller,
+ * is reported to the given {@link GenerationMetrics}, if any.
+ */
+@Slf4j
+final class WriteBehindWriter {
+    private static final long IDLE_SECONDS = 5;
+
+    private final ThreadPoolExecutor[] writers;
+    private final int capacity;
+    private final Semaphore pending;
+    private final ConcurrentMap<File, Boolean> createdFolders = new ConcurrentHashMap<File, Boolean>();
+    private final AtomicReference<IOException> firstFailure = new AtomicReference<IOException>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final GenerationMetrics generationMetrics;
+
+    WriteBehindWriter(int threads, int capacity, GenerationMetrics generationMetrics) {
+        this.capacity = capacity;
+        this.generationMetrics = generationMetrics;
+        this.pending = new Semaphore(capacity);
+        this.writers = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            final String name = "celerio-writer-" + (i + 1);
+            writers[i] = new ThreadPoolExecutor(1, 1, IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            // the threads stop once the generation is over
+            writers[i].allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * Writes the given content to the file, then runs afterWrite.
+     */
+    void write(final File file, final byte[] content, final Runnable afterWrite) throws IOException {
+        if (writers.length == 0) {
+            timedWrite(file, content);
+            afterWrite.run();
+            return;
+        }
+
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to write " + file);
+        }
+        try {
+            writers[(file.hashCode() & Integer.MAX_VALUE) % writers.length].execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        timedWrite(file, content);
+                        afterWrite.run();
+                    } catch (IOException e) {
+                        failed(file, e);
+                    } catch (RuntimeException e) {
+                        failed(file, new IOException(e.getMessage(), e));
+                    } finally {
+                        pending.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.release();
+            throw new IOException("Could not write " + file + ", the writer is closed");
+        }
+    }
+
+    /**
+     * Waits for the pending files to be written.
+     *
+     * @throws IOException the first failure since the previous flush, if any.
+     */
+    void flush() throws IOException {
+        if (writers.length > 0) {
+            try {
+                pending.acquire(capacity);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the files to be written");
+            }
+            pending.release(capacity);
+        }
+
+        IOException failure = firstFailure.getAndSet(null);
+        if (failure != null) {
+            int count = failures.getAndSet(0);
+            throw new IOException("Could not write " + count + " file(s), first error: " + failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Writes the pending files and stops the threads.
+     */
+    void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            for (ThreadPoolExecutor writer : writers) {
+                writer.shutdown();
+            }
+        }
+    }
+
+    private void timedWrite(File file, byte[] content) throws IOException {
+        long start = System.nanoTime();
+        try {
+            doWrite(file, content);
+        } finally {
+            if (generationMetrics != null) {
+                generationMetrics.outputWritten(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void doWrite(File file, byte[] content) throws IOException {
+        // create folder if needed
+        File parent = file.getParentFile();
+        if (parent != null && !createdFolders.containsKey(parent)) {
+            parent.mkdirs();
+            createdFolders.put(parent, Boolean.TRUE);
+        } // else child was for example "."
+
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            FileChannel channel = output.getChannel();
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private void failed(File file, IOException e) {
+        log.error("Could not write " + file + ": " + e.getMessage());
+        failures.incrementAndGet();
+        firstFailure.compareAndSet(null, e);
+    }
+}
\ No newline at end of file
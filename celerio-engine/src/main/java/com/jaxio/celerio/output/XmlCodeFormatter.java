@@ -32,6 +32,8 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -43,15 +45,24 @@ import java.io.Writer;
  * eg. <code>
  * String formattedXml = new XmlFormatter().format("&lt;tag&gt;&lt;nested&gt;hello&lt;/nested&gt;&lt;/tag&gt;");
  * </code> http://stackoverflow.com/questions/139076/how-to-pretty-print-xml-from-java
+ * <p>
+ * Documents are streamed through the {@link XmlStreamFormatter}, which produces the same output as the xerces DOM
+ * serializer without building a DOM tree. Note that the serializer line width is fixed once indenting is on,
+ * hence the maximum line width setting is not applied.
  */
 @SuppressWarnings("deprecation")
 @Service
 @Slf4j
 public class XmlCodeFormatter {
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
     @Setter
     @Getter
     XmlFormatter xmlFormatterConfig = new XmlFormatter();
 
+    // null when the documents are all formatted through a DOM
+    private XMLInputFactory xmlInputFactory = XmlStreamFormatter.XML_INPUT_FACTORY;
+
     @Autowired
     public XmlCodeFormatter(Config config) {
         XmlFormatter xf = config.getCelerio().getConfiguration().getConventions().getXmlFormatter();
@@ -60,28 +71,50 @@ public class XmlCodeFormatter {
         }
     }
 
+    /**
+     * Streams the documents with the given factory, provided it reports the CDATA sections.
+     */
+    void setXmlInputFactory(XMLInputFactory xmlInputFactory) {
+        this.xmlInputFactory = XmlStreamFormatter.checkCdataEvents(xmlInputFactory);
+    }
+
     public String format(String unformattedXml) {
         if (!xmlFormatterConfig.isEnableXmlFormatter()) {
             return unformattedXml;
         }
 
         try {
-            final Document document = parseXmlFile(unformattedXml);
-            OutputFormat format = new OutputFormat(document);
-            format.setLineWidth(xmlFormatterConfig.getMaximumLineWidth());
-            format.setIndenting(true);
-            format.setIndent(xmlFormatterConfig.getIndent());
-            format.setLineSeparator(System.getProperty("line.separator"));
-            Writer out = new StringWriter();
-            XMLSerializer serializer = new XMLSerializer(out, format);
-            serializer.serialize(document);
-            return out.toString();
+            try {
+                String formatted = new XmlStreamFormatter(xmlFormatterConfig.getIndent(), LINE_SEPARATOR, xmlInputFactory).format(unformattedXml);
+                if (formatted != null) {
+                    return formatted;
+                }
+            } catch (XMLStreamException e) {
+                // let the DOM parser decide, it reports the errors as before
+            }
+            return formatWithSerializer(unformattedXml);
         } catch (Exception e) {
             log.warn("Could not format the content: " + unformattedXml);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Formats through a DOM, for the few documents the {@link XmlStreamFormatter} does not handle.
+     */
+    String formatWithSerializer(String unformattedXml) throws IOException {
+        final Document document = parseXmlFile(unformattedXml);
+        OutputFormat format = new OutputFormat(document);
+        format.setLineWidth(xmlFormatterConfig.getMaximumLineWidth());
+        format.setIndenting(true);
+        format.setIndent(xmlFormatterConfig.getIndent());
+        format.setLineSeparator(LINE_SEPARATOR);
+        Writer out = new StringWriter();
+        XMLSerializer serializer = new XMLSerializer(out, format);
+        serializer.serialize(document);
+        return out.toString();
+    }
+
     private Document parseXmlFile(String in) {
         try {
             DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
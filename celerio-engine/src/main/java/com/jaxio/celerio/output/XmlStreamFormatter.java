@@ -0,0 +1,667 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.output;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+
+/**
+ * Streaming xml pretty printer.
+ * <p>
+ * Reads the document with StAX and reproduces, event by event, the output of the xerces <code>XMLSerializer</code> used
+ * by {@link XmlCodeFormatter}: same xml declaration, same indentation, attributes sorted by name, whitespace only text
+ * dropped and attributes wrapped on the serializer line width. Only the stack of open elements is kept in memory.
+ * <p>
+ * Documents relying on constructs the DOM serializer renders from its tree (internal DTD subset, unresolved entity
+ * references) are not handled: {@link #format(String)} returns null and the caller must fall back on the DOM. So is every
+ * document when the StAX parser does not report the CDATA sections, as they would be escaped as text.
+ */
+@Slf4j
+final class XmlStreamFormatter {
+    /**
+     * The serializer resets the line width to this value when indenting is turned on.
+     */
+    static final int SERIALIZER_LINE_WIDTH = 72;
+
+    private static final Pattern DOCTYPE = Pattern.compile("<!DOCTYPE\\s+([^\\s>\\[]+)" //
+            + "(?:\\s+PUBLIC\\s+(?:\"([^\"]*)\"|'([^']*)')\\s+(?:\"([^\"]*)\"|'([^']*)')" //
+            + "|\\s+SYSTEM\\s+(?:\"([^\"]*)\"|'([^']*)'))?\\s*>");
+
+    /**
+     * Sun's StAX parser reports CDATA sections as characters unless asked otherwise.
+     */
+    private static final String REPORT_CDATA_EVENT = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    /**
+     * The factory to use, null when the StAX parser found does not report the CDATA sections.
+     */
+    static final XMLInputFactory XML_INPUT_FACTORY = checkCdataEvents(newXmlInputFactory());
+
+    private final int indent;
+    private final String lineSeparator;
+    private final XMLInputFactory xmlInputFactory;
+
+    /**
+     * @param xmlInputFactory a factory checked by {@link #checkCdataEvents(XMLInputFactory)}, null to leave every document to the DOM.
+     */
+    XmlStreamFormatter(int indent, String lineSeparator, XMLInputFactory xmlInputFactory) {
+        this.indent = Math.max(indent, 0);
+        this.lineSeparator = lineSeparator;
+        this.xmlInputFactory = xmlInputFactory;
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        // prevent dtd download...
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+            factory.setProperty(REPORT_CDATA_EVENT, true);
+        }
+        return factory;
+    }
+
+    /**
+     * Parses a CDATA section with the given factory, as not every StAX parser reports them.
+     *
+     * @return the given factory, or null if it reports CDATA sections as characters.
+     */
+    static XMLInputFactory checkCdataEvents(XMLInputFactory factory) {
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(new StringReader("<a><![CDATA[<b/>]]></a>"));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == CDATA) {
+                        return factory;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // reported below
+        }
+        log.warn("The StAX parser " + factory.getClass().getName() + " does not report CDATA sections, xml files are formatted through a DOM");
+        return null;
+    }
+
+    /**
+     * @return the formatted xml, or null if the document uses a construct this formatter does not reproduce.
+     * @throws XMLStreamException if the document is not well formed
+     */
+    String format(String xml) throws XMLStreamException, IOException {
+        if (xmlInputFactory == null) {
+            return null;
+        }
+        StringWriter out = new StringWriter(xml.length() + xml.length() / 2);
+        Serializer serializer = new Serializer(new LinePrinter(out, indent, lineSeparator));
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(xml));
+        try {
+            StringBuilder text = new StringBuilder();
+            // without xml declaration the reader is already positioned on the first event
+            for (int event = reader.getEventType(); event != END_DOCUMENT; event = reader.next()) {
+                if (event == CHARACTERS || event == SPACE) {
+                    // the DOM holds adjacent character chunks in a single text node
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    continue;
+                }
+                if (event == CDATA && reader.getTextLength() == 0) {
+                    // the DOM has no node for an empty CDATA section, the text around it is joined
+                    continue;
+                }
+                if (text.length() > 0) {
+                    serializer.text(text.toString());
+                    text.setLength(0);
+                }
+                switch (event) {
+                case START_DOCUMENT:
+                    break;
+                case START_ELEMENT:
+                    serializer.startElement(qualifiedName(reader.getPrefix(), reader.getLocalName()), attributes(reader));
+                    break;
+                case END_ELEMENT:
+                    serializer.endElement();
+                    break;
+                case CDATA:
+                    serializer.cdata(reader.getText());
+                    break;
+                case COMMENT:
+                    serializer.comment(reader.getText());
+                    break;
+                case PROCESSING_INSTRUCTION:
+                    serializer.processingInstruction(reader.getPITarget(), reader.getPIData());
+                    break;
+                case DTD:
+                    if (!serializer.docType(xml)) {
+                        return null;
+                    }
+                    break;
+                default:
+                    // entity references and declarations
+                    return null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        serializer.endDocument();
+        return out.toString();
+    }
+
+    private static Map<String, String> attributes(XMLStreamReader reader) {
+        Map<String, String> attributes = new TreeMap<String, String>();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            attributes.put(qualifiedName("xmlns", prefix), reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        if (prefix == null || prefix.length() == 0) {
+            return localName;
+        }
+        if (localName == null || localName.length() == 0) {
+            return prefix;
+        }
+        return prefix + ":" + localName;
+    }
+
+    /**
+     * State of an open element, the document being the bottom of the stack.
+     */
+    private static final class ElementState {
+        final String name;
+        final boolean preserveSpace;
+        boolean empty = true;
+        boolean afterElement;
+        boolean afterComment;
+        boolean doCData;
+        boolean inCData;
+
+        ElementState(String name, boolean preserveSpace) {
+            this.name = name;
+            this.preserveSpace = preserveSpace;
+        }
+    }
+
+    /**
+     * Mirrors the xerces <code>XMLSerializer</code> decisions: where lines are broken, when start tags are closed and how
+     * characters are escaped.
+     */
+    private static final class Serializer {
+        private final LinePrinter printer;
+        private final List<ElementState> states = new ArrayList<ElementState>();
+        private final List<String> preRoot = new ArrayList<String>();
+        private boolean started;
+        private String docTypePublicId;
+        private String docTypeSystemId;
+
+        Serializer(LinePrinter printer) {
+            this.printer = printer;
+            states.add(new ElementState(null, false));
+        }
+
+        private ElementState state() {
+            return states.get(states.size() - 1);
+        }
+
+        private boolean isDocumentState() {
+            return states.size() == 1;
+        }
+
+        boolean docType(String xml) {
+            int start = xml.indexOf("<!DOCTYPE");
+            if (start < 0) {
+                return false;
+            }
+            Matcher matcher = DOCTYPE.matcher(xml);
+            if (!matcher.find(start) || matcher.start() != start) {
+                // internal subset
+                return false;
+            }
+            docTypePublicId = firstNonNull(matcher.group(2), matcher.group(3));
+            docTypeSystemId = firstNonNull(matcher.group(4), matcher.group(5), matcher.group(6), matcher.group(7));
+            return true;
+        }
+
+        void startElement(String name, Map<String, String> attributes) throws IOException {
+            ElementState state = state();
+            if (isDocumentState()) {
+                if (!started) {
+                    startDocument(name);
+                }
+            } else {
+                if (state.empty) {
+                    printer.printText('>');
+                }
+                if (state.inCData) {
+                    printer.printText("]]>");
+                    state.inCData = false;
+                }
+                if (printer.isIndenting() && !state.preserveSpace && (state.empty || state.afterElement || state.afterComment)) {
+                    printer.breakLine();
+                }
+            }
+            boolean preserveSpace = state.preserveSpace;
+            printer.printText('<');
+            printer.printText(name);
+            printer.indent();
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                printer.printSpace();
+                printer.printText(attribute.getKey());
+                printer.printText("=\"");
+                printEscaped(attribute.getValue());
+                printer.printText('"');
+                if (attribute.getKey().equals("xml:space")) {
+                    preserveSpace = attribute.getValue().equals("preserve");
+                }
+            }
+            states.add(new ElementState(name, preserveSpace));
+        }
+
+        void endElement() throws IOException {
+            printer.unindent();
+            ElementState state = state();
+            if (state.empty) {
+                printer.printText("/>");
+            } else {
+                if (state.inCData) {
+                    printer.printText("]]>");
+                }
+                if (printer.isIndenting() && !state.preserveSpace && (state.afterElement || state.afterComment)) {
+                    printer.breakLine();
+                }
+                printer.printText("</");
+                printer.printText(state.name);
+                printer.printText('>');
+            }
+            states.remove(states.size() - 1);
+            state = state();
+            state.afterElement = true;
+            state.afterComment = false;
+            state.empty = false;
+            if (isDocumentState()) {
+                printer.flush();
+            }
+        }
+
+        void text(String text) throws IOException {
+            if (isDocumentState()) {
+                return;
+            }
+            if (printer.isIndenting() && !state().preserveSpace && text.replace('\n', ' ').trim().length() == 0) {
+                return;
+            }
+            characters(text);
+        }
+
+        void cdata(String text) throws IOException {
+            state().doCData = true;
+            characters(text);
+            state().doCData = false;
+        }
+
+        void comment(String text) throws IOException {
+            ElementState state = content();
+            int index = text.indexOf("-->");
+            String comment = "<!--" + (index >= 0 ? text.substring(0, index) : text) + "-->";
+            if (isDocumentState()) {
+                preRoot.add(comment);
+            } else {
+                if (printer.isIndenting() && !state.preserveSpace) {
+                    printer.breakLine();
+                }
+                printer.indent();
+                printUnescaped(comment);
+                printer.unindent();
+            }
+            state.afterComment = true;
+            state.afterElement = false;
+        }
+
+        void processingInstruction(String target, String data) throws IOException {
+            ElementState state = content();
+            StringBuilder pi = new StringBuilder("<?");
+            int index = target.indexOf("?>");
+            pi.append(index >= 0 ? target.substring(0, index) : target);
+            pi.append(' ');
+            if (data != null) {
+                index = data.indexOf("?>");
+                pi.append(index >= 0 ? data.substring(0, index) : data);
+            }
+            pi.append("?>");
+            if (isDocumentState()) {
+                preRoot.add(pi.toString());
+            } else {
+                printer.indent();
+                printUnescaped(pi.toString());
+                printer.unindent();
+                if (printer.isIndenting()) {
+                    state.afterElement = true;
+                }
+            }
+        }
+
+        void endDocument() throws IOException {
+            serializePreRoot();
+            printer.flush();
+        }
+
+        private void startDocument(String rootName) throws IOException {
+            printer.printText("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            printer.breakLine();
+            if (docTypeSystemId != null) {
+                printer.printText("<!DOCTYPE ");
+                printer.printText(rootName);
+                if (docTypePublicId != null) {
+                    printer.printText(" PUBLIC ");
+                    printDoctypeURL(docTypePublicId);
+                    if (printer.isIndenting()) {
+                        printer.breakLine();
+                        for (int i = 0; i < 18 + rootName.length(); ++i) {
+                            printer.printText(" ");
+                        }
+                    } else {
+                        printer.printText(" ");
+                    }
+                    printDoctypeURL(docTypeSystemId);
+                } else {
+                    printer.printText(" SYSTEM ");
+                    printDoctypeURL(docTypeSystemId);
+                }
+                printer.printText(">");
+                printer.breakLine();
+            }
+            started = true;
+            serializePreRoot();
+        }
+
+        private void serializePreRoot() throws IOException {
+            for (String markup : preRoot) {
+                printUnescaped(markup);
+                if (printer.isIndenting()) {
+                    printer.breakLine();
+                }
+            }
+            preRoot.clear();
+        }
+
+        private ElementState content() throws IOException {
+            ElementState state = state();
+            if (!isDocumentState()) {
+                if (state.inCData && !state.doCData) {
+                    printer.printText("]]>");
+                    state.inCData = false;
+                }
+                if (state.empty) {
+                    printer.printText('>');
+                    state.empty = false;
+                }
+                state.afterElement = false;
+                state.afterComment = false;
+            }
+            return state;
+        }
+
+        private void characters(String text) throws IOException {
+            ElementState state = content();
+            if (state.inCData || state.doCData) {
+                if (!state.inCData) {
+                    printer.printText("<![CDATA[");
+                    state.inCData = true;
+                }
+                printCDATAText(text);
+            } else {
+                printXMLText(text);
+            }
+        }
+
+        private void printXMLText(String text) throws IOException {
+            for (int index = 0; index < text.length(); ++index) {
+                char ch = text.charAt(index);
+                if (Character.isHighSurrogate(ch) && index + 1 < text.length()) {
+                    printHex(Character.toCodePoint(ch, text.charAt(++index)));
+                } else if (ch == '\r') {
+                    printHex(ch);
+                } else if (ch == '<') {
+                    printer.printText("&lt;");
+                } else if (ch == '&') {
+                    printer.printText("&amp;");
+                } else if (ch == '>') {
+                    printer.printText("&gt;");
+                } else if (ch == '\n' || ch == '\t' || ch >= ' ') {
+                    printer.printText(ch);
+                } else {
+                    printHex(ch);
+                }
+            }
+        }
+
+        private void printCDATAText(String text) throws IOException {
+            for (int index = 0; index < text.length(); ++index) {
+                char ch = text.charAt(index);
+                if (ch == ']' && index + 2 < text.length() && text.charAt(index + 1) == ']' && text.charAt(index + 2) == '>') {
+                    printer.printText("]]]]><![CDATA[>");
+                    index += 2;
+                } else if (Character.isHighSurrogate(ch) && index + 1 < text.length()) {
+                    printer.printText("]]>&#x");
+                    printer.printText(Integer.toHexString(Character.toCodePoint(ch, text.charAt(++index))));
+                    printer.printText(";<![CDATA[");
+                } else if ((ch >= ' ' && ch != 0xF7) || ch == '\n' || ch == '\r' || ch == '\t') {
+                    printer.printText(ch);
+                } else {
+                    printer.printText("]]>&#x");
+                    printer.printText(Integer.toHexString(ch));
+                    printer.printText(";<![CDATA[");
+                }
+            }
+        }
+
+        private void printEscaped(String value) throws IOException {
+            for (int index = 0; index < value.length(); ++index) {
+                char ch = value.charAt(index);
+                if (Character.isHighSurrogate(ch) && index + 1 < value.length()) {
+                    printHex(Character.toCodePoint(ch, value.charAt(++index)));
+                } else if (ch == '\n' || ch == '\r' || ch == '\t') {
+                    printHex(ch);
+                } else if (ch == '<') {
+                    printer.printText("&lt;");
+                } else if (ch == '&') {
+                    printer.printText("&amp;");
+                } else if (ch == '"') {
+                    printer.printText("&quot;");
+                } else if (ch >= ' ') {
+                    printer.printText(ch);
+                } else {
+                    printHex(ch);
+                }
+            }
+        }
+
+        private void printUnescaped(String markup) throws IOException {
+            for (int index = 0; index < markup.length(); ++index) {
+                char ch = markup.charAt(index);
+                if (Character.isHighSurrogate(ch) && index + 1 < markup.length()) {
+                    printHex(Character.toCodePoint(ch, markup.charAt(++index)));
+                } else {
+                    printer.printText(ch);
+                }
+            }
+        }
+
+        private void printHex(int ch) throws IOException {
+            printer.printText("&#x");
+            printer.printText(Integer.toHexString(ch));
+            printer.printText(';');
+        }
+
+        private void printDoctypeURL(String url) throws IOException {
+            printer.printText('"');
+            for (int i = 0; i < url.length(); ++i) {
+                char ch = url.charAt(i);
+                if (ch == '"' || ch < 0x20 || ch > 0x7F) {
+                    printer.printText('%');
+                    printer.printText(Integer.toHexString(ch));
+                } else {
+                    printer.printText(ch);
+                }
+            }
+            printer.printText('"');
+        }
+
+        private static String firstNonNull(String... values) {
+            for (String value : values) {
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Same line breaking as the xerces <code>IndentPrinter</code>: text is accumulated word by word, a word that would
+     * overflow the line width starts a new line, and each line is prefixed by the indentation in effect when it started.
+     * With no indentation it behaves like the plain <code>Printer</code> and writes everything through.
+     */
+    private static final class LinePrinter {
+        private final Writer writer;
+        private final int indentSize;
+        private final int lineWidth;
+        private final String lineSeparator;
+        private final StringBuilder line = new StringBuilder(80);
+        private final StringBuilder text = new StringBuilder(20);
+        private int spaces;
+        private int thisIndent;
+        private int nextIndent;
+
+        LinePrinter(Writer writer, int indentSize, String lineSeparator) {
+            this.writer = writer;
+            this.indentSize = indentSize;
+            this.lineWidth = indentSize > 0 ? SERIALIZER_LINE_WIDTH : 0;
+            this.lineSeparator = lineSeparator;
+        }
+
+        boolean isIndenting() {
+            return indentSize > 0;
+        }
+
+        void printText(String value) throws IOException {
+            if (isIndenting()) {
+                text.append(value);
+            } else {
+                writer.write(value);
+            }
+        }
+
+        void printText(char ch) throws IOException {
+            if (isIndenting()) {
+                text.append(ch);
+            } else {
+                writer.write(ch);
+            }
+        }
+
+        void printSpace() throws IOException {
+            if (!isIndenting()) {
+                writer.write(' ');
+                return;
+            }
+            if (text.length() > 0) {
+                if (lineWidth > 0 && thisIndent + line.length() + spaces + text.length() > lineWidth) {
+                    flushLine();
+                    writer.write(lineSeparator);
+                }
+                appendText();
+            }
+            ++spaces;
+        }
+
+        void breakLine() throws IOException {
+            if (!isIndenting()) {
+                writer.write(lineSeparator);
+                return;
+            }
+            if (text.length() > 0) {
+                appendText();
+            }
+            flushLine();
+            writer.write(lineSeparator);
+        }
+
+        void indent() {
+            nextIndent += indentSize;
+        }
+
+        void unindent() {
+            nextIndent = Math.max(nextIndent - indentSize, 0);
+            if (line.length() + spaces + text.length() == 0) {
+                thisIndent = nextIndent;
+            }
+        }
+
+        void flush() throws IOException {
+            if (isIndenting() && (line.length() > 0 || text.length() > 0)) {
+                breakLine();
+            }
+        }
+
+        private void appendText() {
+            for (; spaces > 0; spaces--) {
+                line.append(' ');
+            }
+            line.append(text);
+            text.setLength(0);
+        }
+
+        private void flushLine() throws IOException {
+            if (line.length() > 0) {
+                int indent = thisIndent;
+                if (2 * indent > lineWidth && lineWidth > 0) {
+                    indent = lineWidth / 2;
+                }
+                for (; indent > 0; indent--) {
+                    writer.write(' ');
+                }
+                thisIndent = nextIndent;
+                spaces = 0;
+                writer.write(line.toString());
+                line.setLength(0);
+            }
+        }
+    }
+}
\ No newline at end of file
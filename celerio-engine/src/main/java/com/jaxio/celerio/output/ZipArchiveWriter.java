@@ -0,0 +1,262 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Writes a zip archive out of entries compressed beforehand, possibly by other threads, see {@link #compress(String, byte[], long)}.
+ * <p>
+ * {@link java.util.zip.ZipOutputStream} compresses each entry as it is written, hence this minimal writer. Entry names are encoded in UTF-8.
+ * As {@link java.util.zip.ZipOutputStream}, it writes the zip64 records when the archive has more than 65535 entries or is larger than 4 GB.
+ * An entry content is a byte array, so its sizes never need zip64.
+ */
+final class ZipArchiveWriter {
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
+    private static final int ZIP64_EXTRA_FIELD = 0x0001;
+    private static final int VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final int UTF8_NAMES = 0x0800;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+
+    private final OutputStream output;
+    private final int maxEntries;
+    private final long maxOffset;
+    private final List<CompressedEntry> entries = newArrayList();
+    private final List<Long> offsets = newArrayList();
+    private final byte[] header = new byte[56];
+    private long written;
+
+    ZipArchiveWriter(OutputStream output) {
+        this(output, MAX_ENTRIES, MAX_OFFSET);
+    }
+
+    /**
+     * @param maxEntries the number of entries above which zip64 is used, lowered by the tests only
+     * @param maxOffset  the offset above which zip64 is used, lowered by the tests only
+     */
+    ZipArchiveWriter(OutputStream output, int maxEntries, long maxOffset) {
+        this.output = output;
+        this.maxEntries = maxEntries;
+        this.maxOffset = maxOffset;
+    }
+
+    /**
+     * Compresses the given content, or stores it when it does not compress.
+     */
+    static CompressedEntry compress(String name, byte[] content, long time) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            byte[] compressed = new byte[Math.max(64, content.length / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    if (length >= content.length) {
+                        // larger than the content itself
+                        return new CompressedEntry(name, time, crc.getValue(), content.length, content, content.length, false);
+                    }
+                    byte[] larger = new byte[compressed.length * 2];
+                    System.arraycopy(compressed, 0, larger, 0, length);
+                    compressed = larger;
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            if (length >= content.length) {
+                return new CompressedEntry(name, time, crc.getValue(), content.length, content, content.length, false);
+            }
+            return new CompressedEntry(name, time, crc.getValue(), content.length, compressed, length, true);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    void write(CompressedEntry entry) throws IOException {
+        byte[] name = entry.name.getBytes("UTF-8");
+        long offset = written;
+
+        int i = 0;
+        i = putInt(i, LOCAL_FILE_HEADER);
+        i = putShort(i, VERSION);
+        i = putEntryInfo(i, entry, name.length);
+        i = putShort(i, 0); // extra field length
+        writeHeader(i);
+        writeBytes(name, name.length);
+        writeBytes(entry.data, entry.dataLength);
+
+        entries.add(entry);
+        offsets.add(offset);
+    }
+
+    /**
+     * Writes the central directory. The output stream is flushed but left open.
+     */
+    void finish() throws IOException {
+        long centralDirectoryOffset = written;
+        for (int e = 0; e < entries.size(); e++) {
+            CompressedEntry entry = entries.get(e);
+            byte[] name = entry.name.getBytes("UTF-8");
+            long offset = offsets.get(e);
+            boolean zip64 = offset >= maxOffset;
+
+            int i = 0;
+            i = putInt(i, CENTRAL_DIRECTORY_HEADER);
+            i = putShort(i, zip64 ? ZIP64_VERSION : VERSION); // made by
+            i = putShort(i, zip64 ? ZIP64_VERSION : VERSION); // needed to extract
+            i = putEntryInfo(i, entry, name.length);
+            i = putShort(i, zip64 ? 12 : 0); // extra field length
+            i = putShort(i, 0); // comment length
+            i = putShort(i, 0); // disk number
+            i = putShort(i, 0); // internal attributes
+            i = putInt(i, 0); // external attributes
+            i = putInt(i, zip64 ? (int) MAX_OFFSET : (int) offset);
+            writeHeader(i);
+            writeBytes(name, name.length);
+            if (zip64) {
+                // the offset of the local header, the sizes are never too large
+                i = 0;
+                i = putShort(i, ZIP64_EXTRA_FIELD);
+                i = putShort(i, 8);
+                i = putLong(i, offset);
+                writeHeader(i);
+            }
+        }
+        long centralDirectorySize = written - centralDirectoryOffset;
+        boolean zip64 = entries.size() >= maxEntries || centralDirectoryOffset >= maxOffset || centralDirectorySize >= maxOffset;
+
+        if (zip64) {
+            long zip64EndOffset = written;
+            int i = 0;
+            i = putInt(i, ZIP64_END_OF_CENTRAL_DIRECTORY);
+            i = putLong(i, 44); // size of the remaining record
+            i = putShort(i, ZIP64_VERSION); // made by
+            i = putShort(i, ZIP64_VERSION); // needed to extract
+            i = putInt(i, 0); // disk number
+            i = putInt(i, 0); // disk with the central directory
+            i = putLong(i, entries.size());
+            i = putLong(i, entries.size());
+            i = putLong(i, centralDirectorySize);
+            i = putLong(i, centralDirectoryOffset);
+            writeHeader(i);
+
+            i = 0;
+            i = putInt(i, ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR);
+            i = putInt(i, 0); // disk with the zip64 end of central directory
+            i = putLong(i, zip64EndOffset);
+            i = putInt(i, 1); // number of disks
+            writeHeader(i);
+        }
+
+        int i = 0;
+        i = putInt(i, END_OF_CENTRAL_DIRECTORY);
+        i = putShort(i, 0); // disk number
+        i = putShort(i, 0); // disk with the central directory
+        i = putShort(i, zip64 ? MAX_ENTRIES : entries.size());
+        i = putShort(i, zip64 ? MAX_ENTRIES : entries.size());
+        i = putInt(i, zip64 ? (int) MAX_OFFSET : (int) centralDirectorySize);
+        i = putInt(i, zip64 ? (int) MAX_OFFSET : (int) centralDirectoryOffset);
+        i = putShort(i, 0); // comment length
+        writeHeader(i);
+        output.flush();
+    }
+
+    // flags, method, time, crc, sizes and name length, shared by both headers
+    private int putEntryInfo(int i, CompressedEntry entry, int nameLength) {
+        i = putShort(i, UTF8_NAMES);
+        i = putShort(i, entry.deflated ? Deflater.DEFLATED : 0);
+        i = putInt(i, entry.dosTime);
+        i = putInt(i, (int) entry.crc);
+        i = putInt(i, entry.dataLength);
+        i = putInt(i, entry.size);
+        return putShort(i, nameLength);
+    }
+
+    private int putShort(int i, int value) {
+        header[i] = (byte) value;
+        header[i + 1] = (byte) (value >>> 8);
+        return i + 2;
+    }
+
+    private int putInt(int i, int value) {
+        putShort(i, value & 0xFFFF);
+        return putShort(i + 2, value >>> 16);
+    }
+
+    private int putLong(int i, long value) {
+        putInt(i, (int) value);
+        return putInt(i + 4, (int) (value >>> 32));
+    }
+
+    private void writeHeader(int length) throws IOException {
+        writeBytes(header, length);
+    }
+
+    private void writeBytes(byte[] bytes, int length) throws IOException {
+        output.write(bytes, 0, length);
+        written += length;
+    }
+
+    /**
+     * An entry ready to be written: its content is already compressed.
+     */
+    static final class CompressedEntry {
+        final String name;
+        final int dosTime;
+        final long crc;
+        final int size;
+        final byte[] data;
+        final int dataLength;
+        final boolean deflated;
+
+        CompressedEntry(String name, long time, long crc, int size, byte[] data, int dataLength, boolean deflated) {
+            this.name = name;
+            this.dosTime = toDosTime(time);
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.dataLength = dataLength;
+            this.deflated = deflated;
+        }
+
+        private static int toDosTime(long time) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(time);
+            int year = calendar.get(Calendar.YEAR);
+            if (year < 1980) {
+                return (1 << 21) | (1 << 16); // 1980-01-01
+            }
+            return (year - 1980) << 25 | (calendar.get(Calendar.MONTH) + 1) << 21 | calendar.get(Calendar.DAY_OF_MONTH) << 16
+                    | calendar.get(Calendar.HOUR_OF_DAY) << 11 | calendar.get(Calendar.MINUTE) << 5 | calendar.get(Calendar.SECOND) >> 1;
+        }
+    }
+}
\ No newline at end of file
@@ -16,32 +16,43 @@
 
 package com.jaxio.celerio.output;
 
+import com.jaxio.celerio.output.ZipArchiveWriter.CompressedEntry;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 
 import java.io.*;
-import java.util.Date;
-import java.util.SortedSet;
-import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
-
-import static com.google.common.collect.Sets.newTreeSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Sets.newHashSet;
 import static org.apache.commons.io.FilenameUtils.normalize;
+import static org.apache.commons.io.IOUtils.toByteArray;
 
+/**
+ * Generates a zip archive, to a file or to an output stream.
+ * <p>
+ * Entries are compressed concurrently by worker threads, see {@link #setDeflateThreads(int)}, then written in the order they were added, as soon
+ * as possible: the archive is complete once the output result is closed.
+ */
 @Slf4j
 public class ZipOutputResult implements OutputResult {
+    // compressed entries waiting to be written, beyond that adding an entry waits for the oldest one
+    private static final int PENDING_ENTRIES = 256;
 
     private String filename;
+    private OutputStream outputStream;
+    private int deflateThreads = Runtime.getRuntime().availableProcessors();
 
-    private SortedSet<String> fileList = newTreeSet();
+    private Set<String> fileList = newHashSet();
 
-    private BufferedOutputStream bufferedOutputStream;
+    private OutputStream archiveOutputStream;
+    private ZipArchiveWriter archiveWriter;
+    private ExecutorService deflaters;
+    private LinkedList<Future<CompressedEntry>> pendingEntries = new LinkedList<Future<CompressedEntry>>();
 
-    private ZipOutputStream zipOutputStream;
     private boolean isOpen = false;
     private SourceFile userSource = null;
     private SourceFile generatedSource = null;
@@ -52,16 +63,51 @@ public class ZipOutputResult implements OutputResult {
         this.generatedSource = new ZipSourceFile();
     }
 
+    /**
+     * @param outputStream where the archive is written, it is flushed but not closed by {@link #close()}.
+     */
+    public ZipOutputResult(OutputStream outputStream) {
+        this.outputStream = outputStream;
+        this.userSource = new ZipSourceFile();
+        this.generatedSource = new ZipSourceFile();
+    }
+
+    /**
+     * @param deflateThreads the number of threads compressing the entries, 0 to compress them as they are added. Takes effect on the next open.
+     */
+    public void setDeflateThreads(int deflateThreads) {
+        this.deflateThreads = deflateThreads;
+    }
+
     @Override
-    public void open() throws IOException {
+    public synchronized void open() throws IOException {
         if (isOpen) {
             return;
         }
-        bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(new File(filename)));
-        zipOutputStream = new JarOutputStream(bufferedOutputStream);
+        if (outputStream != null) {
+            archiveOutputStream = new BufferedOutputStream(outputStream);
+        } else {
+            archiveOutputStream = new BufferedOutputStream(new FileOutputStream(new File(filename)));
+        }
+        archiveWriter = new ZipArchiveWriter(archiveOutputStream);
+        deflaters = deflateThreads > 0 ? newDeflaters(deflateThreads) : null;
+        fileList.clear();
         isOpen = true;
     }
 
+    private ExecutorService newDeflaters(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "celerio-deflater-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
     @Override
     public boolean hasCollision(String pathToFile) {
         return false;
@@ -73,14 +119,27 @@ public class ZipOutputResult implements OutputResult {
     }
 
     @Override
-    public void close() throws IOException {
-        zipOutputStream.close();
-        bufferedOutputStream.close();
+    public synchronized void close() throws IOException {
+        if (!isOpen) {
+            return;
+        }
         isOpen = false;
+        try {
+            writeCompressedEntries(0);
+            archiveWriter.finish();
+        } finally {
+            if (deflaters != null) {
+                deflaters.shutdownNow();
+            }
+            pendingEntries.clear();
+            if (outputStream == null) {
+                archiveOutputStream.close();
+            }
+        }
     }
 
     @Override
-    public void addContent(byte[] contentBytes, String entryName, TemplatePack pack, Template template) throws IOException {
+    public synchronized void addContent(byte[] contentBytes, String entryName, TemplatePack pack, Template template) throws IOException {
         open();
         if (fileList.contains(entryName)) {
             log.error("Ignore duplicate entry: " + entryName);
@@ -90,28 +149,42 @@ public class ZipOutputResult implements OutputResult {
         }
 
         // Add archive entry
-        ZipEntry zipEntry = new ZipEntry(normalize(entryName));
-        zipOutputStream.putNextEntry(zipEntry);
-        zipOutputStream.write(contentBytes, 0, contentBytes.length);
+        final String name = normalize(entryName);
+        final byte[] content = contentBytes;
+        final long time = System.currentTimeMillis();
+        if (deflaters == null) {
+            archiveWriter.write(ZipArchiveWriter.compress(name, content, time));
+            return;
+        }
+
+        pendingEntries.add(deflaters.submit(new Callable<CompressedEntry>() {
+            @Override
+            public CompressedEntry call() {
+                return ZipArchiveWriter.compress(name, content, time);
+            }
+        }));
+        writeCompressedEntries(PENDING_ENTRIES);
     }
 
     @Override
     public void addContent(InputStream contentStream, String entryName, TemplatePack templatePack, Template template) throws IOException {
-        open();
+        addContent(toByteArray(contentStream), entryName, templatePack, template);
+    }
 
-        if (fileList.contains(entryName)) {
-            log.error("Ignore duplicate entry: " + entryName);
-            return;
-        } else {
-            fileList.add(entryName);
+    /**
+     * Writes the entries compressed so far, in order, waiting for the oldest ones while more than maxPending entries remain.
+     */
+    private void writeCompressedEntries(int maxPending) throws IOException {
+        while (!pendingEntries.isEmpty() && (pendingEntries.size() > maxPending || pendingEntries.getFirst().isDone())) {
+            try {
+                archiveWriter.write(pendingEntries.removeFirst().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing the archive entries");
+            } catch (ExecutionException e) {
+                throw new IOException("Could not compress an archive entry: " + e.getCause().getMessage(), e.getCause());
+            }
         }
-
-        // Add archive entry
-        ZipEntry zipEntry = new JarEntry(normalize(entryName));
-        zipEntry.setTime((new Date()).getTime());
-        zipOutputStream.putNextEntry(zipEntry);
-
-        IOUtils.copy(contentStream, zipOutputStream);
     }
 
     @Override
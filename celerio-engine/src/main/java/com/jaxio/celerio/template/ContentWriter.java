@@ -20,6 +20,7 @@ import com.jaxio.celerio.output.OutputResult;
 import com.jaxio.celerio.output.SourceFile;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
+import com.jaxio.celerio.util.GenerationMetrics;
 import com.jaxio.celerio.util.IOUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,9 +36,22 @@ import static org.apache.commons.io.FilenameUtils.normalize;
 public class ContentWriter {
     @Autowired
     private IOUtil ioUtil;
+    @Autowired
+    private GenerationMetrics generationMetrics;
 
     public void processFile(OutputResult outputResult, TemplatePack templatePack, Template template, byte[] contentToPublish, String targetFilename)
             throws Exception {
+        long start = System.nanoTime();
+        try {
+            doProcessFile(outputResult, templatePack, template, contentToPublish, targetFilename);
+        } finally {
+            generationMetrics.outputPublished(System.nanoTime() - start);
+            generationMetrics.contentEmitted(templatePack.getName(), template.getName(), contentToPublish.length);
+        }
+    }
+
+    private void doProcessFile(OutputResult outputResult, TemplatePack templatePack, Template template, byte[] contentToPublish, String targetFilename)
+            throws Exception {
         SourceFile userSource = outputResult.getUserSource();
         SourceFile generatedSource = outputResult.getGeneratedSource();
 
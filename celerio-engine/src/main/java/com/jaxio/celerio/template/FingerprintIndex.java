@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableMap;
+import static com.google.common.collect.Maps.newHashMap;
+
+/**
+ * What is kept in ".celerio/fingerprints.idx" between two incremental generations.
+ *
+ * @see IncrementalGeneration
+ */
+public class FingerprintIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String globalFingerprint;
+    private HashMap<String, WorkUnitState> workUnits = newHashMap();
+
+    public FingerprintIndex(String globalFingerprint) {
+        this.globalFingerprint = globalFingerprint;
+    }
+
+    public String getGlobalFingerprint() {
+        return globalFingerprint;
+    }
+
+    public WorkUnitState get(String workUnitKey) {
+        return workUnits.get(workUnitKey);
+    }
+
+    public void put(String workUnitKey, WorkUnitState workUnitState) {
+        workUnits.put(workUnitKey, workUnitState);
+    }
+
+    public void remove(String workUnitKey) {
+        workUnits.remove(workUnitKey);
+    }
+
+    public int size() {
+        return workUnits.size();
+    }
+
+    public Map<String, WorkUnitState> getWorkUnits() {
+        return unmodifiableMap(workUnits);
+    }
+
+    /**
+     * The state of a work unit after its last evaluation.
+     */
+    public static class WorkUnitState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String fingerprint;
+        private String filename;
+        private String contentHash;
+        private HashMap<String, String> probedFiles;
+
+        /**
+         * @param fingerprint the fingerprint of the inputs of the work unit
+         * @param filename    the generated file, relative to the generated source folder, or null if nothing was generated
+         * @param contentHash the hash of the generated content, or null if nothing was generated
+         * @param probedFiles the state of the files that were looked at during the evaluation, by full path
+         */
+        public WorkUnitState(String fingerprint, String filename, String contentHash, Map<String, String> probedFiles) {
+            this.fingerprint = fingerprint;
+            this.filename = filename;
+            this.contentHash = contentHash;
+            this.probedFiles = newHashMap(probedFiles);
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public Map<String, String> getProbedFiles() {
+            return probedFiles;
+        }
+    }
+}
\ No newline at end of file
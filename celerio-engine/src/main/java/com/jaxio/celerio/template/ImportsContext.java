@@ -19,15 +19,19 @@ package com.jaxio.celerio.template;
 /**
  * Holds the {@link ImportsHolder} and the <code>isExtendedByUser</code> boolean that are used
  * during a Java template evaluation.
+ * <p>
+ * The state is bound to the thread evaluating the template, so that several templates can be evaluated
+ * concurrently by the generation workers.
  */
 public class ImportsContext {
 
-    private static final InheritableThreadLocal<ImportsHolder> currentImportsHolder = new InheritableThreadLocal<ImportsHolder>();
-    private static final InheritableThreadLocal<Boolean> isExtendedByUser = new InheritableThreadLocal<Boolean>();
-
-    static {
-        isExtendedByUser.set(false);
-    }
+    private static final ThreadLocal<ImportsHolder> currentImportsHolder = new ThreadLocal<ImportsHolder>();
+    private static final ThreadLocal<Boolean> isExtendedByUser = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return false;
+        }
+    };
 
     /**
      * Returns the {@link ImportsHolder} that is bound to the current template evaluation.
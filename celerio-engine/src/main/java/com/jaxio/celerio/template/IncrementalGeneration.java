@@ -0,0 +1,580 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.configuration.Celerio;
+import com.jaxio.celerio.configuration.EntityContextProperty;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.Table;
+import com.jaxio.celerio.configuration.entity.EntityConfig;
+import com.jaxio.celerio.configuration.entity.EnumConfig;
+import com.jaxio.celerio.configuration.support.CelerioLoader;
+import com.jaxio.celerio.configuration.support.MetadataLoader;
+import com.jaxio.celerio.model.Attribute;
+import com.jaxio.celerio.model.Entity;
+import com.jaxio.celerio.model.EnumType;
+import com.jaxio.celerio.model.Project;
+import com.jaxio.celerio.model.Relation;
+import com.jaxio.celerio.output.FolderOutputResult;
+import com.jaxio.celerio.output.OutputResult;
+import com.jaxio.celerio.template.FingerprintIndex.WorkUnitState;
+import com.jaxio.celerio.template.PreviousEngine.RenderedFile;
+import com.jaxio.celerio.template.pack.Template;
+import com.jaxio.celerio.template.pack.TemplatePack;
+import com.jaxio.celerio.template.pack.TemplatePackInfo;
+import com.thoughtworks.xstream.XStream;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.velocity.context.Context;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.apache.commons.io.FilenameUtils.normalize;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Incremental generation: a work unit, that is a template evaluated for a given entity, composite pk, attribute or enum, is not evaluated again
+ * when none of its inputs changed since the previous generation and when the file it generated is still intact.
+ * <p>
+ * The fingerprint of a work unit covers:
+ * <ul>
+ * <li>the template and the pack properties</li>
+ * <li>the global inputs: the configuration (except the entity configurations), the database info, the output folders and the project
+ * wide values that any template may read: the entities and tables names, the enum types, the account, role, audit log and saved search
+ * entities, the packages to scan and whether hibernate search is used</li>
+ * <li>the model slice of the work unit: the tables and entity configurations of its entity, of the entity hierarchy and of the related
+ * entities, or the enum configuration for an enum</li>
+ * <li>the state of the user files looked at during the evaluation (take over detection)</li>
+ * </ul>
+ * When the global inputs change, all the work units are evaluated again. Project and bootstrap templates are always evaluated as they
+ * may depend on the whole model. The fingerprints are kept in ".celerio/fingerprints.idx".
+ */
+@Service
+@Slf4j
+public class IncrementalGeneration {
+    // to change whenever the fingerprint computation changes
+    private static final String FINGERPRINT_VERSION = "2";
+    // to change whenever the layout of the fingerprint file changes
+    private static final int INDEX_VERSION = 1;
+
+    @Setter
+    private String fingerprintFileLocation = ".celerio";
+
+    @Autowired
+    private Config config;
+
+    @Autowired
+    private CelerioLoader celerioLoader;
+
+    @Autowired
+    private MetadataLoader metadataLoader;
+
+    private FingerprintIndex index;
+    private Map<Object, String> hashes = new IdentityHashMap<Object, String>();
+    private Map<String, String> sliceHashes = newHashMap();
+    private Map<String, String> templateHashes = newHashMap();
+    @Getter(value = AccessLevel.PACKAGE)
+    private int skippedWorkUnits;
+    private int evaluatedWorkUnits;
+
+    public boolean isEnabled() {
+        return index != null;
+    }
+
+    /**
+     * Loads the fingerprints of the previous generation. Must be invoked once the project is built.
+     */
+    public void open() {
+        index = null;
+        hashes.clear();
+        sliceHashes.clear();
+        templateHashes.clear();
+        skippedWorkUnits = 0;
+        evaluatedWorkUnits = 0;
+
+        if (!config.isIncrementalGeneration()) {
+            return;
+        }
+
+        if (!(config.getOutputResult() instanceof FolderOutputResult)) {
+            info("incremental generation is available only when generating to a folder, full generation");
+            return;
+        }
+
+        String globalFingerprint;
+        try {
+            globalFingerprint = getGlobalFingerprint();
+        } catch (Exception e) {
+            log.warn("Could not compute the configuration fingerprint, full generation: " + e.getMessage());
+            return;
+        }
+
+        FingerprintIndex previousIndex = load();
+        if (previousIndex != null && globalFingerprint.equals(previousIndex.getGlobalFingerprint())) {
+            info("incremental generation, " + previousIndex.size() + " work units tracked");
+            index = previousIndex;
+        } else {
+            if (previousIndex != null) {
+                info("global inputs changed, full generation");
+            }
+            index = new FingerprintIndex(globalFingerprint);
+        }
+    }
+
+    /**
+     * Saves the fingerprints of the current generation.
+     */
+    public void close() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+
+        save(index);
+        info("incremental generation, " + skippedWorkUnits + " work units skipped, " + evaluatedWorkUnits + " evaluated");
+        index = null;
+    }
+
+    /**
+     * @return the work unit corresponding to the evaluation of the given template in the given context or null if it is not tracked.
+     */
+    public WorkUnit newWorkUnit(TemplatePack templatePack, Template template, Context context) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        try {
+            String unitId;
+            String sliceHash;
+            if (context.get("attribute") instanceof Attribute) {
+                Entity entity = (Entity) context.get("entity");
+                unitId = entity.getName() + "." + ((Attribute) context.get("attribute")).getName();
+                sliceHash = getSliceHash(entity);
+            } else if (context.get("enum") instanceof EnumType) {
+                EnumConfig enumConfig = ((EnumType) context.get("enum")).getConfig();
+                unitId = enumConfig.getName();
+                sliceHash = getHash(enumConfig);
+            } else if (context.get("entity") instanceof Entity) {
+                Entity entity = (Entity) context.get("entity");
+                unitId = entity.getName();
+                sliceHash = getSliceHash(entity);
+            } else {
+                return null;
+            }
+
+            String key = templatePack.getName() + ":" + template.getName() + ":" + unitId;
+            return new WorkUnit(key, hash(index.getGlobalFingerprint(), getTemplateHash(templatePack, template), unitId, sliceHash));
+        } catch (Exception e) {
+            log.warn("Could not compute the fingerprint of " + template.getName() + ", it will be evaluated: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the given work unit does not need to be evaluated.
+     */
+    public boolean isUpToDate(WorkUnit workUnit) throws IOException {
+        if (workUnit == null) {
+            return false;
+        }
+
+        WorkUnitState state = index.get(workUnit.getKey());
+        if (state == null || !state.getFingerprint().equals(workUnit.getFingerprint()) || !sameProbedFiles(state) || !sameGeneratedFile(state)) {
+            return false;
+        }
+
+        skippedWorkUnits++;
+        if (log.isDebugEnabled()) {
+            log.debug("[unchanged inputs] " + workUnit.getKey());
+        }
+        return true;
+    }
+
+    /**
+     * Records the result of the evaluation of the given work unit.
+     */
+    public void generated(WorkUnit workUnit, TemplateExecution execution, RenderedFile renderedFile) throws IOException {
+        if (workUnit == null) {
+            return;
+        }
+
+        evaluatedWorkUnits++;
+        if (execution.hasSideEffects()) {
+            // it wrote other files, it must always be evaluated
+            index.remove(workUnit.getKey());
+        } else if (renderedFile == null) {
+            index.put(workUnit.getKey(), new WorkUnitState(workUnit.getFingerprint(), null, null, execution.getProbedFiles()));
+        } else {
+            String contentHash = Hashing.sha1().hashBytes(renderedFile.getContent().getBytes("UTF-8")).toString();
+            index.put(workUnit.getKey(),
+                    new WorkUnitState(workUnit.getFingerprint(), normalize(renderedFile.getFullFilename()), contentHash, execution.getProbedFiles()));
+        }
+    }
+
+    /**
+     * @return the state of the given file, as compared by the incremental generation.
+     */
+    public static String getFileState(File file) {
+        return file.exists() ? file.length() + " " + file.lastModified() : "none";
+    }
+
+    // --------------------------------------------
+    // Up to date checks
+    // --------------------------------------------
+
+    private boolean sameProbedFiles(WorkUnitState state) {
+        for (Map.Entry<String, String> probedFile : state.getProbedFiles().entrySet()) {
+            if (!probedFile.getValue().equals(getFileState(new File(probedFile.getKey())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameGeneratedFile(WorkUnitState state) throws IOException {
+        if (state.getFilename() == null) {
+            return true;
+        }
+
+        OutputResult outputResult = config.getOutputResult();
+        if (!outputResult.sameDirectory() && outputResult.getUserSource().fileExists(state.getFilename())) {
+            // the content writer would have to handle it
+            return false;
+        }
+
+        File generatedFile = new File(outputResult.getGeneratedSource().getFullPath(state.getFilename()));
+        return generatedFile.isFile() && state.getContentHash().equals(Files.hash(generatedFile, Hashing.sha1()).toString());
+    }
+
+    // --------------------------------------------
+    // Fingerprints
+    // --------------------------------------------
+
+    private String getGlobalFingerprint() throws IOException {
+        Celerio celerio = new Celerio();
+        celerio.setConfiguration(config.getCelerio().getConfiguration());
+        celerio.setSharedEnumConfigs(config.getCelerio().getSharedEnumConfigs());
+
+        Metadata metadata = new Metadata();
+        metadata.setJdbcConnectivity(config.getMetadata().getJdbcConnectivity());
+        metadata.setDatabaseInfo(config.getMetadata().getDatabaseInfo());
+
+        OutputResult outputResult = config.getOutputResult();
+        return hash(FINGERPRINT_VERSION, marshallHash(celerio), marshallHash(metadata), config.isSpringfuseMode(),
+                outputResult.getUserSource().getDirectory(), outputResult.getGeneratedSource().getDirectory(), getProjectHash());
+    }
+
+    /**
+     * The values of the project that entity templates read beside their own model slice.
+     */
+    private String getProjectHash() throws IOException {
+        Project project = config.getProject();
+        List<Object> values = newArrayList();
+        for (Entity entity : project.getCurrentEntities()) {
+            values.add(entity.getName());
+            values.add(entity.getModel().getFullType());
+        }
+        for (EnumType enumType : project.getEnumTypes()) {
+            values.add(enumType.getModel().getFullType());
+        }
+        for (Table table : config.getOriginalMetadata().getTables()) {
+            values.add(table.asKeyForMap());
+        }
+        values.add(project.isAccountEntityPresent() ? getEntityHash(project.getAccountEntity()) : "");
+        values.add(project.isRoleEntityPresent() ? getEntityHash(project.getRoleEntity()) : "");
+        values.add(project.isAuditLogPresent() ? getEntityHash(project.getAuditLog()) : "");
+        values.add(project.isSavedSearchPresent() ? getEntityHash(project.getSavedSearch()) : "");
+        values.add(project.getPackagesToScan());
+        values.add(project.getHibernateSearchUsed());
+        values.add(project.isDefaultSchema());
+        return hash(values.toArray());
+    }
+
+    private String getEntityHash(Entity entity) throws IOException {
+        return hash(entity.getName(), entity.getTable() != null ? getHash(entity.getTable()) : "",
+                entity.getEntityConfig() != null ? getHash(entity.getEntityConfig()) : "");
+    }
+
+    private String getTemplateHash(TemplatePack templatePack, Template template) {
+        String key = templatePack.getName() + ":" + template.getName();
+        String templateHash = templateHashes.get(key);
+        if (templateHash == null) {
+            TemplatePackInfo packInfo = templatePack.getTemplatePackInfo();
+            List<Object> values = newArrayList();
+            values.add(templatePack.getName());
+            values.add(Hashing.sha1().hashBytes(template.getBytes()));
+            if (packInfo != null) {
+                values.add(new TreeMap<String, String>(packInfo.getProperties()));
+                for (EntityContextProperty property : packInfo.getEntityContextPropertyList()) {
+                    values.add(property.getProperty() + " " + property.getRootPackage() + " " + property.getSubPackage() + " " + property.getPrefix() + " "
+                            + property.getSuffix());
+                }
+            }
+            templateHash = hash(values.toArray());
+            templateHashes.put(key, templateHash);
+        }
+        return templateHash;
+    }
+
+    /**
+     * The tables and entity configs of the entity, of its hierarchy, of its children and of the entities it is related to.
+     */
+    private String getSliceHash(Entity entity) throws IOException {
+        String sliceHash = sliceHashes.get(entity.getName());
+        if (sliceHash == null) {
+            Map<String, Entity> slice = new TreeMap<String, Entity>();
+            addWithAncestors(slice, entity);
+            for (Entity e : newArrayList(slice.values())) {
+                for (Relation relation : e.getCurrentRelations()) {
+                    addWithAncestors(slice, relation.getToEntity());
+                    if (relation.isIntermediate()) {
+                        addWithAncestors(slice, relation.getMiddleEntity());
+                    }
+                }
+            }
+            for (Entity child : entity.getChildren()) {
+                slice.put(child.getName(), child);
+            }
+
+            List<Object> values = newArrayList();
+            for (Entity e : slice.values()) {
+                values.add(getEntityHash(e));
+            }
+            sliceHash = hash(values.toArray());
+            sliceHashes.put(entity.getName(), sliceHash);
+        }
+        return sliceHash;
+    }
+
+    private void addWithAncestors(Map<String, Entity> slice, Entity entity) {
+        for (Entity e = entity; e != null; e = e.getParent()) {
+            slice.put(e.getName(), e);
+        }
+    }
+
+    private String getHash(Table table) throws IOException {
+        String hash = hashes.get(table);
+        if (hash == null) {
+            Metadata metadata = new Metadata();
+            metadata.add(table);
+            hash = marshallHash(metadata);
+            hashes.put(table, hash);
+        }
+        return hash;
+    }
+
+    private String getHash(EntityConfig entityConfig) throws IOException {
+        String hash = hashes.get(entityConfig);
+        if (hash == null) {
+            Celerio celerio = new Celerio();
+            celerio.setEntityConfigs(newArrayList(entityConfig));
+            hash = marshallHash(celerio);
+            hashes.put(entityConfig, hash);
+        }
+        return hash;
+    }
+
+    private String getHash(EnumConfig enumConfig) throws IOException {
+        String hash = hashes.get(enumConfig);
+        if (hash == null) {
+            Celerio celerio = new Celerio();
+            celerio.setSharedEnumConfigs(newArrayList(enumConfig));
+            hash = marshallHash(celerio);
+            hashes.put(enumConfig, hash);
+        }
+        return hash;
+    }
+
+    private String marshallHash(Celerio celerio) throws IOException {
+        HashingOutputStream out = new HashingOutputStream(Hashing.sha1(), ByteStreams.nullOutputStream());
+        celerioLoader.write(celerio, out);
+        return out.hash().toString();
+    }
+
+    private String marshallHash(Metadata metadata) throws IOException {
+        HashingOutputStream out = new HashingOutputStream(Hashing.sha1(), ByteStreams.nullOutputStream());
+        metadataLoader.write(metadata, out);
+        return out.hash().toString();
+    }
+
+    private String hash(Object... values) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        for (Object value : values) {
+            hasher.putString(String.valueOf(value), UTF_8).putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
+
+    // --------------------------------------------
+    // Persistence
+    // --------------------------------------------
+
+    private File getFingerprintFile() {
+        return new File(config.getOutputResult().getUserSource().getDirectory(), fingerprintFileLocation + File.separatorChar + "fingerprints.idx");
+    }
+
+    /**
+     * The XStream file used before the binary index, migrated on first load and deleted on save.
+     */
+    private File getLegacyFingerprintFile() {
+        return new File(config.getOutputResult().getUserSource().getDirectory(), fingerprintFileLocation + File.separatorChar + "fingerprints.xml");
+    }
+
+    private FingerprintIndex load() {
+        File fingerprintFile = getFingerprintFile();
+        if (!fingerprintFile.exists()) {
+            return loadLegacy();
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(fingerprintFile)));
+            int version = in.readInt();
+            if (version != INDEX_VERSION) {
+                info("ignoring fingerprints of unknown version " + version + ", full generation");
+                return null;
+            }
+
+            FingerprintIndex index = new FingerprintIndex(in.readUTF());
+            int nbWorkUnits = in.readInt();
+            for (int i = 0; i < nbWorkUnits; i++) {
+                String workUnitKey = in.readUTF();
+                String fingerprint = in.readUTF();
+                String filename = in.readBoolean() ? in.readUTF() : null;
+                String contentHash = in.readBoolean() ? in.readUTF() : null;
+                int nbProbedFiles = in.readInt();
+                Map<String, String> probedFiles = newHashMap();
+                for (int j = 0; j < nbProbedFiles; j++) {
+                    probedFiles.put(in.readUTF(), in.readUTF());
+                }
+                index.put(workUnitKey, new WorkUnitState(fingerprint, filename, contentHash, probedFiles));
+            }
+            return index;
+        } catch (Exception e) {
+            log.warn("Could not read " + fingerprintFile.getAbsolutePath() + ", full generation: " + e.getMessage());
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private FingerprintIndex loadLegacy() {
+        File legacyFingerprintFile = getLegacyFingerprintFile();
+        if (!legacyFingerprintFile.exists()) {
+            return null;
+        }
+
+        info("migrating " + legacyFingerprintFile.getAbsolutePath());
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(legacyFingerprintFile);
+            return (FingerprintIndex) new XStream().fromXML(in);
+        } catch (Exception e) {
+            log.warn("Could not read " + legacyFingerprintFile.getAbsolutePath() + ", full generation: " + e.getMessage());
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private void save(FingerprintIndex index) throws IOException {
+        File fingerprintFile = getFingerprintFile();
+        fingerprintFile.getParentFile().mkdirs();
+
+        // write next to the index and rename, so an interrupted save does not leave a truncated index
+        File tmpFingerprintFile = new File(fingerprintFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFingerprintFile)));
+        try {
+            out.writeInt(INDEX_VERSION);
+            out.writeUTF(index.getGlobalFingerprint());
+            out.writeInt(index.size());
+            for (Map.Entry<String, WorkUnitState> workUnit : index.getWorkUnits().entrySet()) {
+                WorkUnitState state = workUnit.getValue();
+                out.writeUTF(workUnit.getKey());
+                out.writeUTF(state.getFingerprint());
+                writeNullableUTF(out, state.getFilename());
+                writeNullableUTF(out, state.getContentHash());
+                out.writeInt(state.getProbedFiles().size());
+                for (Map.Entry<String, String> probedFile : state.getProbedFiles().entrySet()) {
+                    out.writeUTF(probedFile.getKey());
+                    out.writeUTF(probedFile.getValue());
+                }
+            }
+        } finally {
+            closeQuietly(out);
+        }
+
+        if (fingerprintFile.exists() && !fingerprintFile.delete()) {
+            throw new IOException("Could not replace " + fingerprintFile.getAbsolutePath());
+        }
+        if (!tmpFingerprintFile.renameTo(fingerprintFile)) {
+            throw new IOException("Could not rename " + tmpFingerprintFile.getAbsolutePath() + " to " + fingerprintFile.getAbsolutePath());
+        }
+
+        File legacyFingerprintFile = getLegacyFingerprintFile();
+        if (legacyFingerprintFile.exists()) {
+            legacyFingerprintFile.delete();
+        }
+    }
+
+    private void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private void info(String msg) {
+        log.info("[" + msg + "]");
+    }
+
+    /**
+     * A template evaluated for a given entity, composite pk, attribute or enum.
+     */
+    @Getter
+    public static class WorkUnit {
+        private final String key;
+        private final String fingerprint;
+
+        public WorkUnit(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
\ No newline at end of file
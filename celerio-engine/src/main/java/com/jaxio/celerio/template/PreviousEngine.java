@@ -24,23 +24,30 @@ import com.jaxio.celerio.output.SourceFile;
 import com.jaxio.celerio.output.XmlCodeFormatter;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
+import com.jaxio.celerio.util.GenerationMetrics;
 import com.jaxio.celerio.util.IOUtil;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
+import org.apache.velocity.context.Context;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static java.io.File.separatorChar;
 import static java.util.regex.Pattern.*;
 import static org.apache.commons.io.FilenameUtils.normalize;
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.apache.commons.lang.StringUtils.substringBeforeLast;
 import static org.apache.velocity.util.StringUtils.normalizePath;
+import static org.springframework.beans.factory.config.BeanDefinition.SCOPE_PROTOTYPE;
 
 // -----------
 // IMPLEMENTATION NOTE: 
@@ -55,9 +62,13 @@ import static org.apache.velocity.util.StringUtils.normalizePath;
 // In case outputDirectory and baseDir are different
 // having generatedDomainPath different from userDomainPath is not needed as generated code is already clearly separated.
 // That's why in such case we set generatedDomainPath to the same value as userDomainPath (see ProjectFactory code).
+//
+// The 'current' fields below are the state of a single template execution, hence the prototype scope:
+// each TemplateExecution gets its own PreviousEngine so that several templates can be evaluated concurrently.
 // -----------
 
 @Service
+@Scope(SCOPE_PROTOTYPE)
 @Slf4j
 public class PreviousEngine {
     private final static String DYNA_IMPORTS_TAG = "__celerio_dyna_imports__";
@@ -84,6 +95,8 @@ public class PreviousEngine {
     private Config config;
     @Autowired
     private VelocityGenerator velocityGenerator;
+    @Autowired
+    private GenerationMetrics generationMetrics;
     @Getter
     private String currentFullFilename = "";
     private String currentClass = "";
@@ -95,6 +108,12 @@ public class PreviousEngine {
     private OutputResult outputResult;
     private SourceFile userSource;
     private SourceFile generatedSource;
+    private List<DeferredMessage> deferredMessages = newArrayList();
+    // files looked at to decide where and how to generate, see IncrementalGeneration
+    @Getter
+    private Map<String, String> probedFiles = newHashMap();
+    @Getter
+    private boolean sideEffects;
 
     // ----------------------------------------------------------------------
     // Take over related (user extends the generated class + "Base")
@@ -146,6 +165,11 @@ public class PreviousEngine {
             File userJavaFile = null;
             boolean metaModelFileAndAlreadyExistsInGenerated = false;
 
+            if (filename.endsWith("_.java")) {
+                probe(generatedSource, generatedJavaFilename);
+            }
+            probe(userSource, userJavaFilename);
+
             if (filename.endsWith("_.java") && generatedSource.fileExists(generatedJavaFilename)) {
                 metaModelFileAndAlreadyExistsInGenerated = true;
             }
@@ -174,7 +198,7 @@ public class PreviousEngine {
                     comment = setCurrentFilename(filePath, currentClass + ".java", generatedDomainPath);
 
                     if (log.isInfoEnabled()) {
-                        packInfo("TAKE OVER detected, will generate base class: " + currentClass);
+                        defer(DeferredLevel.INFO, "[TAKE OVER detected, will generate base class: " + currentClass + "]");
                     }
                 } else if (metaModelFileAndAlreadyExistsInGenerated) {
                     comment = setCurrentFilename(filePath, filename, generatedDomainPath);
@@ -340,7 +364,17 @@ public class PreviousEngine {
      * This method creates a file and generates the class given a template and the type of template @param templateName the velocity template @param
      * templateType the type of template (schema/table/column)
      */
-    public void processDynamicFile(Map<String, Object> context, TemplatePack templatePack, Template template) throws Exception {
+    public void processDynamicFile(Context context, TemplatePack templatePack, Template template) throws Exception {
+        publishDynamicFile(renderDynamicFile(context, templatePack, template), templatePack, template);
+    }
+
+    /**
+     * Evaluates and formats the given template without writing anything to the output result.
+     * Log messages are kept until {@link #publishDynamicFile(RenderedFile, TemplatePack, Template)} is invoked.
+     *
+     * @return the rendered file or null if nothing must be written.
+     */
+    public RenderedFile renderDynamicFile(Context context, TemplatePack templatePack, Template template) throws Exception {
         try {
             if (!(template.getName().indexOf(".vm.") >= 0 || template.getName().endsWith(".vm"))) {
                 throw new IllegalStateException("not a velocity template!: " + template.getName());
@@ -348,22 +382,27 @@ public class PreviousEngine {
 
             String evaluatedTemplate = null;
 
+            long start = System.nanoTime();
             try {
                 evaluatedTemplate = velocityGenerator.evaluate(context, templatePack, template);
             } catch (StopFileReachedException e) {
-                return;
+                return null;
+            } finally {
+                generationMetrics.templateEvaluated(templatePack.getName(), template.getName(), System.nanoTime() - start);
             }
 
             if (currentFullFilename.endsWith(".donotgenerate")) {
-                return;
+                return null;
             }
             if (isBlank(currentFullFilename)) {
-                log.error("In " + templatePack.getName() + ":" + template.getName() + "  target filename is missing");
-                return;
+                defer(DeferredLevel.ERROR, "In " + templatePack.getName() + ":" + template.getName() + "  target filename is missing");
+                return null;
             }
             if (!config.getCelerio().getConfiguration().hasFilename(templatePack.getName(), currentFullFilename)) {
-                packDebug(templatePack, "SKIPPING:" + currentFullFilename);
-                return;
+                if (log.isDebugEnabled()) {
+                    defer(DeferredLevel.DEBUG, "[" + templatePack.getName() + "][SKIPPING:" + currentFullFilename + "]");
+                }
+                return null;
             }
 
             if (currentEnableDynamicImport) {
@@ -375,26 +414,56 @@ public class PreviousEngine {
             }
 
             if (currentFullFilename.endsWith(".java")) {
-                evaluatedTemplate = eclipseCodeFormatter.format(evaluatedTemplate);
+                File lastFormattedFile = new File(generatedSource.getFullPath(normalize(currentFullFilename)));
+                long formatStart = System.nanoTime();
+                evaluatedTemplate = eclipseCodeFormatter.format(evaluatedTemplate, lastFormattedFile, templatePack.getName());
+                generationMetrics.javaFormatted(System.nanoTime() - formatStart);
             } else if (currentFullFilename.endsWith(".xml") || currentFullFilename.endsWith(".xhtml")) {
+                long formatStart = System.nanoTime();
                 evaluatedTemplate = xmlCodeFormatter.format(evaluatedTemplate);
+                generationMetrics.xmlFormatted(System.nanoTime() - formatStart);
             }
 
-            // generated content is in the string writer
-            if (log.isDebugEnabled()) {
-                packDebug(templatePack, "processing template " + template.getName() + " (" + currentFullFilename + ")");
-            }
-            try {
-                contentWriter.processFile(outputResult, templatePack, template, evaluatedTemplate.getBytes("UTF-8"), currentFullFilename);
-            } catch (Exception e) {
-                log.error("In " + templatePack.getName() + ":" + template.getName() + " template, got exception " + e.getMessage(), e);
-            }
-
+            return new RenderedFile(currentFullFilename, evaluatedTemplate);
         } finally {
             clearDynamicFileContext();
         }
     }
 
+    /**
+     * Replays the log messages kept during the rendering and writes the rendered file (if any) to the output result.
+     */
+    public void publishDynamicFile(RenderedFile renderedFile, TemplatePack templatePack, Template template) throws Exception {
+        flushDeferredMessages();
+        if (renderedFile == null) {
+            return;
+        }
+
+        // generated content is in the string writer
+        if (log.isDebugEnabled()) {
+            packDebug(templatePack, "processing template " + template.getName() + " (" + renderedFile.getFullFilename() + ")");
+        }
+        try {
+            contentWriter.processFile(outputResult, templatePack, template, renderedFile.getContent().getBytes("UTF-8"), renderedFile.getFullFilename());
+        } catch (Exception e) {
+            log.error("In " + templatePack.getName() + ":" + template.getName() + " template, got exception " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Records that files were written during the template evaluation, outside of the regular output.
+     */
+    public void markSideEffects() {
+        sideEffects = true;
+    }
+
+    private void probe(SourceFile sourceFile, String filename) {
+        if (config.isIncrementalGeneration()) {
+            File file = new File(sourceFile.getFullPath(filename));
+            probedFiles.put(file.getAbsolutePath(), IncrementalGeneration.getFileState(file));
+        }
+    }
+
     private void clearDynamicFileContext() {
         currentFullFilename = "";
         currentClass = "";
@@ -403,6 +472,27 @@ public class PreviousEngine {
         currentEnableDynamicImport = false;
     }
 
+    private void defer(DeferredLevel level, String message) {
+        deferredMessages.add(new DeferredMessage(level, message));
+    }
+
+    private void flushDeferredMessages() {
+        for (DeferredMessage deferredMessage : deferredMessages) {
+            switch (deferredMessage.level) {
+                case DEBUG:
+                    log.debug(deferredMessage.message);
+                    break;
+                case INFO:
+                    log.info(deferredMessage.message);
+                    break;
+                case ERROR:
+                    log.error(deferredMessage.message);
+                    break;
+            }
+        }
+        deferredMessages.clear();
+    }
+
     // --------------------------------------------
     // Logging methods
     // --------------------------------------------
@@ -467,4 +557,32 @@ public class PreviousEngine {
     public static class StopFileReachedException extends RuntimeException {
         private static final long serialVersionUID = 1L;
     }
+
+    /**
+     * An evaluated and formatted template, not yet written to the output result.
+     */
+    @Getter
+    public static class RenderedFile {
+        private final String fullFilename;
+        private final String content;
+
+        public RenderedFile(String fullFilename, String content) {
+            this.fullFilename = fullFilename;
+            this.content = content;
+        }
+    }
+
+    private enum DeferredLevel {
+        DEBUG, INFO, ERROR
+    }
+
+    private static class DeferredMessage {
+        private final DeferredLevel level;
+        private final String message;
+
+        DeferredMessage(DeferredLevel level, String message) {
+            this.level = level;
+            this.message = message;
+        }
+    }
 }
\ No newline at end of file
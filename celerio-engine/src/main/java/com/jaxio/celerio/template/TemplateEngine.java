@@ -30,6 +30,11 @@ import com.jaxio.celerio.model.Attribute;
 import com.jaxio.celerio.model.Entity;
 import com.jaxio.celerio.model.EnumType;
 import com.jaxio.celerio.model.Project;
+import com.jaxio.celerio.output.EclipseCodeFormatter;
+import com.jaxio.celerio.output.FolderOutputResult;
+import com.jaxio.celerio.template.IncrementalGeneration.WorkUnit;
+import com.jaxio.celerio.template.PreviousEngine.RenderedFile;
+import com.jaxio.celerio.template.pack.IndexedTemplatePack;
 import com.jaxio.celerio.template.pack.PackLoader;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
@@ -37,14 +42,25 @@ import com.jaxio.celerio.util.BrandUtil;
 import com.jaxio.celerio.util.IdentifiableProperty;
 import com.jaxio.celerio.util.StringUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.Context;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Predicates.not;
@@ -52,6 +68,7 @@ import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.reverse;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Collections.unmodifiableMap;
 
 @Service
 @Slf4j
@@ -70,7 +87,16 @@ public class TemplateEngine {
     @Autowired
     private PackLoader packLoader;
 
-    private Map<String, Object> getGlobalContext() {
+    @Autowired
+    private IncrementalGeneration incrementalGeneration;
+
+    // null when templates are evaluated sequentially
+    private ExecutorService workers;
+
+    // the values shared by all the evaluations of a generation, see newContext()
+    private Context globalContext;
+
+    private Context buildGlobalContext() {
         Map<String, Object> context = newHashMap();
         // static values
         context.put("dollar", "$");
@@ -99,7 +125,15 @@ public class TemplateEngine {
         // identifiable
         context.put("identifiableProperty", new IdentifiableProperty(config.getCelerio().getConfiguration().getConventions().getIdentifiableProperty()));
 
-        return context;
+        return new VelocityContext(unmodifiableMap(context));
+    }
+
+    /**
+     * @return the context of a single evaluation, chained to the global context. The values put by the engine or set by the
+     * template stay in this context, the global one is read only and may be read concurrently by the generation workers.
+     */
+    private Context newContext() {
+        return new VelocityContext(new HashMap<String, Object>(8), globalContext);
     }
 
     private String s(Collection<?> s) {
@@ -107,6 +141,7 @@ public class TemplateEngine {
     }
 
     public void produce(Project project, boolean bootstrapOnly) throws Exception {
+        globalContext = buildGlobalContext();
 
         if (config.getCelerio().getConfiguration().getModules().isEmpty()) {
             log.info("No active module");
@@ -138,7 +173,28 @@ public class TemplateEngine {
         }
 
         config.getOutputResult().open();
+        try {
+            produceTemplates(project, templatePacks, bootstrapOnly);
+        } catch (Exception e) {
+            closeAfterFailure();
+            throw e;
+        }
+        config.getOutputResult().close();
+    }
 
+    /**
+     * Closes the output result after a failed generation, so that what was written is tracked and the next generation opens it again.
+     * A failure to close is only logged, as it would hide the failure of the generation.
+     */
+    public void closeAfterFailure() {
+        try {
+            config.getOutputResult().close();
+        } catch (IOException e) {
+            log.warn("Could not close the output after the failed generation: " + e.getMessage());
+        }
+    }
+
+    private void produceTemplates(Project project, List<TemplatePack> templatePacks, boolean bootstrapOnly) throws Exception {
         // producing bootstrap first
         List<TemplatePack> packReversed = reverse(templatePacks);
         for (TemplatePack templatePack : packReversed) {
@@ -156,20 +212,64 @@ public class TemplateEngine {
             return;
         }
 
-        for (TemplatePack templatePack : templatePacks) {
-            log.info(DASH_LINE);
-            log.info("Template Pack " + templatePack.getName());
+        workers = newWorkers();
+        incrementalGeneration.open();
+        EclipseCodeFormatter eclipseCodeFormatter = applicationContext.getBean(EclipseCodeFormatter.class);
+        eclipseCodeFormatter.open(getFormattingIndexDir());
+        try {
+            for (TemplatePack templatePack : templatePacks) {
+                log.info(DASH_LINE);
+                log.info("Template Pack " + templatePack.getName());
+
+                produceProject(project, templatePack);
+                produceEntities(project, templatePack);
+                produceCompositePk(project, templatePack);
+                produceAttributes(project, templatePack);
+                produceEnums(project, templatePack);
+                produceStaticTemplates(templatePack);
+                produceCelerioExampleTemplates(templatePack);
+            }
+            incrementalGeneration.close();
+            eclipseCodeFormatter.close();
+        } finally {
+            shutdownWorkers();
+        }
+    }
 
-            produceProject(project, templatePack);
-            produceEntities(project, templatePack);
-            produceCompositePk(project, templatePack);
-            produceAttributes(project, templatePack);
-            produceEnums(project, templatePack);
-            produceStaticTemplates(templatePack);
-            produceCelerioExampleTemplates(templatePack);
+    /**
+     * @return the directory where the formatting hashes are kept, null when the output is not a folder.
+     */
+    private File getFormattingIndexDir() {
+        if (config.getOutputResult() instanceof FolderOutputResult) {
+            return new File(config.getOutputResult().getUserSource().getDirectory());
         }
+        return null;
+    }
 
-        config.getOutputResult().close();
+    private ExecutorService newWorkers() {
+        int generationThreads = config.getGenerationThreads();
+        if (generationThreads <= 1) {
+            return null;
+        }
+
+        log.info("Evaluating templates with " + generationThreads + " workers");
+        return Executors.newFixedThreadPool(generationThreads, new ThreadFactory() {
+            private AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "celerio-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private void shutdownWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
     }
 
     private void produceStaticTemplates(TemplatePack templatePack) throws Exception {
@@ -205,78 +305,168 @@ public class TemplateEngine {
 
     private void produceProject(Project project, TemplatePack templatePack) throws Exception, IOException {
         for (String templateName : getTemplateNames(templatePack, TemplateType.project)) {
-            produce(getGlobalContext(), templatePack, templateName);
+            produce(newContext(), templatePack, templateName);
         }
     }
 
     private void produceBootstrap(Project project, TemplatePack templatePack) throws Exception, IOException {
         for (String templateName : getTemplateNames(templatePack, TemplateType.bootstrap)) {
-            produce(getGlobalContext(), templatePack, templateName);
+            produce(newContext(), templatePack, templateName);
         }
     }
 
     private void produceEntities(Project project, TemplatePack templatePack) throws Exception, IOException {
         for (String templateName : getTemplateNames(templatePack, TemplateType.entity)) {
+            List<Context> contexts = newArrayList();
             for (Entity entity : project.getCurrentEntities()) {
                 if (entity.isManyToManyJoinEntity() || entity.isSkip()) {
                     continue;
                 }
-                Map<String, Object> context = getGlobalContext();
+                Context context = newContext();
                 context.put("entity", entity);
                 context.put("primaryKey", entity.getPrimaryKey());
-                produce(context, templatePack, templateName);
+                contexts.add(context);
             }
+            produce(contexts, templatePack, templateName);
         }
     }
 
     private void produceCompositePk(Project project, TemplatePack templatePack) throws Exception, IOException {
         for (String templateName : getTemplateNames(templatePack, TemplateType.compositePrimaryKey)) {
+            List<Context> contexts = newArrayList();
             for (Entity entity : project.getRootEntities().getList()) {
                 if (entity.hasCompositePk() && !entity.isManyToManyJoinEntity() && !entity.isSkip()) {
-                    Map<String, Object> context = getGlobalContext();
+                    Context context = newContext();
                     context.put("entity", entity);
                     context.put("primaryKey", entity.getPrimaryKey());
-                    produce(context, templatePack, templateName);
+                    contexts.add(context);
                 }
             }
+            produce(contexts, templatePack, templateName);
         }
     }
 
     private void produceEnums(Project project, TemplatePack templatePack) throws Exception, IOException {
         for (String templateName : getTemplateNames(templatePack, TemplateType.enumeration)) {
+            List<Context> contexts = newArrayList();
             for (EnumType enumType : project.getEnumTypes()) {
-                Map<String, Object> context = getGlobalContext();
+                Context context = newContext();
                 context.put("enum", enumType);
-                produce(context, templatePack, templateName);
+                contexts.add(context);
             }
+            produce(contexts, templatePack, templateName);
         }
     }
 
     private void produceAttributes(Project project, TemplatePack templatePack) throws Exception, IOException {
         for (String templateName : getTemplateNames(templatePack, TemplateType.attribute)) {
+            List<Context> contexts = newArrayList();
             for (Entity entity : project.getCurrentEntities()) {
                 for (Attribute attribute : entity.getCurrentAttributes()) {
-                    Map<String, Object> context = getGlobalContext();
+                    Context context = newContext();
                     context.put("entity", entity);
                     context.put("attribute", attribute);
-                    produce(context, templatePack, templateName);
+                    contexts.add(context);
                 }
             }
+            produce(contexts, templatePack, templateName);
         }
     }
 
-    private void produce(Map<String, Object> context, TemplatePack templatePack, String templateName) throws Exception {
+    private void produce(Context context, TemplatePack templatePack, String templateName) throws Exception {
+        waitForPreviousTemplates();
         Template template = templatePack.getTemplateByName(templateName);
+        TemplateExecution execution = newTemplateExecution(context, templatePack);
+        execution.write(config.getOutputResult(), context, templatePack, template);
+    }
+
+    /**
+     * Evaluates the same template for each context, except for the work units that are up to date (see {@link IncrementalGeneration}).
+     * When workers are available, the evaluations run concurrently but the rendered files are written in the contexts order,
+     * so the output and the logs are the same as in sequential mode.
+     * Templates themselves are still processed one after the other as a template may depend on files written by a previous one.
+     */
+    private void produce(List<Context> contexts, TemplatePack templatePack, String templateName) throws Exception {
+        waitForPreviousTemplates();
+        Template template = templatePack.getTemplateByName(templateName);
+
+        if (workers == null || contexts.size() < 2) {
+            for (Context context : contexts) {
+                WorkUnit workUnit = incrementalGeneration.newWorkUnit(templatePack, template, context);
+                if (incrementalGeneration.isUpToDate(workUnit)) {
+                    continue;
+                }
+                TemplateExecution execution = newTemplateExecution(context, templatePack);
+                RenderedFile renderedFile = execution.render(config.getOutputResult(), context, templatePack, template);
+                execution.publish(renderedFile);
+                incrementalGeneration.generated(workUnit, execution, renderedFile);
+            }
+            return;
+        }
+
+        List<WorkUnit> workUnits = newArrayList();
+        List<TemplateExecution> executions = newArrayList();
+        List<Future<RenderedFile>> renderedFiles = newArrayList();
+        for (Context context : contexts) {
+            WorkUnit workUnit = incrementalGeneration.newWorkUnit(templatePack, template, context);
+            if (incrementalGeneration.isUpToDate(workUnit)) {
+                continue;
+            }
+            TemplateExecution execution = newTemplateExecution(context, templatePack);
+            workUnits.add(workUnit);
+            executions.add(execution);
+            renderedFiles.add(workers.submit(new RenderTask(execution, context, templatePack, template)));
+        }
+
+        try {
+            for (int i = 0; i < executions.size(); i++) {
+                RenderedFile renderedFile = getRenderedFile(renderedFiles.get(i));
+                executions.get(i).publish(renderedFile);
+                incrementalGeneration.generated(workUnits.get(i), executions.get(i), renderedFile);
+            }
+        } finally {
+            for (Future<RenderedFile> renderedFile : renderedFiles) {
+                renderedFile.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Files are written in the background, make sure the ones produced by the previous templates are on disk.
+     */
+    private void waitForPreviousTemplates() throws IOException {
+        if (config.getOutputResult() instanceof FolderOutputResult) {
+            ((FolderOutputResult) config.getOutputResult()).flush();
+        }
+    }
+
+    private TemplateExecution newTemplateExecution(Context context, TemplatePack templatePack) {
         context.put("pack", templatePack.getTemplatePackInfo());
         TemplateExecution execution = applicationContext.getBean("templateExecution", TemplateExecution.class);
         context.put("output", execution);
-        execution.write(config.getOutputResult(), context, templatePack, template);
+        return execution;
+    }
+
+    private RenderedFile getRenderedFile(Future<RenderedFile> renderedFile) throws Exception {
+        try {
+            return renderedFile.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
     }
 
     private List<String> getTemplateNames(TemplatePack templatePack, final TemplateType templateType) {
-        Predicate<String> matcher = and(new VelocityNameMatcher(templateType), new TemplateMatcher(templatePack));
-        matcher = and(matcher, not(new CelerioTemplateExampleMatcher()));
-        return newArrayList(filter(templatePack.getTemplateNames(), matcher));
+        Predicate<String> matcher = and(new TemplateMatcher(templatePack), not(new CelerioTemplateExampleMatcher()));
+        if (templatePack instanceof IndexedTemplatePack) {
+            return newArrayList(filter(((IndexedTemplatePack) templatePack).getTemplateNames(templateType), matcher));
+        }
+        return newArrayList(filter(templatePack.getTemplateNames(), and(new VelocityNameMatcher(templateType), matcher)));
     }
 
     private List<String> getStaticTemplateNames(TemplatePack templatePack) {
@@ -347,4 +537,23 @@ public class TemplateEngine {
             return relativePathAndTemplateName.contains("src\\main\\celerio-example") || relativePathAndTemplateName.startsWith("src/main/celerio-example");
         }
     }
+
+    private class RenderTask implements Callable<RenderedFile> {
+        private TemplateExecution execution;
+        private Context context;
+        private TemplatePack templatePack;
+        private Template template;
+
+        public RenderTask(TemplateExecution execution, Context context, TemplatePack templatePack, Template template) {
+            this.execution = execution;
+            this.context = context;
+            this.templatePack = templatePack;
+            this.template = template;
+        }
+
+        @Override
+        public RenderedFile call() throws Exception {
+            return execution.render(config.getOutputResult(), context, templatePack, template);
+        }
+    }
 }
@@ -29,12 +29,14 @@ import com.jaxio.celerio.model.support.EnumNamer;
 import com.jaxio.celerio.model.support.PackageImport;
 import com.jaxio.celerio.output.OutputResult;
 import com.jaxio.celerio.support.Namer;
+import com.jaxio.celerio.template.PreviousEngine.RenderedFile;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.velocity.context.Context;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -590,19 +592,53 @@ public class TemplateExecution {
         return "";
     }
 
-    protected void write(OutputResult outputResult, Map<String, Object> context, TemplatePack templatePack, Template template) throws Exception {
+    protected void write(OutputResult outputResult, Context context, TemplatePack templatePack, Template template) throws Exception {
         this.templatePack = templatePack;
         this.template = template;
         previousEngine.setOutputResult(outputResult);
         previousEngine.processDynamicFile(context, templatePack, template);
     }
 
+    /**
+     * Evaluate the template without writing it. May be invoked from a generation worker thread.
+     *
+     * @see #publish(RenderedFile)
+     */
+    protected RenderedFile render(OutputResult outputResult, Context context, TemplatePack templatePack, Template template) throws Exception {
+        this.templatePack = templatePack;
+        this.template = template;
+        previousEngine.setOutputResult(outputResult);
+        return previousEngine.renderDynamicFile(context, templatePack, template);
+    }
+
+    /**
+     * Write the file previously rendered by this execution.
+     */
+    protected void publish(RenderedFile renderedFile) throws Exception {
+        previousEngine.publishDynamicFile(renderedFile, templatePack, template);
+    }
+
+    /**
+     * The state of the files looked at during the evaluation, by full path.
+     */
+    protected Map<String, String> getProbedFiles() {
+        return previousEngine.getProbedFiles();
+    }
+
+    /**
+     * Whether the evaluation wrote files by itself, see {@link #createMetaModelTakeOver(ClassNamer, String)}.
+     */
+    protected boolean hasSideEffects() {
+        return previousEngine.isSideEffects();
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.reflectionToString(this);
     }
 
     public void createMetaModelTakeOver(ClassNamer entityModel, String content) {
+        previousEngine.markSideEffects();
         try {
             // we create automatically the take over only if the user has not himself for whatever reason 
             // taken over the meta model. BDF reported it as EVOSOCLE-283
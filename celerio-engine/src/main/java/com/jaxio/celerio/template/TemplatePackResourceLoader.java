@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template;
+
+import com.jaxio.celerio.template.pack.Template;
+import com.jaxio.celerio.template.pack.TemplatePack;
+import org.apache.commons.collections.ExtendedProperties;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.resource.Resource;
+import org.apache.velocity.runtime.resource.loader.ResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Velocity resource loader serving the templates of the template packs, so that they can be compiled once by Velocity.
+ * The templates are registered by the {@link VelocityGenerator} under the {@link #TEMPLATES} application attribute, by
+ * {@link #getResourceName(TemplatePack, Template) resource name}. Other names are left to the next resource loaders.
+ * Caching is left to the {@link VelocityGenerator}.
+ */
+public class TemplatePackResourceLoader extends ResourceLoader {
+    public static final String TEMPLATES = TemplatePackResourceLoader.class.getName() + ".templates";
+    private static final String PREFIX = "celerio-pack:";
+
+    /**
+     * Returns the name identifying the passed template among all the packs, as templates of different packs may share the same name.
+     */
+    public static String getResourceName(TemplatePack templatePack, Template template) {
+        return PREFIX + templatePack.getName() + ":" + template.getName();
+    }
+
+    @Override
+    public void init(ExtendedProperties configuration) {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public InputStream getResourceStream(String name) throws ResourceNotFoundException {
+        Map<String, Template> templates = (Map<String, Template>) rsvc.getApplicationAttribute(TEMPLATES);
+        Template template = templates != null && name.startsWith(PREFIX) ? templates.get(name) : null;
+        if (template == null) {
+            throw new ResourceNotFoundException("TemplatePackResourceLoader: cannot find template " + name);
+        }
+        return new ByteArrayInputStream(template.getBytes());
+    }
+
+    @Override
+    public boolean isSourceModified(Resource resource) {
+        return false;
+    }
+
+    @Override
+    public long getLastModified(Resource resource) {
+        return 0;
+    }
+}
\ No newline at end of file
@@ -20,18 +20,21 @@ import com.jaxio.celerio.template.PreviousEngine.StopFileReachedException;
 import com.jaxio.celerio.template.pack.Template;
 import com.jaxio.celerio.template.pack.TemplatePack;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.context.Context;
 import org.apache.velocity.exception.MethodInvocationException;
 import org.apache.velocity.exception.ParseErrorException;
 import org.apache.velocity.exception.VelocityException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.MatchResult;
 
 import static java.lang.Integer.parseInt;
@@ -47,10 +50,25 @@ public class VelocityGenerator {
     @Autowired
     private VelocityEngine engine;
 
-    public String evaluate(Map<String, Object> context, TemplatePack templatePack, Template template) throws IOException {
+    /**
+     * Templates served to Velocity by the {@link TemplatePackResourceLoader}, by resource name.
+     */
+    private final Map<String, Template> templates = new ConcurrentHashMap<String, Template>();
+
+    /**
+     * Compiled templates, by resource name. A compiled template is thread safe and is merged once per generated file.
+     */
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<String, CompiledTemplate>();
+
+    @PostConstruct
+    public void registerTemplates() {
+        engine.setApplicationAttribute(TemplatePackResourceLoader.TEMPLATES, templates);
+    }
+
+    public String evaluate(Context context, TemplatePack templatePack, Template template) throws IOException {
         StringWriter sw = new StringWriter();
         try {
-            engine.evaluate(new VelocityContext(context), sw, template.getName(), template.getTemplate());
+            getCompiledTemplate(templatePack, template).merge(context, sw);
             return sw.toString();
         } catch (ParseErrorException parseException) {
             handleStopFileGeneration(parseException);
@@ -68,6 +86,32 @@ public class VelocityGenerator {
         }
     }
 
+    /**
+     * Returns the compiled form of the passed template. The template is parsed only the first time it is seen or when its content has changed.
+     */
+    private org.apache.velocity.Template getCompiledTemplate(TemplatePack templatePack, Template template) throws IOException {
+        String resourceName = TemplatePackResourceLoader.getResourceName(templatePack, template);
+        CompiledTemplate compiledTemplate = compiledTemplates.get(resourceName);
+        if (compiledTemplate == null || !compiledTemplate.isCompiledFrom(template)) {
+            compiledTemplate = new CompiledTemplate(template.getBytes(), compile(resourceName, template));
+            compiledTemplates.put(resourceName, compiledTemplate);
+        }
+        return compiledTemplate.getVelocityTemplate();
+    }
+
+    private org.apache.velocity.Template compile(String resourceName, Template template) throws IOException {
+        templates.put(resourceName, template);
+        try {
+            return engine.getTemplate(resourceName, template.getEncoding());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not compile template " + template.getName(), e);
+        }
+    }
+
     public void handleStopFileGeneration(VelocityException exception) {
         if (exception.getCause() instanceof StopFileReachedException) {
             throw new StopFileReachedException();
@@ -114,4 +158,22 @@ public class VelocityGenerator {
     private String prefix(TemplatePack templatePack, Template template, String message) {
         return "[" + templatePack.getName() + ":" + getName(template.getName()) + ":" + message + "]";
     }
+
+    private static class CompiledTemplate {
+        private final byte[] bytes;
+        private final org.apache.velocity.Template velocityTemplate;
+
+        CompiledTemplate(byte[] bytes, org.apache.velocity.Template velocityTemplate) {
+            this.bytes = bytes;
+            this.velocityTemplate = velocityTemplate;
+        }
+
+        boolean isCompiledFrom(Template template) {
+            return bytes == template.getBytes() || Arrays.equals(bytes, template.getBytes());
+        }
+
+        org.apache.velocity.Template getVelocityTemplate() {
+            return velocityTemplate;
+        }
+    }
 }
\ No newline at end of file
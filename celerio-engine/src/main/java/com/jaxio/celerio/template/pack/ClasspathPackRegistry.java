@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template.pack;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jaxio.celerio.configuration.pack.CelerioPack;
+import com.jaxio.celerio.configuration.support.CelerioPackConfigLoader;
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.jaxio.celerio.configuration.Util.CLASSPATH_CELERIO_PACK;
+import static org.apache.commons.io.FilenameUtils.normalize;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.toByteArray;
+
+/**
+ * The template packs found on the classpath, scanned once per class loader.
+ * <p>
+ * The first lookup resolves every <code>META-INF/celerio-pack.xml</code> and lists the resources of each pack. Template
+ * contents are read on first use and kept, so that all the generations running in the same JVM share a single scan.
+ * The registry only holds what is read from the jars: each caller builds its own {@link TemplatePackInfo} on top of it,
+ * as pack properties may be overridden by the configuration.
+ * <p>
+ * A registry holds resources that reference their class loader, so it is softly referenced: a plugin or daemon class
+ * loader can be collected once the registry is dropped, under memory pressure or by {@link #invalidate()}.
+ */
+@Slf4j
+public final class ClasspathPackRegistry {
+    private static final Cache<ClassLoader, ClasspathPackRegistry> registries = CacheBuilder.newBuilder().weakKeys().softValues().build();
+
+    @Getter
+    private final List<RegisteredPack> packs;
+
+    private ClasspathPackRegistry(List<RegisteredPack> packs) {
+        this.packs = Collections.unmodifiableList(packs);
+    }
+
+    /**
+     * Returns the registry of the current class loader, scanning the classpath if it is the first lookup.
+     */
+    public static ClasspathPackRegistry get(final CelerioPackConfigLoader celerioPackConfigLoader) {
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        if (classLoader == null) {
+            classLoader = ClasspathPackRegistry.class.getClassLoader();
+        }
+        final ClassLoader scannedClassLoader = classLoader;
+        try {
+            return registries.get(scannedClassLoader, new Callable<ClasspathPackRegistry>() {
+                @Override
+                public ClasspathPackRegistry call() throws IOException {
+                    return scan(scannedClassLoader, celerioPackConfigLoader);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not load the template packs", e.getCause());
+        }
+    }
+
+    /**
+     * Forgets the registries scanned so far, the next lookup scans the classpath again.
+     */
+    public static void invalidate() {
+        registries.invalidateAll();
+    }
+
+    private static ClasspathPackRegistry scan(ClassLoader classLoader, CelerioPackConfigLoader celerioPackConfigLoader) throws IOException {
+        long start = System.currentTimeMillis();
+        List<RegisteredPack> packs = newArrayList();
+        PathMatchingResourcePatternResolver o = new PathMatchingResourcePatternResolver(classLoader);
+        for (Resource info : o.getResources(CLASSPATH_CELERIO_PACK)) {
+            CelerioPack celerioPack = celerioPackConfigLoader.load(info.getInputStream());
+            String packName = celerioPack.getPackName().getValue();
+            Resource templatesAsResources[] = o.getResources("classpath*:/celerio/" + packName + "/**/*");
+            packs.add(new RegisteredPack(celerioPack, packName, templatesAsResources));
+        }
+        log.debug("Scanned " + packs.size() + " template pack(s) on the classpath in " + (System.currentTimeMillis() - start) + " ms");
+        return new ClasspathPackRegistry(packs);
+    }
+
+    /**
+     * The resources of a pack, its templates indexed by name and by type.
+     */
+    public static final class RegisteredPack {
+        @Getter
+        private final CelerioPack celerioPack;
+        private final TemplateNameIndex templateNameIndex;
+        private final Map<String, Resource> resources = newHashMap();
+        private final ConcurrentMap<String, byte[]> contents = new ConcurrentHashMap<String, byte[]>();
+
+        RegisteredPack(CelerioPack celerioPack, String packName, Resource[] templatesAsResources) throws IOException {
+            this.celerioPack = celerioPack;
+            String root = "celerio/" + packName + "/";
+            for (Resource r : templatesAsResources) {
+                String templateName = r.getURI().toString();
+                if (!templateName.endsWith("/")) {
+                    templateName = normalize(templateName.substring(templateName.indexOf(root) + root.length()));
+                    resources.put(templateName, r);
+                }
+            }
+            templateNameIndex = new TemplateNameIndex(resources.keySet());
+        }
+
+        public List<String> getTemplateNames() {
+            return templateNameIndex.getTemplateNames();
+        }
+
+        public List<String> getTemplateNames(TemplateType templateType) {
+            return templateNameIndex.getTemplateNames(templateType);
+        }
+
+        /**
+         * @return the template content, read from the classpath on first use, or null if the pack has no such template.
+         */
+        public byte[] getContent(String templateName) throws IOException {
+            byte[] content = contents.get(templateName);
+            if (content == null) {
+                Resource resource = resources.get(templateName);
+                if (resource == null) {
+                    return null;
+                }
+                InputStream is = resource.getInputStream();
+                try {
+                    content = toByteArray(is);
+                } finally {
+                    closeQuietly(is);
+                }
+                contents.putIfAbsent(templateName, content);
+            }
+            return content;
+        }
+    }
+}
\ No newline at end of file
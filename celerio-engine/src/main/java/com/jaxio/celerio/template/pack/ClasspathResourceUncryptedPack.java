@@ -16,47 +16,32 @@
 
 package com.jaxio.celerio.template.pack;
 
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+import com.jaxio.celerio.template.pack.ClasspathPackRegistry.RegisteredPack;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
-import static org.apache.commons.io.FilenameUtils.normalize;
-import static org.apache.commons.io.IOUtils.toByteArray;
 import static org.springframework.beans.factory.config.BeanDefinition.SCOPE_PROTOTYPE;
 
 @Scope(SCOPE_PROTOTYPE)
-public class ClasspathResourceUncryptedPack implements TemplatePack {
+public class ClasspathResourceUncryptedPack implements IndexedTemplatePack {
 
     private TemplatePackInfo templatePackInfo;
-    private List<String> templateNames = newArrayList();
-    private Map<String, Template> templates = newHashMap();
+    private RegisteredPack registeredPack;
+    private ConcurrentMap<String, Template> templates = new ConcurrentHashMap<String, Template>();
 
     public ClasspathResourceUncryptedPack(TemplatePackInfo templatePackInfo, Resource[] templatesAsResources) throws IOException {
-        this.templatePackInfo = templatePackInfo;
-
-        for (Resource r : templatesAsResources) {
-            if (!isFolder(r)) {
-                String templateName = r.getURI().toString();
-                String root = "celerio/" + templatePackInfo.getName() + "/";
-                templateName = normalize(templateName.substring(templateName.indexOf(root) + root.length()));
-
-                templateNames.add(templateName);
-
-                Template template = new Template(templateName, templatePackInfo, toByteArray(r.getInputStream()));
-                templates.put(templateName, template);
-            }
-        }
+        this(templatePackInfo, new RegisteredPack(null, templatePackInfo.getName(), templatesAsResources));
+    }
 
-        // Force execution order to natural ordering.
-        // Important otherwise it behaves differently on Mac/Linux.
-        // Note: thanks to Jean-LouisL Boudart for reporting this.
-        Collections.sort(templateNames);
+    public ClasspathResourceUncryptedPack(TemplatePackInfo templatePackInfo, RegisteredPack registeredPack) {
+        this.templatePackInfo = templatePackInfo;
+        this.registeredPack = registeredPack;
     }
 
     // -----------------------------------------
@@ -75,22 +60,35 @@ public class ClasspathResourceUncryptedPack implements TemplatePack {
 
     @Override
     public List<String> getTemplateNames() {
-        return Collections.unmodifiableList(templateNames);
+        return registeredPack.getTemplateNames();
+    }
+
+    @Override
+    public List<String> getTemplateNames(TemplateType templateType) {
+        return registeredPack.getTemplateNames(templateType);
     }
 
     @Override
     public Template getTemplateByName(String templateName) throws IOException {
-        return templates.get(templateName);
+        Template template = templates.get(templateName);
+        if (template == null) {
+            byte[] content = registeredPack.getContent(templateName);
+            if (content == null) {
+                return null;
+            }
+            template = new Template(templateName, templatePackInfo, content);
+            Template previous = templates.putIfAbsent(templateName, template);
+            if (previous != null) {
+                template = previous;
+            }
+        }
+        return template;
     }
 
     // -----------------------------------------
-    // Helper & toString
+    // toString
     // -----------------------------------------
 
-    private boolean isFolder(Resource r) throws IOException {
-        return r.getURI().toString().endsWith("/");
-    }
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(getName());
@@ -16,42 +16,30 @@
 
 package com.jaxio.celerio.template.pack;
 
-import com.jaxio.celerio.configuration.pack.CelerioPack;
 import com.jaxio.celerio.configuration.support.CelerioPackConfigLoader;
+import com.jaxio.celerio.template.pack.ClasspathPackRegistry.RegisteredPack;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.jaxio.celerio.configuration.Util.CLASSPATH_CELERIO_PACK;
 
+/**
+ * Returns the template packs found on the classpath. The scan is done once per JVM by the {@link ClasspathPackRegistry},
+ * each call returns new packs so that their properties can be overridden independently.
+ */
 @Service
 public class ClasspathResourceUncryptedPackLoader {
 
     @Autowired
     private CelerioPackConfigLoader celerioPackConfigLoader;
 
-
     public List<TemplatePack> getPacks() {
         List<TemplatePack> packs = newArrayList();
-        try {
-            PathMatchingResourcePatternResolver o = new PathMatchingResourcePatternResolver();
-            Resource infos[] = o.getResources(CLASSPATH_CELERIO_PACK);
-
-            for (Resource info : infos) {
-                CelerioPack celerioPack = celerioPackConfigLoader.load(info.getInputStream());
-                TemplatePackInfo templatePackInfo = new TemplatePackInfo(celerioPack);
-                Resource templatesAsResources[] = o.getResources("classpath*:/celerio/" + templatePackInfo.getName() + "/**/*");
-                packs.add(new ClasspathResourceUncryptedPack(templatePackInfo, templatesAsResources));
-            }
-
-            return packs;
-        } catch (IOException e) {
-            throw new RuntimeException("Could not load the template packs", e);
+        for (RegisteredPack registeredPack : ClasspathPackRegistry.get(celerioPackConfigLoader).getPacks()) {
+            packs.add(new ClasspathResourceUncryptedPack(new TemplatePackInfo(registeredPack.getCelerioPack()), registeredPack));
         }
+        return packs;
     }
-}
+}
\ No newline at end of file
@@ -16,18 +16,14 @@
 
 package com.jaxio.celerio.template.pack;
 
-import com.jaxio.celerio.configuration.pack.CelerioPack;
 import com.jaxio.celerio.configuration.support.CelerioPackConfigLoader;
+import com.jaxio.celerio.template.pack.ClasspathPackRegistry.RegisteredPack;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.jaxio.celerio.configuration.Util.CLASSPATH_CELERIO_PACK;
 
 @Service
 public class ClasspathTemplatePackInfoLoader {
@@ -36,18 +32,9 @@ public class ClasspathTemplatePackInfoLoader {
 
     public List<TemplatePackInfo> resolveTopLevelPacks() {
         List<TemplatePackInfo> packInfos = newArrayList();
-        PathMatchingResourcePatternResolver o = new PathMatchingResourcePatternResolver();
-
-        try {
-            Resource packInfosAsResource[] = o.getResources(CLASSPATH_CELERIO_PACK);
-            for (Resource r : packInfosAsResource) {
-                CelerioPack celerioPack = celerioPackConfigLoader.load(r.getInputStream());
-                packInfos.add(new TemplatePackInfo(celerioPack));
-            }
-
-            return packInfos;
-        } catch (IOException ioe) {
-            throw new RuntimeException("Error while searching for Celerio template pack having a META-INF/celerio-pack.xml file!", ioe);
+        for (RegisteredPack registeredPack : ClasspathPackRegistry.get(celerioPackConfigLoader).getPacks()) {
+            packInfos.add(new TemplatePackInfo(registeredPack.getCelerioPack()));
         }
+        return packInfos;
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template.pack;
+
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+
+import java.util.List;
+
+/**
+ * A template pack that knows, without filtering, which of its templates are of a given type.
+ */
+public interface IndexedTemplatePack extends TemplatePack {
+
+    /**
+     * Returns the names of the templates of the given type, in the order of getTemplateNames().
+     */
+    List<String> getTemplateNames(TemplateType templateType);
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template.pack;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+import com.jaxio.celerio.util.IOUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.apache.commons.io.FileUtils.readFileToByteArray;
+import static org.apache.commons.io.FilenameUtils.normalize;
+
+/**
+ * Index of a local template pack folder, shared by all the generations running in the same JVM.
+ * <p>
+ * The folder is listed once. Adding, removing or renaming a file changes the last modification time of its folder, so
+ * the index is reused as long as no folder of the pack has been modified. Template contents are read on first use and
+ * read again only when the file size or last modification time changes.
+ * <p>
+ * As with git racily clean entries, a timestamp that is too close to the time it was recorded may hide a modification
+ * done in the same second: such entries are not trusted.
+ */
+final class LocalPackIndex {
+    private static final long TIMESTAMP_RESOLUTION = 1000;
+    private static final int MAX_PACKS = 32;
+
+    /**
+     * Bounded, and softly referenced as an index holds the template contents: a long running daemon generating many projects
+     * only keeps the packs it used recently, and lists them again when needed.
+     */
+    private static final Cache<String, LocalPackIndex> indexes = CacheBuilder.newBuilder().maximumSize(MAX_PACKS).softValues().build();
+
+    private final String packAbsolutePath;
+    private final long listedAt;
+    private final Map<File, Long> folderTimestamps = newHashMap();
+    private final TemplateNameIndex templateNameIndex;
+    private final ConcurrentMap<String, FileContent> contents = new ConcurrentHashMap<String, FileContent>();
+
+    private LocalPackIndex(String packAbsolutePath) {
+        this.packAbsolutePath = packAbsolutePath;
+        this.listedAt = System.currentTimeMillis();
+        collectFolderTimestamps(new File(packAbsolutePath));
+        List<String> names = newArrayList();
+        for (String absoluteFilename : new IOUtil().listFiles(new File(packAbsolutePath))) {
+            names.add(absoluteFilename.substring(packAbsolutePath.length() + 1));
+        }
+        templateNameIndex = new TemplateNameIndex(names);
+    }
+
+    /**
+     * Returns the index of the given pack folder, listing it again only if it has been modified since the last call.
+     */
+    static LocalPackIndex get(String packAbsolutePath) {
+        LocalPackIndex index = indexes.getIfPresent(packAbsolutePath);
+        if (index == null || !index.isUpToDate()) {
+            index = new LocalPackIndex(packAbsolutePath);
+            indexes.put(packAbsolutePath, index);
+        }
+        return index;
+    }
+
+    List<String> getTemplateNames() {
+        return templateNameIndex.getTemplateNames();
+    }
+
+    List<String> getTemplateNames(TemplateType templateType) {
+        return templateNameIndex.getTemplateNames(templateType);
+    }
+
+    boolean contains(String templateName) {
+        return templateNameIndex.contains(templateName);
+    }
+
+    /**
+     * @return the last modification time and size of each indexed file, by absolute path. Files are looked up one by one, the folders
+     * are not listed again.
+     */
+    Map<String, String> getFileStamps() {
+        Map<String, String> stamps = newHashMap();
+        for (String templateName : getTemplateNames()) {
+            File file = new File(packAbsolutePath + File.separatorChar + templateName);
+            stamps.put(file.getAbsolutePath(), file.lastModified() + "/" + file.length());
+        }
+        return stamps;
+    }
+
+    byte[] getContent(String templateName) throws IOException {
+        File file = new File(normalize(packAbsolutePath + File.separatorChar + templateName));
+        long lastModified = file.lastModified();
+        long length = file.length();
+        FileContent content = contents.get(templateName);
+        if (content == null || !content.isSame(lastModified, length)) {
+            long readAt = System.currentTimeMillis();
+            content = new FileContent(lastModified, length, readAt, readFileToByteArray(file));
+            contents.put(templateName, content);
+        }
+        return content.bytes;
+    }
+
+    private boolean isUpToDate() {
+        for (Map.Entry<File, Long> folderTimestamp : folderTimestamps.entrySet()) {
+            long lastModified = folderTimestamp.getKey().lastModified();
+            if (lastModified != folderTimestamp.getValue() || isRacy(lastModified, listedAt)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void collectFolderTimestamps(File folder) {
+        folderTimestamps.put(folder, folder.lastModified());
+        File[] children = folder.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            // same folders as IOUtil.listFiles
+            if (child.isDirectory() && !child.getName().equals(".svn") && !child.getName().equals("CVS")) {
+                collectFolderTimestamps(child);
+            }
+        }
+    }
+
+    private static boolean isRacy(long lastModified, long recordedAt) {
+        return lastModified >= recordedAt - TIMESTAMP_RESOLUTION;
+    }
+
+    private static final class FileContent {
+        final long lastModified;
+        final long length;
+        final long readAt;
+        final byte[] bytes;
+
+        FileContent(long lastModified, long length, long readAt, byte[] bytes) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.readAt = readAt;
+            this.bytes = bytes;
+        }
+
+        boolean isSame(long lastModified, long length) {
+            return this.lastModified == lastModified && this.length == length && !isRacy(lastModified, readAt);
+        }
+    }
+}
\ No newline at end of file
@@ -16,23 +16,22 @@
 
 package com.jaxio.celerio.template.pack;
 
-import com.jaxio.celerio.util.IOUtil;
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
 import org.springframework.util.Assert;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static org.apache.commons.io.FilenameUtils.normalize;
-import static org.apache.commons.io.IOUtils.closeQuietly;
-import static org.apache.commons.io.IOUtils.toByteArray;
 
-public class LocalResourcePackFile implements TemplatePack {
+public class LocalResourcePackFile implements IndexedTemplatePack {
     private String packAbsolutePath;
     private TemplatePackInfo templatePackInfo;
+    private LocalPackIndex index;
+    private ConcurrentMap<String, Template> templates = new ConcurrentHashMap<String, Template>();
 
     public LocalResourcePackFile(TemplatePackInfo templatePackInfo, File packRoot) throws IOException {
         this.templatePackInfo = templatePackInfo;
@@ -54,21 +53,25 @@ public class LocalResourcePackFile implements TemplatePack {
 
     @Override
     public List<String> getTemplateNames() {
-        List<String> unfilteredTemplateFiles = newArrayList();
-        for (String absoluteFilename : new IOUtil().listFiles(new File(this.packAbsolutePath))) {
-            unfilteredTemplateFiles.add(remove(absoluteFilename));
-        }
+        return getIndex().getTemplateNames();
+    }
 
-        // Force execution order to natural ordering
-        // by analogy with ClasspathResourceUncryptedPack even if here
-        // it is probably not necessary.
-        Collections.sort(unfilteredTemplateFiles);
-        return unfilteredTemplateFiles;
+    @Override
+    public List<String> getTemplateNames(TemplateType templateType) {
+        return getIndex().getTemplateNames(templateType);
     }
 
     @Override
     public Template getTemplateByName(String template) throws IOException {
-        return new Template(template, null, getAsByteArray(normalize(template)));
+        Template result = templates.get(template);
+        if (result == null) {
+            result = new Template(template, null, getAsByteArray(normalize(template)));
+            Template previous = templates.putIfAbsent(template, result);
+            if (previous != null) {
+                result = previous;
+            }
+        }
+        return result;
     }
 
     // -----------------------------------------
@@ -82,12 +85,18 @@ public class LocalResourcePackFile implements TemplatePack {
         return result;
     }
 
-    private String remove(String absoluteFilename) {
-        return absoluteFilename.substring(packAbsolutePath.length() + 1);
+    /**
+     * The pack folder is indexed on first use, the index is shared with the other instances of the same pack.
+     */
+    private synchronized LocalPackIndex getIndex() {
+        if (index == null) {
+            index = LocalPackIndex.get(packAbsolutePath);
+        }
+        return index;
     }
 
     private boolean containsTemplate(String templateName) {
-        return getTemplateNames().contains(templateName);
+        return getIndex().contains(templateName);
     }
 
     /**
@@ -100,20 +109,10 @@ public class LocalResourcePackFile implements TemplatePack {
         if (!containsTemplate(template)) {
             throw new IllegalArgumentException("Template " + template + " is not a template");
         }
-        java.io.InputStream is = null;
-        try {
-            is = new FileInputStream(getAbsoluteTemplate(template));
-            return toByteArray(is);
-        } finally {
-            closeQuietly(is);
-        }
+        return getIndex().getContent(template);
     }
 
     private boolean isTemplateGivenAsAnAbsoluteFile(String template) {
         return normalize(template).startsWith(packAbsolutePath);
     }
-
-    private String getAbsoluteTemplate(String template) {
-        return normalize(packAbsolutePath + File.separatorChar + template);
-    }
 }
@@ -27,8 +27,10 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.jaxio.celerio.configuration.Util.LOCAL_CELERIO_PACK;
 
 @Service
@@ -60,6 +62,39 @@ public class PackLoader {
         return !getTemplatePacks().isEmpty();
     }
 
+    /**
+     * @return the root folders of the enabled packs defined in a local folder.
+     */
+    public List<File> getLocalPackRoots() {
+        List<File> packRoots = newArrayList();
+        for (Pack packInConfig : config.getCelerio().getConfiguration().getPacks()) {
+            if (packInConfig.isEnable() && packInConfig.hasPath() && packInConfig.hasName()) {
+                packRoots.add(getLocalPackRoot(packInConfig));
+            }
+        }
+        return packRoots;
+    }
+
+    /**
+     * @return the last modification time and size of the templates of the local packs, by absolute path. A pack folder is listed again
+     * only when one of its folders has been modified, see {@link LocalPackIndex}.
+     */
+    public Map<String, String> getLocalTemplateStamps() {
+        Map<String, String> stamps = newHashMap();
+        for (File packRoot : getLocalPackRoots()) {
+            File templateFolder = new File(packRoot, "celerio");
+            if (templateFolder.isDirectory()) {
+                stamps.putAll(LocalPackIndex.get(templateFolder.getAbsolutePath()).getFileStamps());
+            }
+        }
+        return stamps;
+    }
+
+    private File getLocalPackRoot(Pack packInConfig) {
+        // the root is the folder that contains both "celerio" folder and "META-INF" folder
+        return new File(config.getBaseDir() + File.separatorChar + packInConfig.getPath());
+    }
+
     private void addPacksFoundInClassPath(List<TemplatePack> packs) {
         for (TemplatePack resourcePack : getAllTemplatePacksFromClasspath()) {
             if (!config.getCelerio().getConfiguration().isPackEnabled(resourcePack.getName())) {
@@ -81,8 +116,7 @@ public class PackLoader {
 
             // pack in local folder
             if (packInConfig.hasPath() && packInConfig.hasName()) {
-                // the root is the folder that contains both "celerio" folder and "META-INF" folder
-                File packRoot = new File(config.getBaseDir() + File.separatorChar + packInConfig.getPath());
+                File packRoot = getLocalPackRoot(packInConfig);
                 if (packRoot.exists()) {
                     try {
                         File celerioPackXml = new File(packRoot, LOCAL_CELERIO_PACK);
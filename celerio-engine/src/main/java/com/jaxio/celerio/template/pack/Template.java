@@ -26,6 +26,7 @@ public class Template {
     private String name;
     private TemplatePackInfo templatePackInfo;
     private byte[] bytes;
+    private String encoding;
 
     public Template(String name, TemplatePackInfo templatePackInfo, byte[] bytes) {
         this.name = name;
@@ -42,7 +43,10 @@ public class Template {
     }
 
     public String getEncoding() {
-        return new CharsetToolkit(getBytes()).guessEncoding().displayName();
+        if (encoding == null) {
+            encoding = new CharsetToolkit(getBytes()).guessEncoding().displayName();
+        }
+        return encoding;
     }
 
     @Override
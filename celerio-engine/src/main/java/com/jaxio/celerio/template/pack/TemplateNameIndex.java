@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template.pack;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+
+/**
+ * The template names of a pack, sorted and grouped by {@link TemplateType}.
+ */
+final class TemplateNameIndex {
+    private final List<String> templateNames;
+    private final Set<String> templateNameSet;
+    private final ListMultimap<TemplateType, String> templateNamesByType;
+
+    TemplateNameIndex(Collection<String> names) {
+        List<String> sortedNames = newArrayList(names);
+
+        // Force execution order to natural ordering.
+        // Important otherwise it behaves differently on Mac/Linux.
+        // Note: thanks to Jean-LouisL Boudart for reporting this.
+        Collections.sort(sortedNames);
+        templateNames = Collections.unmodifiableList(sortedNames);
+        templateNameSet = newHashSet(sortedNames);
+
+        ImmutableListMultimap.Builder<TemplateType, String> byType = ImmutableListMultimap.builder();
+        for (String templateName : templateNames) {
+            for (TemplateType templateType : TemplateType.values()) {
+                if (templateName.contains(templateType.getVelocityPattern())) {
+                    byType.put(templateType, templateName);
+                }
+            }
+        }
+        templateNamesByType = byType.build();
+    }
+
+    List<String> getTemplateNames() {
+        return templateNames;
+    }
+
+    List<String> getTemplateNames(TemplateType templateType) {
+        return templateNamesByType.get(templateType);
+    }
+
+    boolean contains(String templateName) {
+        return templateNameSet.contains(templateName);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.util;
+
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Maps.newTreeMap;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+
+/**
+ * Timings of a generation: the model building phases, the evaluation of each template, the formatting and the output.
+ * <p>
+ * Evaluations may run concurrently, so template timings are the sum of the evaluation times, not the elapsed time. The output is
+ * measured twice: the time spent writing the files, possibly on the writer threads, and the time spent publishing them, which is
+ * comparing them to the existing files and handing them to the writers.
+ * At the end of the generation a summary is logged and, when a report folder is set, a JSON and a CSV report are written.
+ */
+@Service
+@Slf4j
+public class GenerationMetrics {
+    public static final String JSON_REPORT = "generation-metrics.json";
+    public static final String CSV_REPORT = "generation-metrics.csv";
+    private static final int SLOWEST_TEMPLATES = 10;
+
+    /**
+     * Where the reports are written, null to only log the summary.
+     */
+    @Getter
+    @Setter
+    private File reportFolder;
+
+    // model building phases run one after the other
+    private final Map<String, Long> phases = newLinkedHashMap();
+    private String currentPhase;
+    private long currentPhaseStart;
+    private final ConcurrentMap<String, TemplateMetrics> templates = new ConcurrentHashMap<String, TemplateMetrics>();
+    private final AtomicLong javaFormattingNanos = new AtomicLong();
+    private final AtomicLong xmlFormattingNanos = new AtomicLong();
+    private final AtomicLong outputNanos = new AtomicLong();
+    private final AtomicLong publishingNanos = new AtomicLong();
+
+    public void reset() {
+        phases.clear();
+        currentPhase = null;
+        templates.clear();
+        javaFormattingNanos.set(0);
+        xmlFormattingNanos.set(0);
+        outputNanos.set(0);
+        publishingNanos.set(0);
+    }
+
+    /**
+     * Ends the current model building phase, if any, and starts the given one.
+     */
+    public void startPhase(String phase) {
+        endPhase();
+        currentPhase = phase;
+        currentPhaseStart = System.nanoTime();
+    }
+
+    public void endPhase() {
+        if (currentPhase != null) {
+            phases.put(currentPhase, System.nanoTime() - currentPhaseStart);
+            currentPhase = null;
+        }
+    }
+
+    public void templateEvaluated(String packName, String templateName, long nanos) {
+        getTemplateMetrics(packName, templateName).evaluated(nanos);
+    }
+
+    public void contentEmitted(String packName, String templateName, long bytes) {
+        getTemplateMetrics(packName, templateName).emitted(bytes);
+    }
+
+    public void javaFormatted(long nanos) {
+        javaFormattingNanos.addAndGet(nanos);
+    }
+
+    public void xmlFormatted(long nanos) {
+        xmlFormattingNanos.addAndGet(nanos);
+    }
+
+    public void outputWritten(long nanos) {
+        outputNanos.addAndGet(nanos);
+    }
+
+    public void outputPublished(long nanos) {
+        publishingNanos.addAndGet(nanos);
+    }
+
+    private TemplateMetrics getTemplateMetrics(String packName, String templateName) {
+        String key = packName + ":" + templateName;
+        TemplateMetrics result = templates.get(key);
+        if (result == null) {
+            result = new TemplateMetrics(packName, templateName);
+            TemplateMetrics previous = templates.putIfAbsent(key, result);
+            if (previous != null) {
+                result = previous;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Logs the summary and writes the reports.
+     */
+    public void report() {
+        endPhase();
+        List<TemplateMetrics> sortedTemplates = getTemplatesByTotalTime();
+        logSummary(sortedTemplates);
+        if (reportFolder == null) {
+            return;
+        }
+        try {
+            writeStringToFile(new File(reportFolder, JSON_REPORT), toJson(sortedTemplates), "UTF-8");
+            writeStringToFile(new File(reportFolder, CSV_REPORT), toCsv(sortedTemplates), "UTF-8");
+            log.info("Generation metrics written in " + reportFolder.getAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Could not write the generation metrics in " + reportFolder.getAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    private List<TemplateMetrics> getTemplatesByTotalTime() {
+        List<TemplateMetrics> result = newArrayList(templates.values());
+        Collections.sort(result, new Comparator<TemplateMetrics>() {
+            @Override
+            public int compare(TemplateMetrics t1, TemplateMetrics t2) {
+                long diff = t2.getTotalNanos() - t1.getTotalNanos();
+                return diff > 0 ? 1 : diff < 0 ? -1 : t1.getKey().compareTo(t2.getKey());
+            }
+        });
+        return result;
+    }
+
+    private void logSummary(List<TemplateMetrics> sortedTemplates) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder phasesSummary = new StringBuilder();
+        long modelNanos = 0;
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            phasesSummary.append(phasesSummary.length() == 0 ? "" : ", ").append(phase.getKey()).append(" ").append(ms(phase.getValue())).append(" ms");
+            modelNanos += phase.getValue();
+        }
+        long count = 0;
+        long evaluationNanos = 0;
+        long bytes = 0;
+        for (TemplateMetrics template : sortedTemplates) {
+            count += template.getCount();
+            evaluationNanos += template.getTotalNanos();
+            bytes += template.getBytes();
+        }
+
+        log.info("Generation metrics");
+        if (!phases.isEmpty()) {
+            log.info(" . model: " + ms(modelNanos) + " ms (" + phasesSummary + ")");
+        }
+        log.info(" . templates: " + count + " evaluations, " + ms(evaluationNanos) + " ms, " + bytes + " bytes emitted");
+        log.info(" . java formatting: " + ms(javaFormattingNanos.get()) + " ms, xml formatting: " + ms(xmlFormattingNanos.get()) + " ms, output: "
+                + ms(outputNanos.get()) + " ms (publishing: " + ms(publishingNanos.get()) + " ms)");
+        for (TemplateMetrics template : sortedTemplates.subList(0, Math.min(SLOWEST_TEMPLATES, sortedTemplates.size()))) {
+            if (template.getCount() > 0) {
+                log.info(" . " + template.getKey() + ": " + template.getCount() + " evaluations, " + ms(template.getTotalNanos()) + " ms (p50 "
+                        + ms(template.getPercentile(50)) + " ms, p99 " + ms(template.getPercentile(99)) + " ms)");
+            }
+        }
+    }
+
+    private String toJson(List<TemplateMetrics> sortedTemplates) {
+        Map<String, long[]> packs = newTreeMap();
+        Map<String, long[]> templateTypes = newTreeMap();
+        for (TemplateMetrics template : sortedTemplates) {
+            add(packs, template.getPackName(), template);
+            add(templateTypes, template.getTemplateType(), template);
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"phases\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            json.append(separator).append("    ").append(quote(phase.getKey())).append(": ").append(ms(phase.getValue()));
+            separator = ",\n";
+        }
+        json.append("\n  },\n");
+        json.append("  \"javaFormattingMs\": ").append(ms(javaFormattingNanos.get())).append(",\n");
+        json.append("  \"xmlFormattingMs\": ").append(ms(xmlFormattingNanos.get())).append(",\n");
+        json.append("  \"outputMs\": ").append(ms(outputNanos.get())).append(",\n");
+        json.append("  \"outputPublishingMs\": ").append(ms(publishingNanos.get())).append(",\n");
+        appendTotals(json, "packs", packs);
+        json.append(",\n");
+        appendTotals(json, "templateTypes", templateTypes);
+        json.append(",\n");
+        json.append("  \"templates\": [");
+        separator = "\n";
+        for (TemplateMetrics template : sortedTemplates) {
+            json.append(separator).append("    {\"pack\": ").append(quote(template.getPackName())) //
+                    .append(", \"template\": ").append(quote(template.getTemplateName())) //
+                    .append(", \"type\": ").append(quote(template.getTemplateType())) //
+                    .append(", \"count\": ").append(template.getCount()) //
+                    .append(", \"totalMs\": ").append(ms(template.getTotalNanos())) //
+                    .append(", \"p50Ms\": ").append(ms(template.getPercentile(50))) //
+                    .append(", \"p99Ms\": ").append(ms(template.getPercentile(99))) //
+                    .append(", \"bytes\": ").append(template.getBytes()).append("}");
+            separator = ",\n";
+        }
+        json.append("\n  ]\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private void add(Map<String, long[]> totals, String key, TemplateMetrics template) {
+        long[] total = totals.get(key);
+        if (total == null) {
+            total = new long[3];
+            totals.put(key, total);
+        }
+        total[0] += template.getCount();
+        total[1] += template.getTotalNanos();
+        total[2] += template.getBytes();
+    }
+
+    private void appendTotals(StringBuilder json, String name, Map<String, long[]> totals) {
+        json.append("  ").append(quote(name)).append(": {");
+        String separator = "\n";
+        for (Map.Entry<String, long[]> total : totals.entrySet()) {
+            json.append(separator).append("    ").append(quote(total.getKey())) //
+                    .append(": {\"count\": ").append(total.getValue()[0]) //
+                    .append(", \"totalMs\": ").append(ms(total.getValue()[1])) //
+                    .append(", \"bytes\": ").append(total.getValue()[2]).append("}");
+            separator = ",\n";
+        }
+        json.append("\n  }");
+    }
+
+    private String toCsv(List<TemplateMetrics> sortedTemplates) {
+        StringBuilder csv = new StringBuilder("pack,template,type,count,totalMs,p50Ms,p99Ms,bytes\n");
+        for (TemplateMetrics template : sortedTemplates) {
+            csv.append(StringEscapeUtils.escapeCsv(template.getPackName())).append(',') //
+                    .append(StringEscapeUtils.escapeCsv(template.getTemplateName())).append(',') //
+                    .append(template.getTemplateType()).append(',') //
+                    .append(template.getCount()).append(',') //
+                    .append(ms(template.getTotalNanos())).append(',') //
+                    .append(ms(template.getPercentile(50))).append(',') //
+                    .append(ms(template.getPercentile(99))).append(',') //
+                    .append(template.getBytes()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String ms(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Evaluation times and size of the files produced by a single template.
+     */
+    private static class TemplateMetrics {
+        @Getter
+        private final String packName;
+        @Getter
+        private final String templateName;
+        @Getter
+        private final String templateType;
+        private final List<Long> evaluations = newArrayList();
+        private long totalNanos;
+        private long bytes;
+
+        TemplateMetrics(String packName, String templateName) {
+            this.packName = packName;
+            this.templateName = templateName;
+            this.templateType = getTemplateType(templateName);
+        }
+
+        private static String getTemplateType(String templateName) {
+            for (TemplateType templateType : TemplateType.values()) {
+                if (templateName.contains(templateType.getVelocityPattern())) {
+                    return templateType.name();
+                }
+            }
+            return "static";
+        }
+
+        String getKey() {
+            return packName + ":" + templateName;
+        }
+
+        synchronized void evaluated(long nanos) {
+            evaluations.add(nanos);
+            totalNanos += nanos;
+        }
+
+        synchronized void emitted(long size) {
+            bytes += size;
+        }
+
+        synchronized int getCount() {
+            return evaluations.size();
+        }
+
+        synchronized long getTotalNanos() {
+            return totalNanos;
+        }
+
+        synchronized long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the nearest-rank percentile of the evaluation times, 0 when the template was not evaluated.
+         */
+        synchronized long getPercentile(int percentile) {
+            if (evaluations.isEmpty()) {
+                return 0;
+            }
+            List<Long> sorted = newArrayList(evaluations);
+            Collections.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+            return sorted.get(Math.max(rank, 1) - 1);
+        }
+    }
+}
\ No newline at end of file
@@ -20,9 +20,9 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.jaxio.celerio.util.ListHolder;
 import com.jaxio.celerio.util.Named;
-import org.springframework.beans.support.MutableSortDefinition;
-import org.springframework.beans.support.PropertyComparator;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,9 +38,9 @@ import static java.util.Collections.unmodifiableList;
  * #if statement.
  */
 public abstract class AbstractListHolder<T extends Named> implements ListHolder<T> {
-    private List<T> cachedResult;
-    private boolean isCacheEnabled = true;
-    private String sortProperty;
+    private volatile List<T> cachedResult;
+    private volatile boolean isCacheEnabled = true;
+    private SortKey<? super T> sortKey;
     private Map<String, SimpleListHolder<T>> cache = newHashMap();
 
     /**
@@ -49,14 +49,14 @@ public abstract class AbstractListHolder<T extends Named> implements ListHolder<
     protected abstract Iterable<T> getIterable();
 
     /**
-     * Turns sort mode on using the passed sort property. The target property must be a String.
+     * Turns sort mode on using the passed sort key.
      */
-    protected void setSortProperty(String sortProperty) {
-        this.sortProperty = sortProperty;
+    protected void setSortKey(SortKey<? super T> sortKey) {
+        this.sortKey = sortKey;
     }
 
-    protected String getSortProperty() {
-        return sortProperty;
+    protected SortKey<? super T> getSortKey() {
+        return sortKey;
     }
 
     /**
@@ -75,15 +75,18 @@ public abstract class AbstractListHolder<T extends Named> implements ListHolder<
     }
 
     /**
-     * Returns the list that this ListHolder backs.
+     * Returns the list that this ListHolder backs. Once cached, the list may be read concurrently; concurrent first
+     * calls may both build it, the result being the same.
      */
     @Override
     public List<T> getList() {
         if (isCacheEnabled) {
-            if (cachedResult == null) {
-                cachedResult = makeUnmodifiableUniqueList();
+            List<T> result = cachedResult;
+            if (result == null) {
+                result = makeUnmodifiableUniqueList();
+                cachedResult = result;
             }
-            return cachedResult;
+            return result;
         } else {
             return makeUnmodifiableUniqueList();
         }
@@ -168,15 +171,16 @@ public abstract class AbstractListHolder<T extends Named> implements ListHolder<
     }
 
     /**
-     * Fork this list with extra predicates.
+     * Fork this list with extra predicates. The fork filters the list of this holder, which is already sorted and
+     * without duplicates.
      *
      * @param namesToExclude the name of the elements to exclude from the list.
      */
-    public SimpleListHolder<T> except(String... namesToExclude) {
+    public synchronized SimpleListHolder<T> except(String... namesToExclude) {
         String key = "current" + getCacheKey(namesToExclude);
         SimpleListHolder<T> result = cache.get(key);
         if (result == null) {
-            result = new SimpleListHolder<T>(getIterable(), asNameNotEqualsToPredicates(namesToExclude), getSortProperty());
+            result = new SimpleListHolder<T>(getList(), asNameNotEqualsToPredicates(namesToExclude));
             cache.put(key, result);
         }
         return result;
@@ -201,10 +205,42 @@ public abstract class AbstractListHolder<T extends Named> implements ListHolder<
         return key;
     }
 
+    @SuppressWarnings("unchecked")
     protected void sort(List<T> listToSort) {
-        if (sortProperty != null && !sortProperty.isEmpty()) {
-            // watch out: the target property must be a String.
-            PropertyComparator.sort(listToSort, new MutableSortDefinition(sortProperty, false, true));
+        if (sortKey == null || listToSort.size() < 2) {
+            return;
+        }
+        // read each key once, not twice per comparison
+        Keyed<T>[] keyed = new Keyed[listToSort.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            T element = listToSort.get(i);
+            keyed[i] = new Keyed<T>(sortKey.getSortKey(element), element);
+        }
+        // stable, as equal keys keep the order of the iterable
+        Arrays.sort(keyed, KEY_ORDER);
+        for (int i = 0; i < keyed.length; i++) {
+            listToSort.set(i, keyed[i].element);
+        }
+    }
+
+    private static final Comparator<Keyed<?>> KEY_ORDER = new Comparator<Keyed<?>>() {
+        @Override
+        public int compare(Keyed<?> k1, Keyed<?> k2) {
+            // elements without key go last
+            if (k1.key == null) {
+                return k2.key == null ? 0 : 1;
+            }
+            return k2.key == null ? -1 : k1.key.compareTo(k2.key);
+        }
+    };
+
+    private static final class Keyed<T> {
+        final String key;
+        final T element;
+
+        Keyed(String key, T element) {
+            this.key = key;
+            this.element = element;
         }
     }
 }
@@ -24,6 +24,7 @@ import com.jaxio.celerio.util.Named;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Lists.newArrayList;
@@ -47,13 +48,8 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
     private ListGetter<T, H> listGetter;
     private Predicate<T> predicate;
 
-    private SimpleListHolder<T> flatDown = null;
-    private SimpleListHolder<T> flatAbove = null;
-    private SimpleListHolder<T> flatUp = null;
-    private SimpleListHolder<T> flatFull = null;
-    private SimpleListHolder<T> uniqueUp = null;
-    private SimpleListHolder<T> uniqueDown = null;
-    private SimpleListHolder<T> uniqueFull = null;
+    // the flat views, created on first use, indexed by flatten and uniqueness
+    private final AtomicReferenceArray<SimpleListHolder<T>> flatViews = new AtomicReferenceArray<SimpleListHolder<T>>(Flatten.values().length * 2);
 
     // DO NOT FETCH the list from the constructor. It must be fetched lazily as we construct
     // it before the list are available...
@@ -84,10 +80,7 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
      * current node and its ancestors, up to the root node.
      */
     public SimpleListHolder<T> getFlatUp() {
-        if (flatUp == null) {
-            flatUp = newSimpleListHolder(up_to_root, getSortProperty());
-        }
-        return flatUp;
+        return getFlatView(up_to_root, false);
     }
 
     /**
@@ -95,10 +88,7 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
      * current node's ancestors, up to the root node.
      */
     public SimpleListHolder<T> getFlatAbove() {
-        if (flatAbove == null) {
-            flatAbove = newSimpleListHolder(above, getSortProperty());
-        }
-        return flatAbove;
+        return getFlatView(above, false);
     }
 
     /**
@@ -106,10 +96,7 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
      * current node and all its descendants.
      */
     public SimpleListHolder<T> getFlatDown() {
-        if (flatDown == null) {
-            flatDown = newSimpleListHolder(down_to_leave, getSortProperty());
-        }
-        return flatDown;
+        return getFlatView(down_to_leave, false);
     }
 
     /**
@@ -117,10 +104,7 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
      * current node's root and all its descendants.
      */
     public SimpleListHolder<T> getFlatFull() {
-        if (flatFull == null) {
-            flatFull = newSimpleListHolder(all, getSortProperty());
-        }
-        return flatFull;
+        return getFlatView(all, false);
     }
 
     /**
@@ -128,10 +112,7 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
      * current node and its ancestors, up to the root node.
      */
     public SimpleListHolder<T> getUniqueFlatUp() {
-        if (uniqueUp == null) {
-            uniqueUp = newUniqueSimpleListHolder(up_to_root, getSortProperty());
-        }
-        return uniqueUp;
+        return getFlatView(up_to_root, true);
     }
 
     /**
@@ -139,10 +120,7 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
      * current node and all its descendants.
      */
     public SimpleListHolder<T> getUniqueFlatDown() {
-        if (uniqueDown == null) {
-            uniqueDown = newUniqueSimpleListHolder(down_to_leave, getSortProperty());
-        }
-        return uniqueDown;
+        return getFlatView(down_to_leave, true);
     }
 
 
@@ -151,22 +129,23 @@ public class CurrentAndFlatListHolder<T extends Named, H extends Hierarchical<H>
      * current node's root and all its descendants.
      */
     public SimpleListHolder<T> getUniqueFlatFull() {
-        if (uniqueFull == null) {
-            uniqueFull = newUniqueSimpleListHolder(all, getSortProperty());
-        }
-        return uniqueFull;
+        return getFlatView(all, true);
     }
 
     //
     // Impl details
     //
 
-    private SimpleListHolder<T> newSimpleListHolder(Flatten flatten, String sortProperty) {
-        return new SimpleListHolder<T>(getIterable(flatten), predicate, sortProperty);
-    }
-
-    private SimpleListHolder<T> newUniqueSimpleListHolder(Flatten flatten, String sortProperty) {
-        return new SimpleListHolder<T>(getIterableNoDuplicate(flatten), predicate, sortProperty);
+    // safe for concurrent readers: if two threads create the same view, only the first one is kept
+    private SimpleListHolder<T> getFlatView(Flatten flatten, boolean unique) {
+        int index = flatten.ordinal() * 2 + (unique ? 1 : 0);
+        SimpleListHolder<T> result = flatViews.get(index);
+        if (result == null) {
+            Iterable<T> iterable = unique ? getIterableNoDuplicate(flatten) : getIterable(flatten);
+            flatViews.compareAndSet(index, null, new SimpleListHolder<T>(iterable, predicate, getSortKey()));
+            result = flatViews.get(index);
+        }
+        return result;
     }
 
     private Iterable<T> getIterableNoDuplicate(Flatten flatten) {
@@ -42,9 +42,9 @@ public class SimpleListHolder<T extends Named> extends AbstractListHolder<T> {
         this.filter = filter;
     }
 
-    public SimpleListHolder(Iterable<T> original, Predicate<T> filter, String sortProperty) {
+    public SimpleListHolder(Iterable<T> original, Predicate<T> filter, SortKey<? super T> sortKey) {
         this(original, filter);
-        setSortProperty(sortProperty);
+        setSortKey(sortKey);
     }
 
     @Override
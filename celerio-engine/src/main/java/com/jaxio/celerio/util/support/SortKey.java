@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.util.support;
+
+import com.jaxio.celerio.util.Named;
+
+/**
+ * The String a list holder sorts its elements on, read with a plain getter call.
+ *
+ * @see AbstractListHolder#setSortKey(SortKey)
+ */
+public interface SortKey<T> {
+
+    SortKey<Named> NAME = new SortKey<Named>() {
+        @Override
+        public String getSortKey(Named named) {
+            return named.getName();
+        }
+    };
+
+    /**
+     * @return the key of the element, elements without key being sorted last.
+     */
+    String getSortKey(T element);
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database;
+
+import com.jaxio.celerio.configuration.MetaAttribute;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator;
+import com.thoughtworks.xstream.XStream;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MetadataTest {
+
+    @Test
+    public void copyIsSameAsSerializedCopy() {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setTables(50);
+        Metadata metadata = generator.generate().getMetadata();
+        Table table = metadata.getTables().get(0);
+        table.setRemarks("remarks");
+        table.getColumns().get(1).addMetaAttribute(new MetaAttribute("name", "value"));
+        Table sameNameInSchema = new Table();
+        sameNameInSchema.setName(table.getName());
+        sameNameInSchema.setSchemaName("SCHEMA");
+        metadata.add(sameNameInSchema);
+        metadata.getJdbcConnectivity().setTableNamePatterns(null);
+        metadata.getJdbcConnectivity().add(TableType.VIEW);
+        metadata.cleanMetadata();
+
+        Metadata copy = new Metadata(metadata);
+
+        // same values, maps by name and shared references as the XStream copy that was used before
+        XStream xstream = new XStream();
+        assertThat(xstream.toXML(copy)).isEqualTo(xstream.toXML(metadata));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setTables(10);
+        Metadata metadata = generator.generate().getMetadata();
+        int nbTables = metadata.getTables().size();
+        Metadata copy = new Metadata(metadata);
+
+        Table table = metadata.getTables().get(5);
+        Table copiedTable = copy.getTableByName(table.getName());
+        assertThat(copiedTable).isNotSameAs(table);
+        assertThat(copiedTable.getColumnByName("NAME")).isNotSameAs(table.getColumnByName("NAME"));
+        assertThat(copiedTable.getColumns()).contains(copiedTable.getColumnByName("NAME"));
+        assertThat(copy.getJdbcConnectivity()).isNotSameAs(metadata.getJdbcConnectivity());
+
+        ImportedKey importedKey = new ImportedKey();
+        importedKey.setFkName("FK_ADDED");
+        importedKey.setFkColumnName("NAME");
+        importedKey.setPkTableName("TABLE_00000");
+        importedKey.setPkColumnName("ID");
+        table.addImportedKey(importedKey);
+        table.getColumnByName("NAME").addEnumValue("ADDED");
+        Table added = new Table();
+        added.setName("ADDED");
+        metadata.add(added);
+
+        assertThat(copiedTable.getForeignKeyByName("FK_ADDED")).isNull();
+        assertThat(copiedTable.getColumnByName("NAME").getEnumValues()).excludes("ADDED");
+        assertThat(copy.getTables()).hasSize(nbTables);
+        assertThat(copy.getTableByName("ADDED")).isNull();
+    }
+}
\ No newline at end of file
@@ -17,8 +17,10 @@
 package com.jaxio.celerio.configuration.database.support;
 
 import com.jaxio.celerio.configuration.database.Column;
+import com.jaxio.celerio.configuration.database.JdbcConnectivity;
 import com.jaxio.celerio.configuration.database.Metadata;
 import com.jaxio.celerio.configuration.database.Table;
+import com.jaxio.celerio.configuration.database.TableType;
 import com.jaxio.celerio.configuration.support.MetadataLoader;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -33,7 +35,9 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import javax.xml.bind.JAXBException;
 import java.io.File;
 import java.io.IOException;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -109,6 +113,84 @@ public class MetaDataExtractorTest {
         embeddedDatabase.shutdown();
     }
 
+    @Test
+    public void parallelExtractionIsSameAsSequential() throws ClassNotFoundException, SQLException, XmlMappingException, IOException {
+        EmbeddedDatabase embeddedDatabase = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("parallelExtraction")
+                .addScript(ALL_RELATIONS_SCRIPT).build();
+
+        JdbcConnectivity jdbcConnectivity = new JdbcConnectivity(TableType.TABLE);
+        jdbcConnectivity.setDriver("org.h2.Driver");
+        jdbcConnectivity.setUrl("jdbc:h2:mem:parallelExtraction;DB_CLOSE_DELAY=-1");
+        jdbcConnectivity.setUser("sa");
+        jdbcConnectivity.setPassword("");
+
+        try {
+            Metadata sequentialMeta = extractor.extract(jdbcConnectivity);
+            extractor.setExtractionThreads(4);
+            Metadata parallelMeta = extractor.extract(jdbcConnectivity);
+
+            assertThat(countTables(parallelMeta)).isEqualTo(18);
+            assertThat(loader.toXml(parallelMeta)).isEqualTo(loader.toXml(sequentialMeta));
+        } finally {
+            extractor.setExtractionThreads(1);
+            embeddedDatabase.shutdown();
+        }
+    }
+
+    @Test
+    public void bulkExtractionIsSameAsPerTable() throws ClassNotFoundException, SQLException, XmlMappingException, IOException {
+        EmbeddedDatabase embeddedDatabase = createMinimalEmbeddedDatabase(ALL_RELATIONS_SCRIPT);
+
+        try {
+            Metadata perTableMeta = extractor.extract(embeddedDatabase.getConnection());
+            extractor.setBulkExtraction(true);
+            Metadata bulkMeta = extractor.extract(embeddedDatabase.getConnection());
+
+            assertThat(countTables(bulkMeta)).isEqualTo(18);
+            assertThat(countImportedKeys(bulkMeta)).isEqualTo(countImportedKeys(perTableMeta));
+            assertThat(loader.toXml(bulkMeta)).isEqualTo(loader.toXml(perTableMeta));
+        } finally {
+            extractor.setBulkExtraction(false);
+            embeddedDatabase.shutdown();
+        }
+    }
+
+    @Test
+    public void incrementalExtractionIsSameAsComplete() throws ClassNotFoundException, SQLException, XmlMappingException, IOException {
+        EmbeddedDatabase embeddedDatabase = createMinimalEmbeddedDatabase(ALL_RELATIONS_SCRIPT);
+        JdbcConnectivity jdbcConnectivity = new JdbcConnectivity(TableType.TABLE);
+        Connection connection = embeddedDatabase.getConnection();
+
+        try {
+            TableChanges changes = new TableChanges();
+            Metadata previousMeta = extractor.extract(jdbcConnectivity, connection, null, changes);
+            assertThat(loader.toXml(previousMeta)).isEqualTo(loader.toXml(extractor.extract(jdbcConnectivity, connection)));
+
+            // remarks unknown to the database tell which tables are copied from the previous extraction
+            previousMeta.getTableByName("SINGLE_PK").getColumns().get(0).setRemarks("copied");
+            previousMeta.getTableByName("ENUM_TABLE").getColumns().get(0).setRemarks("copied");
+
+            Statement statement = connection.createStatement();
+            statement.execute("ALTER TABLE ENUM_TABLE ADD COLUMN added VARCHAR(10)");
+            statement.execute("CREATE TABLE added (id INT PRIMARY KEY, points_to_single_pk INT, FOREIGN KEY (points_to_single_pk) REFERENCES single_pk)");
+            statement.execute("DROP TABLE no_pk");
+            statement.close();
+
+            Metadata incrementalMeta = extractor.extract(jdbcConnectivity, connection, previousMeta, changes);
+            Metadata completeMeta = extractor.extract(jdbcConnectivity, connection);
+
+            assertThat(incrementalMeta.getTableByName("SINGLE_PK").getColumns().get(0).getRemarks()).isEqualTo("copied");
+            assertThat(incrementalMeta.getTableByName("ENUM_TABLE").getColumns().get(0).getRemarks()).isNull();
+            incrementalMeta.getTableByName("SINGLE_PK").getColumns().get(0).setRemarks(null);
+            assertThat(incrementalMeta.getTableByName("NO_PK")).isNull();
+            assertThat(incrementalMeta.getTableByName("ADDED").getImportedKeys()).hasSize(1);
+            assertThat(loader.toXml(incrementalMeta)).isEqualTo(loader.toXml(completeMeta));
+        } finally {
+            connection.close();
+            embeddedDatabase.shutdown();
+        }
+    }
+
     private int countImportedKeys(Metadata meta) {
         int count = 0;
         for (Table table : meta.getTables()) {
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.database.support;
+
+import com.jaxio.celerio.configuration.database.Column;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.Table;
+import com.jaxio.celerio.configuration.database.h2.MetadataToH2;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator.SyntheticSchema;
+import org.h2.tools.RunScript;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.fest.assertions.Assertions.assertThat;
+
+@ContextConfiguration("classpath:applicationContext-celerio.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class SyntheticSchemaGeneratorTest {
+
+    @Autowired
+    private MetadataExtractor extractor;
+
+    @Test
+    public void sameSeedSameSchema() {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setSeed(42);
+        String script = new MetadataToH2(generator.generate().getMetadata()).getCreateScript();
+
+        assertThat(new MetadataToH2(generator.generate().getMetadata()).getCreateScript()).isEqualTo(script);
+        generator.setSeed(43);
+        assertThat(new MetadataToH2(generator.generate().getMetadata()).getCreateScript()).isNotEqualTo(script);
+    }
+
+    @Test
+    public void h2ScriptIsExtractedBack() throws Exception {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setTables(50);
+        generator.setManyToManyTables(5);
+        generator.setInheritanceHierarchies(2);
+        generator.setSubclasses(3);
+        SyntheticSchema schema = generator.generate();
+        Metadata metadata = schema.getMetadata();
+
+        assertThat(metadata.getTables()).hasSize(50 + 5 + 2 * 4);
+        assertThat(schema.getCelerio().getEntityConfigs()).hasSize(2 * 4);
+
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:", "sa", "");
+        try {
+            RunScript.execute(connection, new StringReader(new MetadataToH2(metadata).getCreateScript()));
+            Metadata extracted = extractor.extract(connection);
+
+            assertThat(extracted.getTables()).hasSize(metadata.getTables().size());
+            for (Table table : metadata.getTables()) {
+                Table other = extracted.getTableByName(table.getName());
+                assertThat(other).isNotNull();
+                assertThat(other.getColumns()).hasSize(table.getColumns().size());
+                // jdbc returns the primary key columns by name
+                assertThat(newHashSet(other.getPrimaryKeys())).isEqualTo(newHashSet(table.getPrimaryKeys()));
+                assertThat(other.getForeignKeysByName().keySet()).isEqualTo(table.getForeignKeysByName().keySet());
+                for (Column column : table.getColumns()) {
+                    assertThat(other.getColumnByName(column.getName()).getEnumValues()).isEqualTo(column.getEnumValues());
+                }
+            }
+        } finally {
+            connection.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.configuration.support;
+
+import com.google.common.hash.HashCode;
+import com.jaxio.celerio.configuration.MetaAttribute;
+import com.jaxio.celerio.configuration.database.Column;
+import com.jaxio.celerio.configuration.database.Metadata;
+import com.jaxio.celerio.configuration.database.Table;
+import com.jaxio.celerio.configuration.database.support.MetadataExtractor;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.readFileToByteArray;
+import static org.fest.assertions.Assertions.assertThat;
+
+@ContextConfiguration("classpath:applicationContext-celerio.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class MetadataLoaderTest {
+
+    @Autowired
+    private MetadataLoader loader;
+
+    @Autowired
+    private MetadataExtractor extractor;
+
+    @Test
+    public void snapshotIsLossless() throws Exception {
+        EmbeddedDatabase embeddedDatabase = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("metadataSnapshot")
+                .addScript("classpath:/all-relations.sql").build();
+        Metadata extracted = extractor.extract(embeddedDatabase.getConnection());
+        embeddedDatabase.shutdown();
+        assertLossless(extracted, new File("target/metadata-snapshot/extracted/metadata.xml"));
+
+        Metadata synthetic = new SyntheticSchemaGenerator().generate().getMetadata();
+        Table table = synthetic.getTables().get(0);
+        table.setRemarks("Remarks with accents: éèà, and quotes: \" '");
+        table.setSchemaName("SCHEMA");
+        Column column = table.getColumns().get(1);
+        column.setColumnDef("'default'");
+        column.setAutoIncrement(false);
+        column.addMetaAttribute(new MetaAttribute("name", "value"));
+        synthetic.getJdbcConnectivity().setReverseIndexes(null);
+        synthetic.getJdbcConnectivity().getTableNamePatterns().add("TABLE_%");
+        synthetic.cleanMetadata();
+        assertLossless(synthetic, new File("target/metadata-snapshot/synthetic/metadata.xml"));
+    }
+
+    @Test
+    public void staleOrCorruptedSnapshotIsNotUsed() throws Exception {
+        File folder = new File("target/metadata-snapshot/stale");
+        deleteDirectory(folder);
+        File xmlFile = new File(folder, "metadata.xml");
+        File snapshotFile = loader.getSnapshotFile(xmlFile);
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setTables(10);
+        loader.writeWithSnapshot(generator.generate().getMetadata(), xmlFile);
+
+        generator.setTables(20);
+        loader.write(generator.generate().getMetadata(), xmlFile);
+        assertThat(MetadataSnapshot.read(snapshotFile, xmlHash(xmlFile))).isNull();
+        assertThat(loader.loadWithSnapshot(xmlFile, true).getTables()).hasSize(loader.load(xmlFile).getTables().size());
+        assertThat(MetadataSnapshot.read(snapshotFile, xmlHash(xmlFile))).isNotNull();
+
+        RandomAccessFile truncated = new RandomAccessFile(snapshotFile, "rw");
+        truncated.setLength(snapshotFile.length() / 2);
+        truncated.close();
+        assertThat(loader.loadWithSnapshot(xmlFile, false).getTables()).hasSize(loader.load(xmlFile).getTables().size());
+    }
+
+    private void assertLossless(Metadata metadata, File xmlFile) throws Exception {
+        deleteDirectory(xmlFile.getParentFile());
+        loader.writeWithSnapshot(metadata, xmlFile);
+        assertThat(loader.getSnapshotFile(xmlFile).length()).isLessThan(xmlFile.length());
+
+        Metadata fromXml = loader.load(xmlFile);
+        Metadata fromSnapshot = MetadataSnapshot.read(loader.getSnapshotFile(xmlFile), xmlHash(xmlFile));
+        assertThat(fromSnapshot).isNotNull();
+        assertThat(loader.toXml(fromSnapshot)).isEqualTo(loader.toXml(fromXml));
+        assertThat(loader.toXml(loader.loadWithSnapshot(xmlFile, false))).isEqualTo(loader.toXml(fromXml));
+        for (Table table : fromXml.getTables()) {
+            Table other = fromSnapshot.getTableByName(table.getName());
+            assertThat(other.getForeignKeysByName().keySet()).isEqualTo(table.getForeignKeysByName().keySet());
+            assertThat(other.getIndexHoldersByName().keySet()).isEqualTo(table.getIndexHoldersByName().keySet());
+            assertThat(other.getColumnsByName().keySet()).isEqualTo(table.getColumnsByName().keySet());
+        }
+    }
+
+    private HashCode xmlHash(File xmlFile) throws Exception {
+        return MetadataSnapshot.XML_HASH.hashBytes(readFileToByteArray(xmlFile));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.factory;
+
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator.SyntheticSchema;
+import com.jaxio.celerio.model.Attribute;
+import com.jaxio.celerio.model.Entity;
+import com.jaxio.celerio.model.Project;
+import com.jaxio.celerio.model.Relation;
+import com.jaxio.celerio.model.Unique;
+import com.jaxio.celerio.model.relation.AbstractRelation;
+import com.jaxio.celerio.output.OutputResultFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Arrays.asList;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration("classpath:applicationContext-celerio.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ProjectFactoryTest {
+
+    @Autowired
+    private Config config;
+
+    @Autowired
+    private ProjectFactory projectFactory;
+
+    @Autowired
+    private OutputResultFactory outputResultFactory;
+
+    @Test
+    public void parallelBuildingIsSameAsSequential() {
+        try {
+            String sequentialModel = describe(build(1));
+            String parallelModel = describe(build(4));
+
+            assertThat(sequentialModel).contains("ROOT_00001_01");
+            assertThat(parallelModel).isEqualTo(sequentialModel);
+        } finally {
+            config.setModelThreads(1);
+        }
+    }
+
+    @Test
+    public void parallelBuildingWithCompositeKeysIsSameAsSequential() {
+        try {
+            SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+            generator.setTables(200);
+            generator.setCompositeKeyRatio(0.5);
+            generator.setMaxForeignKeys(4);
+            generator.setManyToManyTables(10);
+            String sequentialModel = describe(build(generator, 1));
+
+            assertThat(sequentialModel).contains("inCpk=true").contains("inCompositeFk=true");
+            for (int run = 0; run < 5; run++) {
+                assertThat(describe(build(generator, 8))).isEqualTo(sequentialModel);
+            }
+        } finally {
+            config.setModelThreads(1);
+        }
+    }
+
+    @Test
+    public void frozenPrinterAttributesCannotBeChanged() {
+        Entity entity = build(1).getCurrentEntities().get(0);
+        for (List<Attribute> printerAttributes : asList(entity.printerAttributes(), entity.stringPrinterAttributes(),
+                entity.indexedPrinterAttributes())) {
+            try {
+                printerAttributes.clear();
+                fail("shared by every caller");
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+        assertThat(entity.printerAttributes()).isNotEmpty().isSameAs(entity.printerAttributes());
+    }
+
+    private Project build(int modelThreads) {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setTables(60);
+        generator.setManyToManyTables(6);
+        generator.setInheritanceHierarchies(2);
+        generator.setSubclasses(3);
+        return build(generator, modelThreads);
+    }
+
+    private Project build(SyntheticSchemaGenerator generator, int modelThreads) {
+        SyntheticSchema schema = generator.generate();
+        schema.getCelerio().getConfiguration().setRootPackage("com.example.model");
+
+        config.setOutputResult(outputResultFactory.getOutputResult(".", "target/generated-output/project-factory"));
+        config.setMetadata(schema.getMetadata());
+        config.setCelerio(schema.getCelerio());
+        config.setProject(new Project());
+        config.setModelThreads(modelThreads);
+        projectFactory.init();
+        return config.getProject();
+    }
+
+    private String describe(Project project) {
+        StringBuilder model = new StringBuilder();
+        for (Entity entity : project.getCurrentEntities()) {
+            model.append(entity.getName()).append(" table=").append(entity.getTableName()).append(" pk=").append(names(entity.getPrimaryKey().getAttributes()))
+                    .append(" bk=").append(names(entity.getBusinessKey())).append(" spis=").append(spis(entity)).append('\n');
+            for (Unique unique : entity.getCurrentUniques()) {
+                model.append("  unique ").append(unique.getName()).append(names(unique.getAttributes())).append('\n');
+            }
+            for (Attribute attribute : entity.getCurrentAttributes()) {
+                model.append("  attribute ").append(attribute.getName()).append(" simplePk=").append(attribute.isSimplePk()).append(" inCpk=")
+                        .append(attribute.isInCpk()).append(" simpleFk=").append(attribute.isSimpleFk()).append(" inCompositeFk=")
+                        .append(attribute.isInCompositeFk()).append(" inBk=").append(attribute.isInBk()).append(" spis=").append(spis(attribute))
+                        .append('\n');
+            }
+            for (Relation relation : entity.getRelations().getList()) {
+                model.append("  relation ").append(relation.getName()).append(" to=").append(relation.getToEntity().getName()).append(" spis=")
+                        .append(spis((AbstractRelation) relation)).append('\n');
+            }
+        }
+        return model.toString();
+    }
+
+    private String names(Iterable<Attribute> attributes) {
+        StringBuilder names = new StringBuilder("[");
+        for (Attribute attribute : attributes) {
+            names.append(attribute.getName()).append(' ');
+        }
+        return names.append(']').toString();
+    }
+
+    private Map<String, String> spis(Map<String, Object> spis) {
+        Map<String, String> types = new TreeMap<String, String>();
+        for (Map.Entry<String, Object> spi : spis.entrySet()) {
+            types.put(spi.getKey(), spi.getValue() == null ? null : spi.getValue().getClass().getSimpleName());
+        }
+        return types;
+    }
+}
\ No newline at end of file
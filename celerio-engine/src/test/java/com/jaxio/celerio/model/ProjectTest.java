@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.model;
+
+import com.jaxio.celerio.configuration.entity.EntityConfig;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ProjectTest {
+
+    @Test
+    public void frozenProjectKeepsItsViews() {
+        Project project = new Project();
+        project.freeze();
+
+        assertThat(project.isFrozen()).isTrue();
+        assertThat(project.getEnumTypes()).isEmpty();
+        assertThat(project.isAccountEntityPresent()).isFalse();
+        assertThat(project.getHibernateSearchUsed()).isFalse();
+        assertThat(project.isDefaultSchema()).isFalse();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void missingEntityIsStillReportedOnceFrozen() {
+        Project project = new Project();
+        project.freeze();
+        project.getAccountEntity();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noEntityCanBeAddedOnceFrozen() {
+        Project project = new Project();
+        project.freeze();
+
+        Entity entity = new Entity();
+        entity.setEntityConfig(new EntityConfig());
+        project.addEntity(entity);
+    }
+}
\ No newline at end of file
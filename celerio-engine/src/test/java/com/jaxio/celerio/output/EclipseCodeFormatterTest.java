@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.output;
+
+import com.jaxio.celerio.Config;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class EclipseCodeFormatterTest {
+
+    private static final String SOURCE = "package test; public class Hello { public void hello() { System.out.println(\"hello\"); } }";
+
+    @Test
+    public void formattedFileIsReusedWhenSourceIsUnchanged() throws IOException {
+        File projectDir = new File("target/eclipse-code-formatter");
+        FileUtils.deleteDirectory(projectDir);
+        File javaFile = new File(projectDir, "Hello.java");
+        EclipseCodeFormatter formatter = new EclipseCodeFormatter(new Config(), null);
+
+        // first generation
+        formatter.open(projectDir);
+        String formatted = formatter.format(SOURCE, javaFile, "pack");
+        assertThat(formatted).isEqualTo(formatter.format(SOURCE));
+        assertThat(formatted).isNotEqualTo(SOURCE);
+        assertThat(formatter.getFormattedCount("pack")).isEqualTo(1);
+        FileUtils.writeStringToFile(javaFile, "// modified by the user\n" + formatted, "UTF-8");
+        formatter.close();
+        assertThat(new File(projectDir, ".celerio/formatted.idx").exists()).isTrue();
+
+        // the file was modified, the source is formatted again
+        formatter.open(projectDir);
+        assertThat(formatter.format(SOURCE, javaFile, "pack")).isEqualTo(formatted);
+        assertThat(formatter.getFormattedCount("pack")).isEqualTo(1);
+        assertThat(formatter.getUnchangedCount("pack")).isEqualTo(0);
+        formatter.close();
+
+        // the file is intact, its content is used as is
+        FileUtils.writeStringToFile(javaFile, formatted, "UTF-8");
+        formatter.open(projectDir);
+        assertThat(formatter.format(SOURCE, javaFile, "pack")).isEqualTo(formatted);
+        assertThat(formatter.getFormattedCount("pack")).isEqualTo(0);
+        assertThat(formatter.getUnchangedCount("pack")).isEqualTo(1);
+        formatter.close();
+
+        // the formatted index is gone, the source is formatted again
+        assertThat(new File(projectDir, ".celerio/formatted.idx").delete()).isTrue();
+        formatter.open(projectDir);
+        assertThat(formatter.format(SOURCE, javaFile, "pack")).isEqualTo(formatted);
+        assertThat(formatter.getFormattedCount("pack")).isEqualTo(1);
+        assertThat(formatter.getUnchangedCount("pack")).isEqualTo(0);
+        formatter.close();
+    }
+}
\ No newline at end of file
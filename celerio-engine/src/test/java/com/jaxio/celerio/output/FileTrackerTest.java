@@ -17,6 +17,7 @@
 package com.jaxio.celerio.output;
 
 import com.jaxio.celerio.util.IOUtil;
+import com.thoughtworks.xstream.XStream;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -96,6 +97,41 @@ public class FileTrackerTest {
         assertThat(deletedFiles).excludes(new FileMetaData(null, null, "leaveGeneratedFilesUntouched-f2.txt", f2));
     }
 
+    @Test
+    public void sameContentWithNewLastModificationIsUnchanged() throws IOException {
+        File projectDir = new File("target");
+
+        File f1 = createFileWithContent(projectDir, "sameContentWithNewLastModificationIsUnchanged-f1.txt", "my content");
+        FileMetaData fmd = new FileMetaData(null, null, "sameContentWithNewLastModificationIsUnchanged-f1.txt", f1);
+
+        // simulate a checkout touching the file
+        assertThat(f1.setLastModified(fmd.getLastMod() - 10000)).isTrue();
+        assertThat(fmd.isUnchanged(f1)).isTrue();
+
+        // same size, different content
+        createFileWithContent(projectDir, "sameContentWithNewLastModificationIsUnchanged-f1.txt", "my CONTENT");
+        assertThat(f1.setLastModified(fmd.getLastMod() - 20000)).isTrue();
+        assertThat(fmd.isUnchanged(f1)).isFalse();
+    }
+
+    @Test
+    public void migrateFromXml() throws IOException {
+        File projectDir = new File("target/migrateFromXml");
+
+        File f1 = createFileWithContent(projectDir, "f1.txt", "my content");
+        HashMap<String, FileMetaData> legacyFiles = newHashMap();
+        legacyFiles.put("f1.txt", new FileMetaData("", "", "f1.txt", f1.length(), f1.lastModified(), null));
+        File xmlFile = createFileWithContent(projectDir, ".celerio/generated.xml", new XStream().toXML(legacyFiles));
+
+        HashMap<String, FileMetaData> loadedGeneratedFiles = fileTracker.loadFromProjectDir(projectDir);
+        assertThat(loadedGeneratedFiles.values()).contains(new FileMetaData(null, null, "f1.txt", f1));
+
+        fileTracker.saveToProjectDir(loadedGeneratedFiles, projectDir);
+        assertThat(xmlFile.exists()).isFalse();
+        assertThat(new File(projectDir, ".celerio/generated.idx").exists()).isTrue();
+        assertThat(fileTracker.loadFromProjectDir(projectDir)).isEqualTo(loadedGeneratedFiles);
+    }
+
     private File createFileWithContent(File projectDir, String filePath, String content) throws IOException {
         File file = new File(projectDir, filePath);
         File parent = file.getParentFile();
@@ -19,6 +19,11 @@ package com.jaxio.celerio.output;
 import com.jaxio.celerio.convention.WellKnownFolder;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -77,4 +82,29 @@ public class FolderOutputResultTest {
         WellKnownFolder.JAVA.setGeneratedFolder(oldJavaGenerated);
         WellKnownFolder.JAVA_TEST.setGeneratedFolder(oldJavaTestGenerated);
     }
+
+    @Test
+    public void trackedHashIsOnlyTrustedWhenEnabled() throws IOException {
+        File folder = new File("target/folder-output-result/tracked-hash");
+        deleteDirectory(folder);
+        FolderOutputResult output = new FolderOutputResult(new FolderSourceFile(folder.getPath()), new FolderSourceFile(folder.getPath()), new FileTracker());
+        output.open();
+        output.addContent("abc".getBytes("UTF-8"), "a.txt", null, null);
+        output.close();
+
+        // same size and date as tracked, as after a hash collision
+        File file = new File(folder, "a.txt");
+        long lastModified = file.lastModified();
+        writeStringToFile(file, "xyz");
+        assertTrue(file.setLastModified(lastModified));
+
+        output.open();
+        assertFalse(output.getGeneratedSource().isSameContent("a.txt", "abc".getBytes("UTF-8")));
+        output.close();
+
+        output.setCompareByTrackedHash(true);
+        output.open();
+        assertTrue(output.getGeneratedSource().isSameContent("a.txt", "abc".getBytes("UTF-8")));
+        output.close();
+    }
 }
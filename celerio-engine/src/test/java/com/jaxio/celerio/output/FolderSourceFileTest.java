@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.output;
+
+import com.google.common.base.Function;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class FolderSourceFileTest {
+
+    @Test
+    public void isSameContent() throws Exception {
+        File folder = new File("target/folder-source-file");
+        deleteDirectory(folder);
+        // larger than the read buffer
+        byte[] content = new byte[100 * 1024 + 7];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        writeByteArrayToFile(new File(folder, "file.bin"), content);
+        FolderSourceFile source = new FolderSourceFile(folder.getPath());
+
+        assertThat(source.isSameContent("file.bin", content)).isTrue();
+        assertThat(source.isSameContent("file.bin", Arrays.copyOf(content, content.length - 1))).isFalse();
+        byte[] lastByteChanged = Arrays.copyOf(content, content.length);
+        lastByteChanged[content.length - 1]++;
+        assertThat(source.isSameContent("file.bin", lastByteChanged)).isFalse();
+        assertThat(source.isSameContent("missing.bin", content)).isFalse();
+    }
+
+    @Test
+    public void trackedHashIsTrusted() throws Exception {
+        File folder = new File("target/folder-source-file-tracked");
+        deleteDirectory(folder);
+        final byte[] content = "tracked".getBytes("UTF-8");
+        writeByteArrayToFile(new File(folder, "file.txt"), content);
+        FolderSourceFile source = new FolderSourceFile(folder.getPath());
+
+        source.setTrackedContentHashes(new Function<File, Integer>() {
+            @Override
+            public Integer apply(File file) {
+                return FileMetaData.contentHash(content);
+            }
+        });
+        assertThat(source.isSameContent("file.txt", content)).isTrue();
+        assertThat(source.isSameContent("file.txt", "changed".getBytes("UTF-8"))).isFalse();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.output;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class GITStatusCrawlerTest {
+
+    @Test
+    public void filesOfHeadAreUnderScm() throws Exception {
+        File projectDir = new File("target/git-status-crawler");
+        FileUtils.deleteDirectory(projectDir);
+        projectDir.mkdirs();
+
+        Git git = Git.init().setDirectory(projectDir).call();
+        FileUtils.writeStringToFile(new File(projectDir, "src/main/java/Tracked.java"), "tracked");
+        git.add().addFilepattern("src").call();
+        git.commit().setMessage("first").call();
+        FileUtils.writeStringToFile(new File(projectDir, "src/main/java/NotTracked.java"), "not tracked");
+
+        assertThat(GITStatusCrawler.isProjectUnderGit(projectDir)).isTrue();
+        SCMStatus status = GITStatusCrawler.doStatus(projectDir);
+        assertThat(status.isUnderSCM("src/main/java/Tracked.java")).isTrue();
+        assertThat(status.isUnderSCM("src/main/java/NotTracked.java")).isFalse();
+        assertThat(status.isUnderSCM("src/main/java")).isFalse();
+
+        // same HEAD, same status
+        assertThat(GITStatusCrawler.doStatus(projectDir)).isSameAs(status);
+
+        // released at the end of a generation, the repository is opened again when needed
+        status.release();
+        assertThat(status.isUnderSCM("src/main/java/Tracked.java")).isTrue();
+        assertThat(status.isUnderSCM("src/main/java/Other.java")).isFalse();
+
+        git.add().addFilepattern("src").call();
+        git.commit().setMessage("second").call();
+        git.close();
+        SCMStatus newStatus = GITStatusCrawler.doStatus(projectDir);
+        assertThat(newStatus).isNotSameAs(status);
+        assertThat(newStatus.isUnderSCM("src/main/java/NotTracked.java")).isTrue();
+    }
+}
\ No newline at end of file
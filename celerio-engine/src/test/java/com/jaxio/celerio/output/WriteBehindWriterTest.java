@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.output;
+
+import com.jaxio.celerio.util.GenerationMetrics;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class WriteBehindWriterTest {
+
+    @Test
+    public void writesInTheBackground() throws Exception {
+        File folder = new File("target/write-behind");
+        deleteDirectory(folder);
+        final AtomicInteger written = new AtomicInteger();
+        Runnable afterWrite = new Runnable() {
+            @Override
+            public void run() {
+                written.incrementAndGet();
+            }
+        };
+
+        GenerationMetrics metrics = new GenerationMetrics();
+        metrics.setReportFolder(folder);
+        WriteBehindWriter writer = new WriteBehindWriter(2, 8, metrics);
+        for (int i = 0; i < 200; i++) {
+            writer.write(new File(folder, "dir" + i % 10 + "/file" + i + ".txt"), ("content " + i).getBytes("UTF-8"), afterWrite);
+            // the same file again and again, the last content wins
+            writer.write(new File(folder, "same.txt"), ("version " + i).getBytes("UTF-8"), afterWrite);
+        }
+        writer.flush();
+
+        assertThat(written.get()).isEqualTo(400);
+        assertThat(readFileToString(new File(folder, "dir3/file123.txt"), "UTF-8")).isEqualTo("content 123");
+        assertThat(readFileToString(new File(folder, "same.txt"), "UTF-8")).isEqualTo("version 199");
+        writer.close();
+
+        // the writes are timed on the writer threads
+        metrics.report();
+        assertThat(readFileToString(new File(folder, GenerationMetrics.JSON_REPORT))).contains("\"outputMs\": ").excludes("\"outputMs\": 0.000");
+    }
+
+    @Test
+    public void flushReportsFailures() throws Exception {
+        File folder = new File("target/write-behind-failure");
+        deleteDirectory(folder);
+        WriteBehindWriter writer = new WriteBehindWriter(2, 8, null);
+        writer.write(new File(folder, "file.txt"), new byte[]{1}, new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        // file.txt is not a folder
+        writer.write(new File(folder, "file.txt/child.txt"), new byte[]{1}, new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        try {
+            writer.flush();
+            fail();
+        } catch (IOException expected) {
+            assertThat(expected.getMessage()).startsWith("Could not write 1 file(s)");
+        }
+        // reported once
+        writer.close();
+    }
+}
\ No newline at end of file
@@ -19,6 +19,7 @@ package com.jaxio.celerio.output;
 import com.jaxio.celerio.Config;
 import org.junit.Test;
 
+import javax.xml.stream.XMLInputFactory;
 import java.io.IOException;
 
 import static org.fest.assertions.Assertions.assertThat;
@@ -41,4 +42,39 @@ public class XmlFormatterTest {
 
         assertThat(xcf.format(unformattedXml)).isEqualTo(expectedXml);
     }
-}
+
+    @Test
+    public void streamedOutputIsSameAsSerializer() throws Exception {
+        Config config = new Config();
+        config.getCelerio().getConfiguration().getConventions().getXmlFormatter().setEnableXmlFormatter(true);
+        assertSameAsSerializer(new XmlCodeFormatter(config));
+    }
+
+    @Test
+    public void parserNotReportingCdataFallsBackOnSerializer() throws Exception {
+        Config config = new Config();
+        config.getCelerio().getConfiguration().getConventions().getXmlFormatter().setEnableXmlFormatter(true);
+        XmlCodeFormatter xcf = new XmlCodeFormatter(config);
+        // as a parser not supporting the report-cdata-event property
+        XMLInputFactory withoutCdataEvents = XMLInputFactory.newInstance();
+        withoutCdataEvents.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xcf.setXmlInputFactory(withoutCdataEvents);
+        assertSameAsSerializer(xcf);
+    }
+
+    private void assertSameAsSerializer(XmlCodeFormatter xcf) throws IOException {
+        String[] samples = { //
+        "<toto>  <tutu aaa=\"bb\"/> </toto>", //
+                "<?xml version=\"1.0\"?><a z=\"1\" b=\"2\" xmlns:h=\"http://java.sun.com/jsf/html\"><h:form id=\"form\"/></a>", //
+                "<a><b first=\"#{bean.property.that.is.rather.long}\" second=\"#{bean.other.property.that.is.long}\" third=\"x\"/></a>", //
+                "<a>some <b>mixed</b> text &amp; &lt;escaped&gt; chars</a>", //
+                "<!-- before --><a><!-- inside --><b/>\n<![CDATA[ <raw> & ]]>text<?pi data?></a><!-- after -->", //
+                "<a xml:space=\"preserve\">  <b>  keep  </b>  </a>", //
+                "<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\">\n<html><body/></html>", //
+                "<!DOCTYPE a SYSTEM \"a.dtd\"><a>&unknown;</a>", //
+                "<!DOCTYPE a [<!ENTITY e \"entity\">]><a>&e;</a>" };
+        for (String sample : samples) {
+            assertThat(xcf.format(sample)).as(sample).isEqualTo(xcf.formatWithSerializer(sample));
+        }
+    }
+}
\ No newline at end of file
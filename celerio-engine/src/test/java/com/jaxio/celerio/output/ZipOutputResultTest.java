@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.output;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ZipOutputResultTest {
+    private static final int ENTRIES = 300;
+
+    @Test
+    public void streamsEntriesInOrder() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        ZipOutputResult outputResult = new ZipOutputResult(archive);
+        outputResult.setDeflateThreads(4);
+        addEntries(outputResult);
+        outputResult.close();
+
+        ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()));
+        List<String> names = newArrayList();
+        for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+            names.add(entry.getName());
+            // the crc and the size are checked by the stream
+            assertThat(toByteArray(zip)).isEqualTo(content(names.size() - 1));
+        }
+        assertThat(names).isEqualTo(expectedNames());
+    }
+
+    @Test
+    public void writesFile() throws Exception {
+        File file = new File("target/zip-output-result.zip");
+        ZipOutputResult outputResult = new ZipOutputResult(file.getPath());
+        outputResult.setDeflateThreads(0);
+        addEntries(outputResult);
+        outputResult.close();
+
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            List<String> names = newArrayList();
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                assertThat(toByteArray(zipFile.getInputStream(entry))).isEqualTo(content(names.size()));
+                names.add(entry.getName());
+            }
+            assertThat(names).isEqualTo(expectedNames());
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void writesZip64AboveMaxEntries() throws Exception {
+        File file = new File("target/zip-output-result-zip64.zip");
+        ZipOutputResult outputResult = new ZipOutputResult(file.getPath());
+        int nbEntries = 0xFFFF + 10;
+        for (int i = 0; i < nbEntries; i++) {
+            outputResult.addContent(("file " + i).getBytes(), "folder" + i % 7 + "/file" + i + ".txt", null, null);
+        }
+        outputResult.close();
+
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            assertThat(zipFile.size()).isEqualTo(nbEntries);
+            ZipEntry last = zipFile.getEntry("folder" + (nbEntries - 1) % 7 + "/file" + (nbEntries - 1) + ".txt");
+            assertThat(toByteArray(zipFile.getInputStream(last))).isEqualTo(("file " + (nbEntries - 1)).getBytes());
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public void writesZip64AboveMaxOffset() throws Exception {
+        // zip64 from the first kilobyte on, as the tests cannot write 4 GB
+        File file = new File("target/zip-archive-writer-zip64.zip");
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            ZipArchiveWriter writer = new ZipArchiveWriter(output, 0xFFFF, 1024);
+            for (int i = 0; i < ENTRIES; i++) {
+                writer.write(ZipArchiveWriter.compress(expectedNames().get(i), content(i), 0));
+            }
+            writer.finish();
+        } finally {
+            output.close();
+        }
+
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            assertThat(zipFile.size()).isEqualTo(ENTRIES);
+            for (int i = 0; i < ENTRIES; i++) {
+                assertThat(toByteArray(zipFile.getInputStream(zipFile.getEntry(expectedNames().get(i))))).isEqualTo(content(i));
+            }
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private void addEntries(ZipOutputResult outputResult) throws Exception {
+        for (int i = 0; i < ENTRIES; i++) {
+            outputResult.addContent(content(i), "folder" + i % 7 + "/file" + i + ".txt", null, null);
+        }
+        // ignored
+        outputResult.addContent(content(1), "folder1/file1.txt", null, null);
+    }
+
+    private List<String> expectedNames() {
+        List<String> names = newArrayList();
+        for (int i = 0; i < ENTRIES; i++) {
+            names.add("folder" + i % 7 + "/file" + i + ".txt");
+        }
+        return names;
+    }
+
+    // compressible text, random bytes that are stored, and empty content
+    private byte[] content(int i) {
+        if (i % 10 == 0) {
+            return new byte[0];
+        }
+        if (i % 3 == 0) {
+            byte[] random = new byte[i * 10];
+            new Random(i).nextBytes(random);
+            return random;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int line = 0; line < i; line++) {
+            text.append("line ").append(line).append(" of file ").append(i).append('\n');
+        }
+        return text.toString().getBytes();
+    }
+}
\ No newline at end of file
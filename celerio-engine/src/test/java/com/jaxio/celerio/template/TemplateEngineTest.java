@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.template;
+
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.configuration.Pack;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator;
+import com.jaxio.celerio.configuration.database.support.SyntheticSchemaGenerator.SyntheticSchema;
+import com.jaxio.celerio.factory.ProjectFactory;
+import com.jaxio.celerio.model.Project;
+import com.jaxio.celerio.output.OutputResultFactory;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration("classpath:applicationContext-celerio.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class TemplateEngineTest {
+
+    @Autowired
+    private Config config;
+
+    @Autowired
+    private ProjectFactory projectFactory;
+
+    @Autowired
+    private TemplateEngine templateEngine;
+
+    @Autowired
+    private OutputResultFactory outputResultFactory;
+
+    @Autowired
+    private IncrementalGeneration incrementalGeneration;
+
+    @Test
+    public void failedGenerationClosesTheOutput() throws Exception {
+        File baseDir = new File("target/template-engine/failure");
+        FileUtils.deleteQuietly(baseDir);
+        File output = new File(baseDir, "output");
+        File templates = writePack(baseDir);
+        FileUtils.writeStringToFile(new File(templates, "a.p.vm.txt"), "$output.resource(\"a.txt\")##\ncontent of a");
+        FileUtils.writeStringToFile(new File(templates, "b.p.vm.txt"), "#if(");
+
+        try {
+            build(baseDir, output);
+            try {
+                templateEngine.produce(config.getProject(), false);
+                fail("b.p.vm.txt does not parse");
+            } catch (Exception expected) {
+                // the generation trace is saved without waiting for the end of the JVM
+                assertThat(new File(output, ".celerio/generated.idx")).exists();
+            }
+
+            FileUtils.writeStringToFile(new File(templates, "b.p.vm.txt"), "$output.resource(\"b.txt\")##\ncontent of b");
+            templateEngine.produce(config.getProject(), false);
+            assertThat(FileUtils.readFileToString(new File(output, "src/main/resources/a.txt"))).endsWith("content of a");
+            assertThat(FileUtils.readFileToString(new File(output, "src/main/resources/b.txt"))).endsWith("content of b");
+        } finally {
+            config.getOutputResult().close();
+        }
+    }
+
+    @Test
+    public void fingerprintsAreReloadedByTheNextGeneration() throws Exception {
+        File baseDir = new File("target/template-engine/incremental");
+        FileUtils.deleteQuietly(baseDir);
+        File output = new File(baseDir, "output");
+        File templates = writePack(baseDir);
+        FileUtils.writeStringToFile(new File(templates, "c.e.vm.txt"), "$output.resource(\"${entity.model.type}.txt\")##\n$entity.model.type");
+
+        try {
+            build(baseDir, output);
+            config.setIncrementalGeneration(true);
+            templateEngine.produce(config.getProject(), false);
+            assertThat(new File(output, ".celerio/fingerprints.idx")).exists();
+            assertThat(incrementalGeneration.getSkippedWorkUnits()).isEqualTo(0);
+
+            templateEngine.produce(config.getProject(), false);
+            assertThat(incrementalGeneration.getSkippedWorkUnits()).isEqualTo(2);
+            assertThat(new File(output, ".celerio/fingerprints.idx.tmp")).doesNotExist();
+        } finally {
+            config.getOutputResult().close();
+            config.setIncrementalGeneration(false);
+        }
+    }
+
+    private File writePack(File baseDir) throws IOException {
+        FileUtils.writeStringToFile(new File(baseDir, "pack/META-INF/celerio-pack.xml"), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<celerioPack xmlns=\"http://www.jaxio.com/schema/celerio\">\n    <packName value=\"failing\"/>\n"
+                + "    <packDescription value=\"\"/>\n    <packDescription2 value=\"\"/>\n    <packCommand value=\"\"/>\n"
+                + "    <packCommandHelp value=\"\"/>\n    <projectLink value=\"\"/>\n</celerioPack>\n");
+        return new File(baseDir, "pack/celerio/failing");
+    }
+
+    private void build(File baseDir, File output) {
+        SyntheticSchemaGenerator generator = new SyntheticSchemaGenerator();
+        generator.setTables(2);
+        generator.setManyToManyTables(0);
+        generator.setInheritanceHierarchies(0);
+        SyntheticSchema schema = generator.generate();
+        schema.getCelerio().getConfiguration().setRootPackage("com.example.model");
+        Pack pack = new Pack();
+        pack.setName("failing");
+        pack.setPath("pack");
+        schema.getCelerio().getConfiguration().getPacks().add(pack);
+
+        config.setBaseDir(baseDir.getPath());
+        config.setOutputResult(outputResultFactory.getOutputResult(output.getPath(), output.getPath()));
+        config.setMetadata(schema.getMetadata());
+        config.setCelerio(schema.getCelerio());
+        config.setProject(new Project());
+        projectFactory.init();
+    }
+}
@@ -19,6 +19,10 @@ package com.jaxio.celerio.template;
 import com.jaxio.celerio.Config;
 import com.jaxio.celerio.main.CelerioProducer;
 import com.jaxio.celerio.output.OutputResultFactory;
+import com.jaxio.celerio.template.pack.Template;
+import com.jaxio.celerio.template.pack.TemplatePack;
+import com.jaxio.celerio.template.pack.TemplatePackInfo;
+import org.apache.velocity.VelocityContext;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,7 +31,9 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.StringReader;
+import java.util.List;
 import java.util.Scanner;
 import java.util.regex.MatchResult;
 
@@ -47,6 +53,9 @@ public class VelocityGeneratorTest {
     @Autowired
     private OutputResultFactory outputResultFactory;
 
+    @Autowired
+    private VelocityGenerator velocityGenerator;
+
     @Test
     public void testExtraction() {
         String message = "Object 'com.jaxio.celerio.convention.WellKnownFolder' does not contain property 'resource' at src/main/resources/spring/springmvc-parent.p.vm.xml[line "
@@ -59,4 +68,60 @@ public class VelocityGeneratorTest {
         assertThat(result.group(1)).isEqualTo("28");
         assertThat(result.group(2)).isEqualTo("47");
     }
-}
+
+    @Test
+    public void sameTemplateNameInTwoPacks() throws Exception {
+        final TemplatePack packA = new NamedPack("pack-a");
+        final TemplatePack packB = new NamedPack("pack-b");
+        final String[] evaluatedMeanwhile = new String[1];
+        Template templateA = new Template("same.vm", packA.getTemplatePackInfo(), "a".getBytes("UTF-8")) {
+            @Override
+            public String getEncoding() {
+                if (evaluatedMeanwhile[0] == null) {
+                    // another worker compiles the same template name of another pack while this one is compiled
+                    try {
+                        evaluatedMeanwhile[0] = evaluate(packB, new Template("same.vm", packB.getTemplatePackInfo(), "b".getBytes("UTF-8")));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return "UTF-8";
+            }
+        };
+
+        assertThat(evaluate(packA, templateA)).isEqualTo("a");
+        assertThat(evaluatedMeanwhile[0]).isEqualTo("b");
+    }
+
+    private String evaluate(TemplatePack pack, Template template) throws IOException {
+        return velocityGenerator.evaluate(new VelocityContext(), pack, template);
+    }
+
+    private static class NamedPack implements TemplatePack {
+        private final TemplatePackInfo templatePackInfo;
+
+        NamedPack(String name) {
+            templatePackInfo = new TemplatePackInfo(name);
+        }
+
+        @Override
+        public TemplatePackInfo getTemplatePackInfo() {
+            return templatePackInfo;
+        }
+
+        @Override
+        public String getName() {
+            return templatePackInfo.getName();
+        }
+
+        @Override
+        public List<String> getTemplateNames() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Template getTemplateByName(String name) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
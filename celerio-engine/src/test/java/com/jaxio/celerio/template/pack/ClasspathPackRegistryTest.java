@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaxio.celerio.template.pack;
+
+import com.jaxio.celerio.configuration.support.CelerioPackConfigLoader;
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+import com.jaxio.celerio.template.pack.ClasspathPackRegistry.RegisteredPack;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.fest.assertions.Assertions.assertThat;
+
+@ContextConfiguration("classpath:applicationContext-celerio.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ClasspathPackRegistryTest {
+
+    @Autowired
+    private CelerioPackConfigLoader celerioPackConfigLoader;
+
+    @Autowired
+    private ClasspathResourceUncryptedPackLoader uncryptedPackLoader;
+
+    private File packJar = new File("target/classpath-pack-registry");
+    private ClassLoader previousClassLoader;
+
+    @Before
+    public void packOnClasspath() throws IOException {
+        FileUtils.deleteQuietly(packJar);
+        FileUtils.copyFile(new File("src/test/resources/celerio-pack.xml"), new File(packJar, "META-INF/celerio-pack.xml"));
+        FileUtils.writeStringToFile(new File(packJar, "celerio/toto/src/main/java/Entity.e.vm.java"), "entity");
+        FileUtils.writeStringToFile(new File(packJar, "celerio/toto/pom.p.vm.xml"), "project");
+        FileUtils.writeStringToFile(new File(packJar, "celerio/toto/static.txt"), "static");
+        previousClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{packJar.toURI().toURL()}, previousClassLoader));
+    }
+
+    @After
+    public void restoreClassLoader() {
+        Thread.currentThread().setContextClassLoader(previousClassLoader);
+    }
+
+    @Test
+    public void scannedOncePerClassLoader() throws IOException {
+        ClasspathPackRegistry registry = ClasspathPackRegistry.get(celerioPackConfigLoader);
+        assertThat(ClasspathPackRegistry.get(celerioPackConfigLoader)).isSameAs(registry);
+
+        RegisteredPack toto = getRegisteredToto(registry.getPacks());
+        assertThat(toto.getTemplateNames()).isEqualTo(asList("pom.p.vm.xml", "src/main/java/Entity.e.vm.java", "static.txt"));
+        assertThat(toto.getTemplateNames(TemplateType.entity)).isEqualTo(asList("src/main/java/Entity.e.vm.java"));
+        assertThat(toto.getTemplateNames(TemplateType.project)).isEqualTo(asList("pom.p.vm.xml"));
+        assertThat(toto.getTemplateNames(TemplateType.attribute)).isEmpty();
+
+        // contents are read on first use, then kept
+        FileUtils.writeStringToFile(new File(packJar, "celerio/toto/static.txt"), "static changed");
+        assertThat(new String(toto.getContent("static.txt"), "UTF-8")).isEqualTo("static changed");
+        FileUtils.writeStringToFile(new File(packJar, "celerio/toto/static.txt"), "static changed again");
+        assertThat(new String(toto.getContent("static.txt"), "UTF-8")).isEqualTo("static changed");
+        assertThat(toto.getContent("unknown.txt")).isNull();
+    }
+
+    @Test
+    public void invalidatedRegistryIsScannedAgain() throws IOException {
+        ClasspathPackRegistry registry = ClasspathPackRegistry.get(celerioPackConfigLoader);
+        ClasspathPackRegistry.invalidate();
+        ClasspathPackRegistry scannedAgain = ClasspathPackRegistry.get(celerioPackConfigLoader);
+        assertThat(scannedAgain).isNotSameAs(registry);
+        assertThat(getRegisteredToto(scannedAgain.getPacks()).getTemplateNames()).isEqualTo(getRegisteredToto(registry.getPacks()).getTemplateNames());
+    }
+
+    @Test
+    public void eachLoadReturnsItsOwnPacks() throws IOException {
+        ClasspathResourceUncryptedPack first = getToto(uncryptedPackLoader.getPacks());
+        ClasspathResourceUncryptedPack second = getToto(uncryptedPackLoader.getPacks());
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getTemplatePackInfo()).isNotSameAs(second.getTemplatePackInfo());
+        assertThat(first.getTemplateNames()).isEqualTo(second.getTemplateNames());
+
+        Template template = first.getTemplateByName("pom.p.vm.xml");
+        assertThat(template.getTemplate()).isEqualTo("project");
+        assertThat(template.getTemplatePackInfo()).isSameAs(first.getTemplatePackInfo());
+        assertThat(first.getTemplateByName("pom.p.vm.xml")).isSameAs(template);
+        assertThat(second.getTemplateByName("pom.p.vm.xml").getTemplatePackInfo()).isSameAs(second.getTemplatePackInfo());
+    }
+
+    private RegisteredPack getRegisteredToto(List<RegisteredPack> packs) {
+        for (RegisteredPack pack : packs) {
+            if (pack.getCelerioPack().getPackName().getValue().equals("toto")) {
+                return pack;
+            }
+        }
+        throw new AssertionError("toto pack not found");
+    }
+
+    private ClasspathResourceUncryptedPack getToto(Iterable<TemplatePack> packs) {
+        for (TemplatePack pack : packs) {
+            if (pack.getName().equals("toto")) {
+                return (ClasspathResourceUncryptedPack) pack;
+            }
+        }
+        throw new AssertionError("toto pack not found");
+    }
+}
\ No newline at end of file
@@ -16,10 +16,16 @@
 
 package com.jaxio.celerio.template.pack;
 
+import com.jaxio.celerio.template.TemplateEngine.TemplateType;
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -62,4 +68,63 @@ public class LocalResourcePackFileTest {
         TemplatePack pack = new LocalResourcePackFile(new TemplatePackInfo("dummy"), new File("src/test/resources/templates/3-files-subfolder"));
         pack.getTemplateByName("unkown.txt");
     }
-}
+
+    @Test
+    public void indexIsSharedUntilAFolderChanges() throws IOException {
+        File packRoot = new File("target/local-pack-index/shared");
+        FileUtils.deleteQuietly(packRoot);
+        FileUtils.writeStringToFile(new File(packRoot, "src/Entity.e.vm.java"), "entity");
+        setLastModifiedInThePast(packRoot);
+
+        List<String> templateNames = new LocalResourcePackFile(new TemplatePackInfo("dummy"), packRoot).getTemplateNames();
+        assertThat(templateNames).isEqualTo(asList("src/Entity.e.vm.java"));
+        assertThat(new LocalResourcePackFile(new TemplatePackInfo("dummy"), packRoot).getTemplateNames()).isSameAs(templateNames);
+
+        FileUtils.writeStringToFile(new File(packRoot, "src/pom.p.vm.xml"), "project");
+        LocalResourcePackFile pack = new LocalResourcePackFile(new TemplatePackInfo("dummy"), packRoot);
+        assertThat(pack.getTemplateNames()).isEqualTo(asList("src/Entity.e.vm.java", "src/pom.p.vm.xml"));
+        assertThat(pack.getTemplateNames(TemplateType.project)).isEqualTo(asList("src/pom.p.vm.xml"));
+        assertThat(pack.getTemplateNames(TemplateType.entity)).isEqualTo(asList("src/Entity.e.vm.java"));
+    }
+
+    @Test
+    public void modifiedTemplateIsReadAgain() throws IOException {
+        File packRoot = new File("target/local-pack-index/modified");
+        FileUtils.deleteQuietly(packRoot);
+        File template = new File(packRoot, "one.txt");
+        FileUtils.writeStringToFile(template, "one");
+        setLastModifiedInThePast(packRoot);
+
+        assertThat(new LocalResourcePackFile(new TemplatePackInfo("dummy"), packRoot).getTemplateByName("one.txt").getTemplate()).isEqualTo("one");
+        FileUtils.writeStringToFile(template, "two");
+        assertThat(new LocalResourcePackFile(new TemplatePackInfo("dummy"), packRoot).getTemplateByName("one.txt").getTemplate()).isEqualTo("two");
+    }
+
+    @Test
+    public void fileStampsFollowTheFilesWithoutListingAgain() throws IOException {
+        File packRoot = new File("target/local-pack-index/stamps");
+        FileUtils.deleteQuietly(packRoot);
+        File template = new File(packRoot, "src/one.txt");
+        FileUtils.writeStringToFile(template, "one");
+        setLastModifiedInThePast(packRoot);
+
+        LocalPackIndex index = LocalPackIndex.get(packRoot.getAbsolutePath());
+        Map<String, String> stamps = index.getFileStamps();
+        assertThat(stamps.keySet()).containsOnly(template.getAbsolutePath());
+        assertThat(index.getFileStamps()).isEqualTo(stamps);
+
+        // modified in place, its folder is unchanged
+        FileUtils.writeStringToFile(template, "modified");
+        assertThat(LocalPackIndex.get(packRoot.getAbsolutePath())).isSameAs(index);
+        assertThat(index.getFileStamps()).isNotEqualTo(stamps);
+    }
+
+    private void setLastModifiedInThePast(File file) {
+        if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                setLastModifiedInThePast(child);
+            }
+        }
+        assertThat(file.setLastModified(System.currentTimeMillis() - 60000)).isTrue();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.util;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static com.jaxio.celerio.util.GenerationMetrics.CSV_REPORT;
+import static com.jaxio.celerio.util.GenerationMetrics.JSON_REPORT;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class GenerationMetricsTest {
+
+    @Test
+    public void reportsPerTemplate() throws Exception {
+        File reportFolder = new File("target/generation-metrics");
+        deleteDirectory(reportFolder);
+
+        GenerationMetrics metrics = new GenerationMetrics();
+        metrics.setReportFolder(reportFolder);
+        metrics.startPhase("entities");
+        metrics.endPhase();
+        for (int i = 1; i <= 100; i++) {
+            metrics.templateEvaluated("pack", "src/main/java/Entity.e.vm.java", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        metrics.contentEmitted("pack", "src/main/java/Entity.e.vm.java", 1000);
+        metrics.contentEmitted("pack", "static.txt", 10);
+        metrics.outputWritten(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.outputPublished(TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.report();
+
+        String json = readFileToString(new File(reportFolder, JSON_REPORT));
+        assertThat(json).contains("\"entities\": ");
+        assertThat(json).contains("\"outputMs\": 3.000,\n  \"outputPublishingMs\": 2.000,");
+        assertThat(json).contains("{\"pack\": \"pack\", \"template\": \"src/main/java/Entity.e.vm.java\", \"type\": \"entity\", \"count\": 100, "
+                + "\"totalMs\": 5050.000, \"p50Ms\": 50.000, \"p99Ms\": 99.000, \"bytes\": 1000}");
+        assertThat(json).contains("\"static\": {\"count\": 0, \"totalMs\": 0.000, \"bytes\": 10}");
+
+        String csv = readFileToString(new File(reportFolder, CSV_REPORT));
+        assertThat(csv).startsWith("pack,template,type,count,totalMs,p50Ms,p99Ms,bytes\n" //
+                + "pack,src/main/java/Entity.e.vm.java,entity,100,5050.000,50.000,99.000,1000\n");
+    }
+
+    @Test
+    public void resetForgetsThePreviousGeneration() throws Exception {
+        File reportFolder = new File("target/generation-metrics-reset");
+        GenerationMetrics metrics = new GenerationMetrics();
+        metrics.setReportFolder(reportFolder);
+        metrics.templateEvaluated("pack", "a.p.vm.txt", 1);
+        metrics.reset();
+        metrics.report();
+
+        assertThat(readFileToString(new File(reportFolder, CSV_REPORT))).isEqualTo("pack,template,type,count,totalMs,p50Ms,p99Ms,bytes\n");
+    }
+}
\ No newline at end of file
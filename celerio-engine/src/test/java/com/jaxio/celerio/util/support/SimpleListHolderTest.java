@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.util.support;
+
+import com.google.common.base.Predicates;
+import com.jaxio.celerio.util.Named;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SimpleListHolderTest {
+
+    private static final SortKey<Element> ORDER = new SortKey<Element>() {
+        @Override
+        public String getSortKey(Element element) {
+            return element.order;
+        }
+    };
+
+    @Test
+    public void sortsOnKeyWithoutDuplicates() {
+        List<Element> elements = newArrayList();
+        for (int i = 0; i < 40; i++) {
+            elements.add(new Element("e" + i, i % 3 == 0 ? null : "" + i % 5));
+        }
+        elements.addAll(elements);
+
+        List<Element> list = new SimpleListHolder<Element>(elements, Predicates.<Element>alwaysTrue(), ORDER).getList();
+
+        assertThat(list).hasSize(40);
+        for (int i = 1; i < list.size(); i++) {
+            Element previous = list.get(i - 1);
+            Element current = list.get(i);
+            if (current.order == null) {
+                // missing keys last, in the original order
+                if (previous.order == null) {
+                    assertThat(previous.index).isLessThan(current.index);
+                }
+            } else {
+                assertThat(previous.order).isNotNull();
+                assertThat(previous.order.compareTo(current.order)).isLessThanOrEqualTo(0);
+                if (previous.order.equals(current.order)) {
+                    assertThat(previous.index).isLessThan(current.index);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void exceptKeepsTheOrder() {
+        List<Element> elements = newArrayList(new Element("a", "3"), new Element("b", "1"), new Element("c", "2"));
+        SimpleListHolder<Element> holder = new SimpleListHolder<Element>(elements, Predicates.<Element>alwaysTrue(), ORDER);
+
+        List<Element> list = holder.except("c").getList();
+
+        assertThat(list).containsExactly(elements.get(1), elements.get(0));
+        assertThat(holder.except("c")).isSameAs(holder.except("c"));
+    }
+
+    private static class Element implements Named {
+        private final String name;
+        private final String order;
+        private final int index;
+
+        Element(String name, String order) {
+            this.name = name;
+            this.order = order;
+            this.index = Integer.parseInt("0" + name.substring(1));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
\ No newline at end of file
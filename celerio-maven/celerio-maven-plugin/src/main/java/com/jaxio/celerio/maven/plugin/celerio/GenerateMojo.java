@@ -25,9 +25,11 @@ import com.jaxio.celerio.configuration.database.support.MetadataExtractor;
 import com.jaxio.celerio.configuration.support.CelerioLoader;
 import com.jaxio.celerio.configuration.support.MetadataLoader;
 import com.jaxio.celerio.main.CelerioProducer;
+import com.jaxio.celerio.output.FolderOutputResult;
 import com.jaxio.celerio.output.OutputResult;
 import com.jaxio.celerio.output.OutputResultFactory;
 import com.jaxio.celerio.template.pack.PackLoader;
+import com.jaxio.celerio.util.GenerationMetrics;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.AbstractMojo;
@@ -39,6 +41,7 @@ import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringInputStream;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.oxm.XmlMappingException;
 
@@ -46,6 +49,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -110,6 +114,14 @@ public class GenerateMojo extends AbstractMojo {
     @Parameter(property = "celerio-maven-plugin.xml.metadata", defaultValue = "${basedir}/src/main/config/celerio-maven-plugin/metadata.xml")
     protected String xmlMetadata;
 
+    /**
+     * Load the metadata from the binary snapshot kept next to the metadata.xml file (metadata.xml.snapshot) when it was taken from the
+     * same xml content, which is faster than parsing the xml. A missing or stale snapshot is written again after parsing the xml.
+     * When false, the default, the xml is always parsed and no snapshot is read or created.
+     */
+    @Parameter(property = "celerio-maven-plugin.metadataSnapshot", defaultValue = "false")
+    protected boolean metadataSnapshot;
+
     /**
      * Should the source code generation be skipped ?
      * <p>
@@ -176,6 +188,48 @@ public class GenerateMojo extends AbstractMojo {
     @Parameter(property = "springfuseMode", defaultValue = "false")
     protected boolean springfuseMode;
 
+    /**
+     * Number of threads used to evaluate the entity, attribute, enum and composite primary key templates.
+     * <p>
+     * Whatever the value, the generated files and the logs are the same as with a sequential generation.
+     */
+    @Parameter(property = "celerio-maven-plugin.threads", defaultValue = "1")
+    protected int threads;
+
+    /**
+     * Number of threads used to build the project model: entities sharing neither a hierarchy nor a table get their keys, business keys
+     * and SPIs set up concurrently. The relations are always built sequentially.
+     * <p>
+     * Whatever the value, the model is the same as with a sequential building.
+     */
+    @Parameter(property = "celerio-maven-plugin.modelThreads", defaultValue = "1")
+    protected int modelThreads;
+
+    /**
+     * Skip the evaluation of the entity, attribute, enum and composite primary key templates whose inputs did not change
+     * since the previous generation. The fingerprints of the inputs are kept in the .celerio folder.
+     * <p>
+     * Project templates are always evaluated. When the configuration changes, everything is generated again.
+     */
+    @Parameter(property = "celerio-maven-plugin.incremental", defaultValue = "false")
+    protected boolean incremental;
+
+    /**
+     * Compare a file generated previously and not modified since to its new content by the CRC32C kept in the .celerio folder,
+     * instead of reading it. Speeds up the generations producing mostly identical files, at the cost of not writing a change of
+     * the same size whose CRC32C is the same.
+     */
+    @Parameter(property = "celerio-maven-plugin.compareByTrackedHash", defaultValue = "false")
+    protected boolean compareByTrackedHash;
+
+    /**
+     * Folder where the generation metrics are written: time spent in each model building phase, evaluation times and size
+     * of each template, formatting and output times. The report is written as generation-metrics.json and
+     * generation-metrics.csv. When empty, the metrics summary is only logged.
+     */
+    @Parameter(property = "celerio-maven-plugin.metrics", defaultValue = "${project.build.directory}/celerio-maven-plugin")
+    protected String metricsFolder;
+
     public String getPluginPackage() {
         return "com.jaxio.celerio";
     }
@@ -212,13 +266,56 @@ public class GenerateMojo extends AbstractMojo {
 
         context = new ClassPathXmlApplicationContext("classpath:applicationContext-celerio.xml");
         CelerioProducer producer = context.getBean(CelerioProducer.class);
-        Config config = setupConfig(producer.getConfig(), xmlMetadata, xmlConfiguration, baseDir, outputDirectory);
-        config.setSpringfuseMode(getSpringfuseMode());
-        exitIfConfigurationMissing(config);
+        if (isNotBlank(metricsFolder)) {
+            context.getBean(GenerationMetrics.class).setReportFolder(new File(metricsFolder));
+        }
+        loadConfig(producer.getConfig());
         exitIfNoPackDefined(producer.getPackLoader());
+        produce(producer);
+    }
+
+    protected void produce(CelerioProducer producer) throws Exception {
         producer.produce();
     }
 
+    /**
+     * Loads the metadata, the celerio configuration and the plugin settings into the given config.
+     */
+    protected void loadConfig(Config config) throws Exception {
+        setupConfig(config, xmlMetadata, xmlConfiguration, baseDir, outputDirectory);
+        config.setSpringfuseMode(getSpringfuseMode());
+        config.setGenerationThreads(threads);
+        config.setModelThreads(modelThreads);
+        config.setIncrementalGeneration(incremental);
+        if (config.getOutputResult() instanceof FolderOutputResult) {
+            ((FolderOutputResult) config.getOutputResult()).setCompareByTrackedHash(compareByTrackedHash);
+        }
+        exitIfConfigurationMissing(config);
+    }
+
+    /**
+     * @return the files the metadata and the celerio configuration are loaded from.
+     */
+    protected List<File> getConfigurationFiles() {
+        List<File> files = new ArrayList<File>();
+        if (isNotBlank(xmlMetadata)) {
+            files.add(new File(xmlMetadata));
+        } else {
+            files.add(new File(DEFAULT_XML_METADATA));
+        }
+        if (isNotBlank(xmlConfiguration)) {
+            files.add(new File(xmlConfiguration));
+        }
+        if (isNotBlank(xmlTemplatePacksOverride)) {
+            files.add(new File(xmlTemplatePacksOverride));
+        }
+        return files;
+    }
+
+    protected ApplicationContext getContext() {
+        return context;
+    }
+
     private void exitIfConfigurationMissing(Config config) throws MojoExecutionException {
         if (isNull(config.getMetadata(), config.getCelerio(), config.getOutputResult())) {
             String message = "";
@@ -308,6 +405,9 @@ public class GenerateMojo extends AbstractMojo {
 
     private Metadata getMetadataFromFile(String filename) throws XmlMappingException, IOException {
         MetadataLoader metaDataLoader = context.getBean(MetadataLoader.class);
+        if (metadataSnapshot) {
+            return metaDataLoader.loadWithSnapshot(new File(filename), true);
+        }
         return metaDataLoader.load(filename);
     }
 
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 JAXIO http://www.jaxio.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaxio.celerio.maven.plugin.celerio;
+
+import com.jaxio.celerio.Config;
+import com.jaxio.celerio.main.CelerioDaemon;
+import com.jaxio.celerio.main.CelerioDaemon.ConfigurationSource;
+import com.jaxio.celerio.main.CelerioProducer;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Generates like the generate goal, then keeps running and generates again whenever the metadata, the Celerio
+ * configuration or a local template pack changes. Stop it with Ctrl-C.
+ * <p>
+ * The Celerio engine, the template packs and the project model are kept warm between two generations, and the
+ * generation is always incremental, whatever the <code>incremental</code> parameter: only the templates whose inputs
+ * changed are evaluated again.
+ *
+ * @since 4.0.24
+ */
+@Mojo(name = "watch", requiresProject = false)
+public class WatchMojo extends GenerateMojo {
+    /**
+     * Milliseconds between two checks of the watched files.
+     */
+    @Parameter(property = "celerio-maven-plugin.watch.interval", defaultValue = "500")
+    protected long watchInterval;
+
+    @Override
+    public String getPluginGoal() {
+        return "watch";
+    }
+
+    @Override
+    protected void produce(CelerioProducer producer) throws Exception {
+        CelerioDaemon daemon = getContext().getBean(CelerioDaemon.class);
+        daemon.setPollingInterval(watchInterval);
+        daemon.watch(new ConfigurationSource() {
+            @Override
+            public List<File> getConfigurationFiles() {
+                return WatchMojo.this.getConfigurationFiles();
+            }
+
+            @Override
+            public void load(Config config) throws Exception {
+                loadConfig(config);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -19,6 +19,7 @@ import com.jaxio.celerio.configuration.database.JdbcConnectivity;
 import com.jaxio.celerio.configuration.database.Metadata;
 import com.jaxio.celerio.configuration.database.TableType;
 import com.jaxio.celerio.configuration.database.support.MetadataExtractor;
+import com.jaxio.celerio.configuration.database.support.TableChanges;
 import com.jaxio.celerio.configuration.support.MetadataLoader;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.plugin.AbstractMojo;
@@ -126,6 +127,28 @@ public class DbMetadataMojo extends AbstractMojo {
     @Parameter(property = "jdbc.reverseOnlyUniqueIndexes", defaultValue = "true")
     protected boolean reverseOnlyUniqueIndexes;
 
+    /**
+     * Number of connections used to extract the columns, primary keys, imported keys and indexes of the tables.
+     * Can be useful when reversing large remote databases as each table requires several round trips.
+     */
+    @Parameter(property = "jdbc.extractionThreads", defaultValue = "1")
+    protected int extractionThreads;
+
+    /**
+     * Extract the columns, primary keys, imported keys and indexes of all the tables with one query per kind of metadata instead of one query per table.
+     * Dedicated queries are used for H2, Oracle and MySQL, other databases only benefit from it for the columns.
+     */
+    @Parameter(property = "jdbc.bulkExtraction", defaultValue = "false")
+    protected boolean bulkExtraction;
+
+    /**
+     * Extract again only the tables whose definition changed since the previous extraction, the other tables are taken from the existing metadata.xml.
+     * The change marks of the tables are kept in metadata.xml.changes. Dedicated queries are used for H2, Oracle and MySQL, other databases are
+     * always extracted completely.
+     */
+    @Parameter(property = "jdbc.incrementalExtraction", defaultValue = "false")
+    protected boolean incrementalExtraction;
+
     /**
      * Should we also reverse VIEWS?
      */
@@ -150,6 +173,13 @@ public class DbMetadataMojo extends AbstractMojo {
     @Parameter(property = "maven-metadata-plugin.targetFilename", defaultValue = "${basedir}/src/main/config/celerio-maven-plugin/metadata.xml")
     protected String targetFilename;
 
+    /**
+     * Write along with the metadata.xml file a binary snapshot of it (metadata.xml.snapshot) that the celerio-maven-plugin loads faster than the xml.
+     * Off by default: enable it together with the metadataSnapshot parameter of the celerio-maven-plugin.
+     */
+    @Parameter(property = "maven-metadata-plugin.snapshot", defaultValue = "false")
+    protected boolean snapshot;
+
     protected ApplicationContext context;
 
     public void execute() throws MojoExecutionException {
@@ -182,11 +212,33 @@ public class DbMetadataMojo extends AbstractMojo {
     private void extract(JdbcConnectivity configuration, String target) throws MojoExecutionException {
         MetadataExtractor extractor = getMetadataExtractor();
         MetadataLoader loader = getMetadataLoader();
+        extractor.setExtractionThreads(extractionThreads);
+        extractor.setBulkExtraction(bulkExtraction);
+        File targetFile = new File(targetFilename);
+        File changesFile = TableChanges.getFile(targetFile);
         try {
-            Metadata metaData = extractor.extract(configuration);
+            Metadata metaData;
+            TableChanges changes = null;
+            if (incrementalExtraction) {
+                changes = TableChanges.load(changesFile);
+                Metadata previous = targetFile.isFile() ? loader.loadWithSnapshot(targetFile, false) : null;
+                metaData = extractor.extract(configuration, previous, changes);
+            } else {
+                metaData = extractor.extract(configuration);
+            }
             metaData.cleanMetadata();
-            loader.write(metaData, targetFilename);
-            getLog().info("Write metadata.xml file to " + removeBaseDir(target));
+            if (snapshot) {
+                loader.writeWithSnapshot(metaData, targetFile);
+                getLog().info("Write metadata.xml file and its snapshot to " + removeBaseDir(target));
+            } else {
+                loader.write(metaData, targetFilename);
+                getLog().info("Write metadata.xml file to " + removeBaseDir(target));
+            }
+            if (changes != null) {
+                changes.save(changesFile);
+            } else if (changesFile.exists() && !changesFile.delete()) {
+                getLog().warn("Could not delete the outdated " + removeBaseDir(changesFile.getPath()));
+            }
         } catch (ClassNotFoundException e) {
             throw new MojoExecutionException("Could not load driver", e);
         } catch (SQLException e) {